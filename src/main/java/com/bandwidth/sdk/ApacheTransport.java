@@ -0,0 +1,349 @@
+package com.bandwidth.sdk;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Default Transport, backed by the Apache HttpClient and a PoolingHttpClientConnectionManager. Every in-flight request
+ * holds its own HTTP/1.1 connection, so the pool is sized with maxTotal and defaultMaxPerRoute.
+ * How much of the pool is used at a time is decided by the ConcurrencyLimiter of the BandwidthClient.
+ */
+public class ApacheTransport implements Transport {
+
+    private final static Logger LOG = LoggerFactory.getLogger(ApacheTransport.class);
+
+    /**
+     * How long a warmed connection may stay idle in the pool. Matches the idle limit of the IdleConnectionReaper.
+     */
+    private static final long WARM_KEEP_ALIVE_MILLIS = IdleConnectionReaper.IDLE_TIMEOUT_MILLIS;
+    private static final int WARM_CONNECT_TIMEOUT_MILLIS = 10000;
+    private static final long WARM_LEASE_TIMEOUT_MILLIS = 1000;
+
+    protected final HttpClient httpClient;
+
+    protected PoolingHttpClientConnectionManager connectionManager;
+
+    private volatile HttpRoute warmRoute;
+    private volatile int minWarmConnections;
+
+    private IdleConnectionReaper.Registration reaperRegistration;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Constructor.
+     *
+     * @param maxTotal the maximum number of pooled connections.
+     * @param defaultMaxPerRoute the maximum number of pooled connections per route.
+     */
+    public ApacheTransport(final int maxTotal, final int defaultMaxPerRoute) {
+        this.httpClient = createHttpClient(maxTotal, defaultMaxPerRoute);
+    }
+
+    @Override
+    public RestResponse execute(final TransportRequest request) throws IOException {
+        final HttpUriRequest httpRequest = toHttpUriRequest(request);
+        request.onCancel(httpRequest::abort);
+        final HttpResponse response = httpClient.execute(httpRequest);
+        if (request.isStreaming() && response.getStatusLine().getStatusCode() < 300) {
+            // closing the content gives the connection back to the pool
+            return RestResponse.createStreamingResponse(response);
+        }
+        return RestResponse.createRestResponse(response, request.getBufferPool());
+    }
+
+    @Override
+    public void download(final TransportRequest request, final File destFile) throws IOException {
+        HttpResponse response;
+        OutputStream outputStream = null;
+        try {
+            response = httpClient.execute(toHttpUriRequest(request));
+            final HttpEntity entity = response.getEntity();
+
+            final StatusLine status = response.getStatusLine();
+            final int statusCode = status.getStatusCode();
+            final Header contentEncoding = response.getFirstHeader("Content-Encoding");
+            final String encoding = contentEncoding == null ? null : contentEncoding.getValue();
+            if (statusCode >= 400) {
+                throw new IOException(ContentDecoder.readText(entity.getContent(), encoding, null));
+            }
+            outputStream = new BufferedOutputStream(new FileOutputStream(destFile));
+            try (InputStream content = ContentDecoder.decode(entity.getContent(), encoding)) {
+                IOUtils.copy(content, outputStream);
+            }
+        } catch (final ClientProtocolException e1) {
+            throw new IOException(e1);
+        } catch (final IOException e1) {
+            throw new IOException(e1);
+        } finally {
+            try {
+                if (outputStream != null) {
+                    outputStream.close();
+                }
+            } catch (final IOException ignore) {
+
+            }
+        }
+    }
+
+    /**
+     * Helper method that converts a TransportRequest to the matching Apache request, timeouts included. Also used by
+     * the BandwidthAsyncClient, which runs the same requests on the non-blocking engine.
+     *
+     * @param request the request.
+     * @return the Apache request.
+     */
+    public static HttpUriRequest toHttpUriRequest(final TransportRequest request) {
+        final HttpRequestBase httpRequest;
+        if (StringUtils.equalsIgnoreCase(request.getMethod(), HttpGet.METHOD_NAME)) {
+            httpRequest = new HttpGet(request.getUri());
+        } else if (StringUtils.equalsIgnoreCase(request.getMethod(), HttpPost.METHOD_NAME)) {
+            httpRequest = withEntity(new HttpPost(request.getUri()), request);
+        } else if (StringUtils.equalsIgnoreCase(request.getMethod(), HttpPut.METHOD_NAME)) {
+            httpRequest = withEntity(new HttpPut(request.getUri()), request);
+        } else if (StringUtils.equalsIgnoreCase(request.getMethod(), HttpDelete.METHOD_NAME)) {
+            httpRequest = new HttpDelete(request.getUri());
+        } else {
+            throw new RuntimeException(String.format("Method %s not supported.", request.getMethod()));
+        }
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            httpRequest.setHeader(header.getKey(), header.getValue());
+        }
+        if (request.hasTimeouts()) {
+            httpRequest.setConfig(toRequestConfig(request.getConnectTimeoutMillis(), request.getSocketTimeoutMillis(),
+                    request.getConnectionRequestTimeoutMillis()));
+        }
+        return httpRequest;
+    }
+
+    private static RequestConfig toRequestConfig(final int connectTimeoutMillis, final int socketTimeoutMillis,
+                                                 final int connectionRequestTimeoutMillis) {
+        // 0 is no timeout for HttpClient too
+        return RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSocketTimeout(socketTimeoutMillis)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMillis)
+                .build();
+    }
+
+    private static HttpRequestBase withEntity(final HttpEntityEnclosingRequestBase httpRequest,
+                                             final TransportRequest request) {
+        final ContentType contentType = request.getContentType() == null
+                ? null : ContentType.parse(request.getContentType());
+        if (request.getFile() != null) {
+            httpRequest.setEntity(contentType == null
+                    ? new FileEntity(request.getFile()) : new FileEntity(request.getFile(), contentType));
+        } else if (request.getBodyBuffer() != null) {
+            // read in place, execute() returns once it is sent or the exchange is aborted
+            final PooledBuffer body = request.getBodyBuffer();
+            httpRequest.setEntity(new ByteArrayEntity(body.array(), 0, body.length(),
+                    contentType == null ? ContentType.APPLICATION_JSON : contentType));
+        } else if (request.getBody() != null) {
+            httpRequest.setEntity(new StringEntity(request.getBody(),
+                    contentType == null ? ContentType.APPLICATION_JSON : contentType));
+        }
+        return httpRequest;
+    }
+
+    private HttpClient createHttpClient(final int maxTotal, final int defaultMaxPerRoute) {
+        // Following recommendations from
+        // https://hc.apache.org/httpcomponents-client-ga/tutorial/html/connmgmt.html
+        PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
+        this.connectionManager = cm;
+
+        cm.setMaxTotal(maxTotal);
+        cm.setDefaultMaxPerRoute(defaultMaxPerRoute);
+
+        HttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(cm)
+                .setKeepAliveStrategy(getStrategy())
+                // for requests without timeouts of their own; a BandwidthClient sets its TimeoutPolicy on each
+                .setDefaultRequestConfig(toRequestConfig(TimeoutPolicy.DEFAULT.getConnectTimeoutMillis(),
+                        TimeoutPolicy.DEFAULT.getSocketTimeoutMillis(),
+                        TimeoutPolicy.DEFAULT.getConnectionRequestTimeoutMillis()))
+                // the client negotiates compression itself, and RestResponse decodes it for every transport
+                .disableContentCompression()
+                .build();
+        this.reaperRegistration = IdleConnectionReaper.register(cm, new Runnable() {
+            @Override
+            public void run() {
+                refreshWarmConnections();
+            }
+        });
+
+        return httpClient;
+    }
+
+    /**
+     * Leases the given number of connections to the endpoint at once, which forces the pool to open as many, then
+     * returns them to the pool. Capped by defaultMaxPerRoute.
+     */
+    @Override
+    public int warmUp(final URI endpoint, final int connections) throws IOException {
+        return openConnections(toRoute(endpoint), connections);
+    }
+
+    @Override
+    public void keepWarm(final URI endpoint, final int minConnections) {
+        this.warmRoute = toRoute(endpoint);
+        this.minWarmConnections = minConnections;
+    }
+
+    /**
+     * Called by the IdleConnectionReaper before it reaps idle connections. Leases and returns the warm
+     * connections not currently in use, which resets their idle time so the reaper keeps them, and reopens those
+     * the server has closed.
+     */
+    protected void refreshWarmConnections() {
+        final HttpRoute route = warmRoute;
+        final int min = minWarmConnections;
+        if (route == null || min <= 0) {
+            return;
+        }
+        final PoolStats stats = connectionManager.getStats(route);
+        final int idle = min - stats.getLeased();
+        if (idle <= 0) {
+            // enough traffic keeps them warm
+            return;
+        }
+        try {
+            final int opened = openConnections(route, idle);
+            if (opened > 0) {
+                LOG.debug("Reopened {} warm connections to {}", opened, route.getTargetHost());
+            }
+        } catch (final IOException | RuntimeException e) {
+            LOG.warn("Failed to keep connections to {} warm: {}", route.getTargetHost(), e.toString());
+        }
+    }
+
+    private int openConnections(final HttpRoute route, final int count) throws IOException {
+        final List<HttpClientConnection> leased = new ArrayList<HttpClientConnection>();
+        int opened = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                final ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+                final HttpClientConnection connection;
+                try {
+                    connection = connectionRequest.get(WARM_LEASE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (final ConnectionPoolTimeoutException e) {
+                    // the pool is busy serving requests, which keeps it warm anyway
+                    break;
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (final ExecutionException e) {
+                    throw new IOException(e.getCause());
+                }
+                leased.add(connection);
+                if (connection.isOpen() && connection.isStale()) {
+                    connection.close();
+                }
+                if (!connection.isOpen()) {
+                    final HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(connection, route, WARM_CONNECT_TIMEOUT_MILLIS, context);
+                    connectionManager.routeComplete(connection, route, context);
+                    // binds the socket streams, which otherwise happens on the first request; the stale check of
+                    // the pool needs them
+                    connection.flush();
+                    opened++;
+                }
+            }
+        } finally {
+            for (final HttpClientConnection connection : leased) {
+                connectionManager.releaseConnection(connection, null, WARM_KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+        return opened;
+    }
+
+    private static HttpRoute toRoute(final URI endpoint) {
+        final HttpHost target = URIUtils.extractHost(endpoint);
+        if (target == null) {
+            throw new IllegalArgumentException("Endpoint must be absolute: " + endpoint);
+        }
+        final boolean secure = "https".equalsIgnoreCase(target.getSchemeName());
+        final int port = target.getPort() > 0 ? target.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(target.getHostName(), port, target.getSchemeName()), null, secure);
+    }
+
+    private ConnectionKeepAliveStrategy getStrategy() {
+        return new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                HeaderElementIterator it = new BasicHeaderElementIterator
+                        (response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+                while (it.hasNext()) {
+                    HeaderElement he = it.nextElement();
+                    String param = he.getName();
+                    String value = he.getValue();
+                    if (value != null && param.equalsIgnoreCase
+                            ("timeout")) {
+                        return Long.parseLong(value) * 1000;
+                    }
+                }
+                return 5 * 1000;
+            }
+        };
+    }
+
+    /**
+     * Unregisters the pool from the IdleConnectionReaper and closes its connections. Calling it again does nothing.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            this.reaperRegistration.close();
+            this.connectionManager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bandwidth.sdk;
+
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * Immutable snapshot of the user id, API token and API secret used by a BandwidthClient. The client swaps the whole
+ * snapshot in one volatile write, so a request thread always sees a matching user URI and Authorization header,
+ * never a mix of old and new credentials.
+ */
+public final class ApiCredentials {
+
+    private final String userId;
+    private final String token;
+    private final String secret;
+    private final String usersUri;
+    private final String authorization;
+
+    public ApiCredentials(final String userId, final String token, final String secret) {
+        this.userId = userId;
+        this.token = token;
+        this.secret = secret;
+        this.usersUri = String.format(BandwidthConstants.USERS_URI_PATH, userId);
+        this.authorization = "Basic " + new String(Base64.encodeBase64((token + ":" + secret).getBytes()));
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    /**
+     * @return the users path, e.g. users/u-id
+     */
+    public String getUsersUri() {
+        return usersUri;
+    }
+
+    /**
+     * @return the value of the Basic Authorization header, computed once per snapshot.
+     */
+    public String getAuthorization() {
+        return authorization;
+    }
+
+    /**
+     * @return true when the user id, token and secret are all set.
+     */
+    public boolean isComplete() {
+        return userId != null && !userId.isEmpty()
+                && token != null && !token.isEmpty()
+                && secret != null && !secret.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ApiCredentials{userId='" + userId + "'}";
+    }
+}
@@ -0,0 +1,345 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.exception.CircuitBreakerOpenException;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Non-blocking twin of the BandwidthClient. The HTTP methods POST, GET, PUT and DELETE return a CompletableFuture
+ * that completes on one of the I/O reactor threads once the response has arrived, so a small, fixed number of threads
+ * can keep thousands of requests in flight.
+ *
+ * Requests are built by the wrapped BandwidthClient, so credentials, endpoint and the resource URI helpers are
+ * shared between the two clients.
+ *
+ * Of the request policies of the BandwidthClient, the circuit breakers, the rate limiters and the connect, socket and
+ * connection request timeouts of the TimeoutPolicy apply here. The async client does not retry (RetryPolicy), does
+ * not enforce deadlines (Deadline or the deadlineMillis of the TimeoutPolicy), does not go through the
+ * ConcurrencyLimiter, does not fail over between endpoints (FailoverPolicy) and always sends to the configured
+ * endpoint, does not hedge nor coalesce GETs, does not stream list pages, does not use the Transport of the client,
+ * and reads bodies as text rather than into the BufferPool. A caller that needs those sends through the
+ * BandwidthClient, e.g. CompletableFuture.supplyAsync() over the synchronous methods.
+ *
+ * This class is used as a singleton by the asynchronous factory methods of the resource classes in
+ * com.bandwidth.sdk.models, e.g. Call.createAsync().
+ */
+public class BandwidthAsyncClient implements Closeable {
+
+    private final static Logger LOG = LoggerFactory.getLogger(BandwidthAsyncClient.class);
+
+    protected final BandwidthClient client;
+
+    protected final CloseableHttpAsyncClient httpAsyncClient;
+
+    protected static volatile BandwidthAsyncClient INSTANCE;
+
+    /**
+     * getInstance() method returns a singleton instance of the BandwidthAsyncClient wrapping the singleton
+     * BandwidthClient. As with BandwidthClient.getInstance(), only the call that creates the instance locks.
+     *
+     * @return the BandwidthAsyncClient
+     */
+    public static BandwidthAsyncClient getInstance() {
+        final BandwidthAsyncClient instance = INSTANCE;
+        if (instance != null) {
+            return instance;
+        }
+        synchronized (BandwidthAsyncClient.class) {
+            if (INSTANCE == null) {
+                INSTANCE = new BandwidthAsyncClient(BandwidthClient.getInstance());
+            }
+            return INSTANCE;
+        }
+    }
+
+    public synchronized static void shutdown() {
+        if (INSTANCE != null) {
+            INSTANCE.close();
+            INSTANCE = null;
+        }
+    }
+
+    /**
+     * Constructor. Uses the connection limits of the given client and one I/O thread per available processor.
+     *
+     * @param client the client used to build requests and resource URIs.
+     */
+    public BandwidthAsyncClient(final BandwidthClient client) {
+        this(client, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param client the client used to build requests and resource URIs.
+     * @param ioThreadCount the number of I/O reactor threads.
+     */
+    public BandwidthAsyncClient(final BandwidthClient client, final int ioThreadCount) {
+        this.client = client;
+        this.httpAsyncClient = createHttpAsyncClient(ioThreadCount);
+        this.httpAsyncClient.start();
+    }
+
+    public BandwidthClient getClient() {
+        return client;
+    }
+
+    /**
+     * This method implements an asynchronous HTTP POST. Use this method to create a new resource.
+     *
+     * @param uri the URI.
+     * @param params the parameters.
+     * @return the future post response.
+     */
+    public CompletableFuture<RestResponse> post(final String uri, final Map<String, Object> params) {
+        return request(client.getPath(uri), HttpPost.METHOD_NAME, params);
+    }
+
+    /**
+     * This method implements an asynchronous HTTP POST of a json payload.
+     *
+     * @param uri the URI.
+     * @param params payload json string
+     * @return the future post response.
+     */
+    public CompletableFuture<RestResponse> postJson(final String uri, final String params) {
+        try {
+            return performRequest(ApacheTransport.toHttpUriRequest(
+                    client.setupRequestJson(client.getPath(uri), HttpPost.METHOD_NAME, params)));
+        } catch (final RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * This method implements an asynchronous HTTP GET. Use this method to retrieve a resource. As with
+     * BandwidthClient.get(), an error response completes the future with an IOException.
+     *
+     * @param uri the URI.
+     * @param params the parameters.
+     * @return the future get response.
+     */
+    public CompletableFuture<RestResponse> get(final String uri, final Map<String, Object> params) {
+        final CompletableFuture<RestResponse> result = new CompletableFuture<RestResponse>();
+        request(client.getPath(uri), HttpGet.METHOD_NAME, params).whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else if (response.isError()) {
+                // a status below 400 with an access-denied body, the statuses above are failed by performRequest()
+                final IOException failure = new IOException(response.getResponseText());
+                IOUtils.closeQuietly(response);
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(response);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * This method implements an asynchronous HTTP PUT. Use this method to update a resource.
+     *
+     * @param uri the URI.
+     * @param params the parameters.
+     * @return the future put response.
+     */
+    public CompletableFuture<RestResponse> put(final String uri, final Map<String, Object> params) {
+        return request(client.getPath(uri), HttpPut.METHOD_NAME, params);
+    }
+
+    /**
+     * This method implements an asynchronous HTTP DELETE. Use this method to remove a resource.
+     *
+     * @param uri the URI.
+     * @return the future response.
+     */
+    public CompletableFuture<RestResponse> delete(final String uri) {
+        return request(client.getPath(uri), HttpDelete.METHOD_NAME, null);
+    }
+
+    /**
+     * Helper method to build the request to the server.
+     *
+     * @param path the path.
+     * @param method the method.
+     * @param paramList the parameter list.
+     * @return the future response.
+     */
+    protected CompletableFuture<RestResponse> request(final String path, final String method,
+                                                      Map<String, Object> paramList) {
+        if (paramList == null) {
+            paramList = Collections.emptyMap();
+        }
+        try {
+            final TransportRequest request = client.setupRequest(path, method, paramList);
+            final HttpUriRequest httpRequest = ApacheTransport.toHttpUriRequest(request);
+            // a cancelled exchange can still be sending the body after its future completes, keep it out of the pool
+            request.detachBody();
+            request.releaseBody();
+            return performRequest(httpRequest);
+        } catch (final RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Helper method that executes the request on the server without blocking. The returned future completes with an
+     * AppPlatformException for statuses &gt;= 400, mirroring BandwidthClient.performRequest(). If the client has a
+     * RateLimiter for the resource path, the request is sent once its permit is available, without holding a thread.
+     * A request to a route whose circuit breaker is open fails with a CircuitBreakerOpenException.
+     * Cancelling the returned future aborts the underlying exchange.
+     *
+     * @param request the request.
+     * @return the future response.
+     */
+    protected CompletableFuture<RestResponse> performRequest(final HttpUriRequest request) {
+        final CompletableFuture<RestResponse> result = new CompletableFuture<RestResponse>();
+
+        try {
+            client.checkCredentials();
+        } catch (final RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        final CircuitBreaker circuitBreaker = client.circuitBreakerFor(request.getURI());
+        final CircuitBreaker.Permit breakerPermit = circuitBreaker == null ? null : circuitBreaker.tryAcquire();
+        if (circuitBreaker != null) {
+            if (breakerPermit == null) {
+                result.completeExceptionally(new CircuitBreakerOpenException(circuitBreaker.getRoute()));
+                return result;
+            }
+            result.whenComplete((response, error) -> {
+                if (result.isCancelled()) {
+                    breakerPermit.release();
+                } else {
+                    breakerPermit.onResult(!isRouteFailure(error));
+                }
+            });
+        }
+
+        final RateLimiter rateLimiter = client.rateLimiterFor(request.getURI());
+        if (rateLimiter == null) {
+            execute(request, result);
+        } else {
+            rateLimiter.acquireAsync().whenComplete((permit, error) -> {
+                if (error != null) {
+                    if (breakerPermit != null) {
+                        // not sent, it says nothing about the route
+                        breakerPermit.release();
+                    }
+                    result.completeExceptionally(error);
+                } else if (!result.isDone()) {
+                    execute(request, result);
+                }
+            });
+        }
+        return result;
+    }
+
+    private void execute(final HttpUriRequest request, final CompletableFuture<RestResponse> result) {
+        final Future<HttpResponse> exchange = httpAsyncClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse httpResponse) {
+                final RestResponse restResponse;
+                try {
+                    restResponse = RestResponse.createRestResponse(httpResponse);
+                } catch (final IOException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                if (restResponse.getStatus() >= 400) {
+                    final AppPlatformException error =
+                            new AppPlatformException(restResponse.getResponseText(), restResponse.getStatus());
+                    IOUtils.closeQuietly(restResponse);
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(restResponse);
+                }
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                result.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * @param error the error the request completed with, or null.
+     * @return true if the error counts against the circuit breaker: an I/O error or a status &gt;= 500.
+     */
+    private static boolean isRouteFailure(final Throwable error) {
+        if (error instanceof AppPlatformException) {
+            return ((AppPlatformException) error).getStatus() >= 500;
+        }
+        return error instanceof IOException;
+    }
+
+    private static <T> CompletableFuture<T> failed(final Throwable error) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    private CloseableHttpAsyncClient createHttpAsyncClient(final int ioThreadCount) {
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreadCount)
+                .build();
+
+        final PoolingNHttpClientConnectionManager cm;
+        try {
+            cm = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        } catch (final IOReactorException e) {
+            throw new IllegalStateException("Unable to start the I/O reactor", e);
+        }
+
+        cm.setMaxTotal(client.getMaxTotal());
+        cm.setDefaultMaxPerRoute(client.getDefaultMaxPerRoute());
+
+        return HttpAsyncClients.custom()
+                .setConnectionManager(cm)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpAsyncClient.close();
+        } catch (final IOException e) {
+            LOG.error("Failed to close the async http client.", e);
+        }
+    }
+}
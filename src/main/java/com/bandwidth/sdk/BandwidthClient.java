@@ -1,60 +1,42 @@
 package com.bandwidth.sdk;
 
+import com.bandwidth.sdk.exception.CircuitBreakerOpenException;
+import com.bandwidth.sdk.exception.DeadlineExceededException;
 import com.bandwidth.sdk.exception.InvalidCredentialsException;
 import com.bandwidth.sdk.exception.MissingCredentialsException;
 import com.bandwidth.sdk.model.Account;
-import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.HeaderElement;
-import org.apache.http.HeaderElementIterator;
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
-import org.apache.http.StatusLine;
-import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URLEncodedUtils;
-import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.FileEntity;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.AIMDBackoffManager;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.message.BasicHeader;
-import org.apache.http.message.BasicHeaderElementIterator;
 import org.apache.http.message.BasicNameValuePair;
-import org.apache.http.protocol.HTTP;
-import org.apache.http.protocol.HttpContext;
-import org.apache.http.util.EntityUtils;
-import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InterruptedIOException;
 import java.io.Closeable;
+import java.lang.ref.Cleaner;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Helper class to abstract the HTTP interface. This class wraps the HttpClient and the HTTP methods POST, GET, PUT
+ * Helper class to abstract the HTTP interface. This class wraps the Transport and the HTTP methods POST, GET, PUT
  * and DELETE.
  *
  * This class also holds the credentials to the back end and includes several convenience methods for building the
@@ -70,79 +52,208 @@ public class BandwidthClient implements Client, Closeable {
     private final static Logger LOG = LoggerFactory.getLogger(BandwidthClient.class);
     public static final int MONITOR_TIMER = 5000;
 
-    protected String token;
-    protected String secret;
+    protected volatile ApiCredentials credentials;
     protected String apiVersion;
     protected String apiEndpoint;
-    protected String usersUri;
     protected Integer maxTotal;
     protected Integer defaultMaxPerRoute;
 
-    protected HttpClient httpClient;
+    protected Transport transport;
 
-    protected static BandwidthClient INSTANCE;
+    /**
+     * Closes the transport of clients that were not closed, in place of a finalizer. One thread for the VM.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Cleaner.Cleanable transportCleanup;
+
+    protected volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    protected volatile RetryBudget retryBudget = newRetryBudget(RetryPolicy.DEFAULT);
+    protected final RetryMetrics retryMetrics = new RetryMetrics();
+
+    protected volatile ConcurrencyLimiter concurrencyLimiter;
+
+    protected final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<String, RateLimiter>();
+
+    protected volatile RequestHedger requestHedger;
+
+    protected volatile RequestCoalescer requestCoalescer;
+
+    protected volatile boolean compressionEnabled = true;
+
+    protected volatile boolean streamingEnabled;
+
+    protected volatile boolean lazyCreateEnabled;
+
+    protected volatile boolean strictRefreshEnabled;
+
+    protected volatile int listPrefetchDepth;
 
-    private ExecutorService executorService = Executors.newSingleThreadExecutor();
+    protected volatile BufferPool bufferPool;
 
-    private IdleConnectionMonitorRunnable idleConnectionMonitorRunnable;
+    protected volatile TimeoutPolicy timeoutPolicy = TimeoutPolicy.DEFAULT;
+
+    protected volatile EndpointSelector endpointSelector;
+
+    protected volatile CircuitBreakerPolicy circuitBreakerPolicy = CircuitBreakerPolicy.DEFAULT;
+    protected final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+    protected final List<CircuitBreakerListener> circuitBreakerListeners =
+            new CopyOnWriteArrayList<CircuitBreakerListener>();
+
+    protected static volatile BandwidthClient INSTANCE;
 
     /**
      * getInstance() method returns a singleton instance of the BandwidthClient. Looks for user-id, api-token and
      * api-secret as environment variables or system properties. These can also be set using the setCredentials method.
      *
+     * Once the instance exists this is a single volatile read, so the static factories of the resource classes do not
+     * serialize on the class monitor. Only the first call, which creates the instance, takes the lock.
+     *
      * @return the BandwidthClient
      */
-    public synchronized static BandwidthClient getInstance() {
-        if (INSTANCE == null) {
-            String userId = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_USER_ID);
-            String apiToken = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_TOKEN);
-            String apiSecret = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_SECRET);
-            String apiEndpoint = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_ENDPOINT);
-            String apiVersion = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_VERSION);
-            String maxTotal = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_MAX_TOTAL_CONNECTIONS);
-            String defaultMaxPerRoute = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_MAX_DEFAULT_CONNECTIONS_PER_ROUTE);
-
-            if (userId == null || apiToken == null || apiSecret == null || apiEndpoint == null || apiVersion == null) {
-                userId = System.getenv().get(BandwidthConstants.BANDWIDTH_USER_ID);
-                apiToken = System.getenv().get(BandwidthConstants.BANDWIDTH_API_TOKEN);
-                apiSecret = System.getenv().get(BandwidthConstants.BANDWIDTH_API_SECRET);
-                apiEndpoint = System.getenv().get(BandwidthConstants.BANDWIDTH_API_ENDPOINT);
-                apiVersion = System.getenv().get(BandwidthConstants.BANDWIDTH_API_VERSION);
+    public static BandwidthClient getInstance() {
+        final BandwidthClient instance = INSTANCE;
+        if (instance != null) {
+            return instance;
+        }
+        synchronized (BandwidthClient.class) {
+            if (INSTANCE == null) {
+                final BandwidthClient created = createInstance();
+
+                // validated before it is published, the fast path above must never return a client that failed
+                final ApiCredentials credentials = created.getCredentials();
+                if (credentials.getUserId() != null || credentials.getToken() != null
+                        || credentials.getSecret() != null) {
+                    try {
+                        validateCredentials(created);
+                    } catch (final RuntimeException e) {
+                        created.close();
+                        throw e;
+                    }
+                }
+                INSTANCE = created;
             }
+            return INSTANCE;
+        }
+    }
 
-            if (maxTotal == null) {
-                maxTotal = System.getenv().get(BandwidthConstants.BANDWIDTH_HTTP_MAX_TOTAL_CONNECTIONS);
-            }
+    /**
+     * Builds a client from the VM system properties, falling back to environment variables.
+     *
+     * @return the new client.
+     */
+    private static BandwidthClient createInstance() {
+        String userId = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_USER_ID);
+        String apiToken = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_TOKEN);
+        String apiSecret = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_SECRET);
+        String apiEndpoint = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_ENDPOINT);
+        String apiVersion = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_VERSION);
+        String maxTotal = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_MAX_TOTAL_CONNECTIONS);
+        String defaultMaxPerRoute = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_MAX_DEFAULT_CONNECTIONS_PER_ROUTE);
+        String transport = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_TRANSPORT);
+
+        if (userId == null || apiToken == null || apiSecret == null || apiEndpoint == null || apiVersion == null) {
+            userId = System.getenv().get(BandwidthConstants.BANDWIDTH_USER_ID);
+            apiToken = System.getenv().get(BandwidthConstants.BANDWIDTH_API_TOKEN);
+            apiSecret = System.getenv().get(BandwidthConstants.BANDWIDTH_API_SECRET);
+            apiEndpoint = System.getenv().get(BandwidthConstants.BANDWIDTH_API_ENDPOINT);
+            apiVersion = System.getenv().get(BandwidthConstants.BANDWIDTH_API_VERSION);
+        }
 
-            Integer maxTotalNum=null;
-            if (maxTotal != null) {
-                try {
-                    maxTotalNum = Integer.parseInt(maxTotal);
-                } catch (NumberFormatException ex) {
-                    throw new RuntimeException(String.format("Invalid parameter for MAX_TOTAL_CONNECTIONS %s", maxTotal), ex);
-                }
-            }
+        if (maxTotal == null) {
+            maxTotal = System.getenv().get(BandwidthConstants.BANDWIDTH_HTTP_MAX_TOTAL_CONNECTIONS);
+        }
 
-            if (defaultMaxPerRoute == null) {
-                defaultMaxPerRoute = System.getenv().get(BandwidthConstants.BANDWIDTH_HTTP_MAX_DEFAULT_CONNECTIONS_PER_ROUTE);
+        Integer maxTotalNum=null;
+        if (maxTotal != null) {
+            try {
+                maxTotalNum = Integer.parseInt(maxTotal);
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException(String.format("Invalid parameter for MAX_TOTAL_CONNECTIONS %s", maxTotal), ex);
             }
+        }
 
-            Integer defaultMaxPerRouteNum=null;
-            if (defaultMaxPerRoute != null) {
-                try {
-                    defaultMaxPerRouteNum = Integer.parseInt(defaultMaxPerRoute);
-                } catch (NumberFormatException ex) {
-                    throw new RuntimeException(String.format("Invalid parameter for MAX_DEFAULT_CONNECTIONS_PER_ROUTE %s", defaultMaxPerRoute), ex);
-                }
+        if (defaultMaxPerRoute == null) {
+            defaultMaxPerRoute = System.getenv().get(BandwidthConstants.BANDWIDTH_HTTP_MAX_DEFAULT_CONNECTIONS_PER_ROUTE);
+        }
+
+        Integer defaultMaxPerRouteNum=null;
+        if (defaultMaxPerRoute != null) {
+            try {
+                defaultMaxPerRouteNum = Integer.parseInt(defaultMaxPerRoute);
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException(String.format("Invalid parameter for MAX_DEFAULT_CONNECTIONS_PER_ROUTE %s", defaultMaxPerRoute), ex);
             }
+        }
+
+        if (transport == null) {
+            transport = System.getenv().get(BandwidthConstants.BANDWIDTH_HTTP_TRANSPORT);
+        }
+
+        final TimeoutPolicy timeouts = TimeoutPolicy.DEFAULT;
+        final TimeoutPolicy timeoutPolicy = TimeoutPolicy.builder()
+                .connectTimeoutMillis(intSetting(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_CONNECT_TIMEOUT,
+                        BandwidthConstants.BANDWIDTH_HTTP_CONNECT_TIMEOUT, timeouts.getConnectTimeoutMillis()))
+                .socketTimeoutMillis(intSetting(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_SOCKET_TIMEOUT,
+                        BandwidthConstants.BANDWIDTH_HTTP_SOCKET_TIMEOUT, timeouts.getSocketTimeoutMillis()))
+                .connectionRequestTimeoutMillis(intSetting(
+                        BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_CONNECTION_REQUEST_TIMEOUT,
+                        BandwidthConstants.BANDWIDTH_HTTP_CONNECTION_REQUEST_TIMEOUT,
+                        timeouts.getConnectionRequestTimeoutMillis()))
+                .deadlineMillis(intSetting(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_DEADLINE,
+                        BandwidthConstants.BANDWIDTH_HTTP_DEADLINE, 0))
+                .build();
+
+        Transport transportImpl = null;
+        if (BandwidthConstants.HTTP_TRANSPORT_HTTP2.equalsIgnoreCase(transport)) {
+            transportImpl = new Http2Transport(null, timeoutPolicy);
+        } else if (transport != null && !BandwidthConstants.HTTP_TRANSPORT_APACHE.equalsIgnoreCase(transport)) {
+            throw new RuntimeException(String.format("Invalid parameter for HTTP_TRANSPORT %s", transport));
+        }
+
+        final BandwidthClient client = new BandwidthClient(userId, apiToken, apiSecret, apiEndpoint, apiVersion,
+                maxTotalNum, defaultMaxPerRouteNum, transportImpl);
+
+        String endpoints = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_ENDPOINTS);
+        if (endpoints == null) {
+            endpoints = System.getenv().get(BandwidthConstants.BANDWIDTH_API_ENDPOINTS);
+        }
+        if (endpoints != null && !endpoints.trim().isEmpty()) {
+            client.setEndpoints(Arrays.asList(endpoints.trim().split("\\s*,\\s*")));
+        }
 
-            INSTANCE = new BandwidthClient(userId, apiToken, apiSecret, apiEndpoint, apiVersion, maxTotalNum, defaultMaxPerRouteNum);
+        client.setTimeoutPolicy(timeoutPolicy);
 
-            if (userId != null || apiToken != null || apiSecret != null) {
-                validateCredentials();
+        final int keepWarm = intSetting(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_KEEP_WARM_CONNECTIONS,
+                BandwidthConstants.BANDWIDTH_HTTP_KEEP_WARM_CONNECTIONS, 0);
+        final int warm = Math.max(keepWarm, intSetting(BandwidthConstants.BANDWIDTH_SYSPROP_HTTP_WARM_CONNECTIONS,
+                BandwidthConstants.BANDWIDTH_HTTP_WARM_CONNECTIONS, 0));
+        if (keepWarm > 0) {
+            client.setKeepWarm(keepWarm);
+        }
+        if (warm > 0) {
+            try {
+                client.warmUp(warm);
+            } catch (final IOException e) {
+                LOG.warn("Failed to warm up connections to {}: {}", client.apiEndpoint, e.toString());
             }
         }
-        return INSTANCE;
+        return client;
+    }
+
+    private static int intSetting(final String sysprop, final String envVar, final int defaultValue) {
+        String value = System.getProperty(sysprop);
+        if (value == null) {
+            value = System.getenv().get(envVar);
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new RuntimeException(String.format("Invalid parameter for %s %s", envVar, value), ex);
+        }
     }
 
     public synchronized static void shutdown() {
@@ -169,9 +280,53 @@ public class BandwidthClient implements Client, Closeable {
                               final String apiVersion,
                               final Integer maxTotal,
                               final Integer defaultMaxPerRoute) {
-        this.usersUri = String.format(BandwidthConstants.USERS_URI_PATH, userId);
-        this.token = apiToken;
-        this.secret = apiSecret;
+        this(userId, apiToken, apiSecret, apiEndpoint, apiVersion, maxTotal, defaultMaxPerRoute, null);
+    }
+
+    /**
+     * Constructor. Instances are created through getInstance() method.
+     * @param userId the user id.
+     * @param apiToken the user API token.
+     * @param apiSecret the user API secret.
+     * @param apiEndpoint the API Endpoint.
+     * @param apiVersion the API version.
+     * @param maxTotal the maximum number of pooled connections of the default transport.
+     * @param defaultMaxPerRoute the maximum number of pooled connections per route of the default transport.
+     * @param transport the transport, or null for the pooled ApacheTransport.
+     */
+    protected BandwidthClient(final String userId,
+                              final String apiToken,
+                              final String apiSecret,
+                              final String apiEndpoint,
+                              final String apiVersion,
+                              final Integer maxTotal,
+                              final Integer defaultMaxPerRoute,
+                              final Transport transport) {
+        this(userId, apiToken, apiSecret, apiEndpoint, apiVersion, maxTotal, defaultMaxPerRoute, transport, true);
+    }
+
+    /**
+     * Constructor for clients that share a transport, e.g. the tenant views of a BandwidthClientRegistry.
+     * @param userId the user id.
+     * @param apiToken the user API token.
+     * @param apiSecret the user API secret.
+     * @param apiEndpoint the API Endpoint.
+     * @param apiVersion the API version.
+     * @param maxTotal the maximum number of pooled connections of the default transport.
+     * @param defaultMaxPerRoute the maximum number of pooled connections per route of the default transport.
+     * @param transport the transport, or null for the pooled ApacheTransport.
+     * @param ownsTransport false if the transport is closed by someone else, and must survive close().
+     */
+    protected BandwidthClient(final String userId,
+                              final String apiToken,
+                              final String apiSecret,
+                              final String apiEndpoint,
+                              final String apiVersion,
+                              final Integer maxTotal,
+                              final Integer defaultMaxPerRoute,
+                              final Transport transport,
+                              final boolean ownsTransport) {
+        this.credentials = new ApiCredentials(userId, apiToken, apiSecret);
 
         this.apiEndpoint = apiEndpoint;
         this.apiVersion = apiVersion;
@@ -193,7 +348,19 @@ public class BandwidthClient implements Client, Closeable {
             this.defaultMaxPerRoute = BandwidthConstants.HTTP_MAX_DEFAULT_CONNECTIONS_PER_ROUTE;
         }
 
-        this.httpClient = createHttpClient();
+        this.transport = transport;
+
+        if (transport == null) {
+            this.transport = new ApacheTransport(this.maxTotal, this.defaultMaxPerRoute);
+        }
+        // the action must not reference this client, or it would never become unreachable
+        this.transportCleanup = ownsTransport || transport == null
+                ? CLEANER.register(this, this.transport::close) : null;
+
+        this.concurrencyLimiter = ConcurrencyLimiter.builder()
+                .initialLimit(Math.min(this.maxTotal, this.defaultMaxPerRoute))
+                .maxLimit(this.maxTotal)
+                .build();
     }
 
     /**
@@ -206,11 +373,10 @@ public class BandwidthClient implements Client, Closeable {
      */
     public void setCredentials(final String userId, final String apiToken, final String apiSecret) {
         if (userId != null && apiToken != null && apiSecret != null) {
-            this.usersUri = String.format(BandwidthConstants.USERS_URI_PATH, userId.replaceAll(" ", ""));
-            this.token = apiToken.replaceAll(" ", "");
-            this.secret = apiSecret.replaceAll(" ", "");
+            this.credentials = new ApiCredentials(userId.replaceAll(" ", ""), apiToken.replaceAll(" ", ""),
+                    apiSecret.replaceAll(" ", ""));
 
-            validateCredentials();
+            validateCredentials(this);
         } else {
             throw new MissingCredentialsException();
         }
@@ -218,10 +384,12 @@ public class BandwidthClient implements Client, Closeable {
 
     /**
      * Validate if the credentials are set and has access to catapult
+     *
+     * @param client the client whose credentials are checked.
      */
-    private static void validateCredentials() {
+    private static void validateCredentials(final BandwidthClient client) {
         try {
-            Account.get().getAccountInfo();
+            new Account(client).getAccountInfo();
         } catch (Exception e) {
             if (e instanceof AppPlatformException) {
                 AppPlatformException appEx = (AppPlatformException) e;
@@ -247,6 +415,41 @@ public class BandwidthClient implements Client, Closeable {
         this.apiVersion = apiVersion;
     }
 
+    /**
+     * Spreads requests over several API endpoints, e.g. regional deployments of Catapult. The endpoints are probed in
+     * the background and each request goes to the fastest healthy one; a request that cannot connect to its endpoint
+     * is sent to the next one at once. The first endpoint becomes the apiEndpoint that resource URIs are built with.
+     * getInstance() does this with -Dcom.bandwidth.apiEndpoints=a,b or BANDWIDTH_API_ENDPOINTS=a,b.
+     *
+     * @param endpoints the endpoints, the primary first. A single endpoint turns failover off.
+     * @param policy the failover policy.
+     */
+    public void setEndpoints(final List<String> endpoints, final FailoverPolicy policy) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            throw new IllegalArgumentException("endpoints cannot be empty");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("policy cannot be null");
+        }
+        final EndpointSelector previous = this.endpointSelector;
+        this.apiEndpoint = endpoints.get(0);
+        this.endpointSelector = endpoints.size() > 1 ? new EndpointSelector(endpoints, transport, policy) : null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public void setEndpoints(final List<String> endpoints) {
+        setEndpoints(endpoints, FailoverPolicy.DEFAULT);
+    }
+
+    /**
+     * @return the selector with the health and latency of each endpoint, or null with a single endpoint.
+     */
+    public EndpointSelector getEndpointSelector() {
+        return endpointSelector;
+    }
+
     public int getMaxTotal() {
         return maxTotal;
     }
@@ -255,6 +458,373 @@ public class BandwidthClient implements Client, Closeable {
         return defaultMaxPerRoute;
     }
 
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Enables or disables gzip/deflate compression of responses, which is on by default. Responses are decoded as
+     * they are read from the connection, whatever the Transport.
+     *
+     * @param compressionEnabled false to ask for uncompressed responses.
+     */
+    public void setCompressionEnabled(final boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Enables or disables the streaming of list pages, which is off by default. When on, ResourceList builds each
+     * element as it is parsed off the connection, instead of reading the page into a String and parsing that into
+     * maps first, which keeps large pages from being held in memory several times over.
+     *
+     * @param streamingEnabled true to stream list pages.
+     */
+    public void setStreamingEnabled(final boolean streamingEnabled) {
+        this.streamingEnabled = streamingEnabled;
+    }
+
+    public boolean isStreamingEnabled() {
+        return streamingEnabled;
+    }
+
+    /**
+     * Sets how many pages ahead of the one being iterated a ResourceList requests, 0 by default. Each page is
+     * requested in the background from the next link of the one before it, as soon as that one is loaded, so going
+     * through a long list waits for the API only when the caller is faster than it.
+     *
+     * @param listPrefetchDepth the number of pages, 0 to request each page when the one before it is used up.
+     */
+    public void setListPrefetchDepth(final int listPrefetchDepth) {
+        if (listPrefetchDepth < 0) {
+            throw new IllegalArgumentException("listPrefetchDepth must not be negative");
+        }
+        this.listPrefetchDepth = listPrefetchDepth;
+    }
+
+    public int getListPrefetchDepth() {
+        return listPrefetchDepth;
+    }
+
+    /**
+     * Enables or disables lazy creates, which are off by default. When on, the create methods of Call, Message,
+     * Conference, Bridge, Domain, Endpoint and PhoneNumber return as soon as the POST is answered, with a resource
+     * holding only the id from its Location header. The GET that reads the rest of the resource is sent on first
+     * access to one of its properties, if ever, and a failure of it is thrown from the property getter.
+     *
+     * @param lazyCreateEnabled true to skip the GET after a create.
+     */
+    public void setLazyCreateEnabled(final boolean lazyCreateEnabled) {
+        this.lazyCreateEnabled = lazyCreateEnabled;
+    }
+
+    public boolean isLazyCreateEnabled() {
+        return lazyCreateEnabled;
+    }
+
+    /**
+     * Enables or disables strict refresh, which is off by default. Commands that change the state of a resource, such
+     * as Call.hangUp() or Conference.mute(), leave its properties to be read again on next access; with strict refresh
+     * they read them at once, at the cost of a second round trip, and a failure of that read is thrown from the
+     * command rather than from the property getter.
+     *
+     * @param strictRefreshEnabled true to read a resource again right after each command.
+     */
+    public void setStrictRefreshEnabled(final boolean strictRefreshEnabled) {
+        this.strictRefreshEnabled = strictRefreshEnabled;
+    }
+
+    public boolean isStrictRefreshEnabled() {
+        return strictRefreshEnabled;
+    }
+
+    /**
+     * Sets the pool request and response bodies are held in, none by default. With a pool, json request bodies are
+     * written into pooled buffers, given back once the request is over, and response bodies are read into them
+     * rather than into Strings. The buffer of a response goes back to the pool when the response is closed; the model
+     * classes close the responses they parse, callers of get(), post() and the like close theirs. Several clients can
+     * share a pool.
+     *
+     * @param bufferPool the pool, or null to stop pooling.
+     */
+    public void setBufferPool(final BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Opens connections to the API endpoint ahead of the first requests, so they do not pay DNS, TCP and TLS setup.
+     * getInstance() does this with -Dcom.bandwidth.http.warmconnections=N or BANDWIDTH_WARM_CONNECTIONS=N.
+     *
+     * @param connections the number of connections to open, capped by defaultMaxPerRoute.
+     * @return the number of connections opened; 0 for transports without a connection pool.
+     * @throws IOException if a connection could not be opened.
+     */
+    public int warmUp(final int connections) throws IOException {
+        return transport.warmUp(URI.create(apiEndpoint), connections);
+    }
+
+    /**
+     * Keeps at least minConnections open to the API endpoint through idle periods. The IdleConnectionReaper
+     * refreshes them before it reaps idle connections, and reopens those the server has closed.
+     * getInstance() does this with -Dcom.bandwidth.http.keepwarmconnections=N or BANDWIDTH_KEEP_WARM_CONNECTIONS=N.
+     *
+     * @param minConnections the number of connections to keep, 0 to stop.
+     */
+    public void setKeepWarm(final int minConnections) {
+        transport.keepWarm(URI.create(apiEndpoint), minConnections);
+    }
+
+    /**
+     * Replaces the policy that decides which failed requests are sent again. The retry budget is reset to match the
+     * new policy. Use RetryPolicy.NONE to disable retries.
+     *
+     * @param retryPolicy the policy.
+     */
+    public void setRetryPolicy(final RetryPolicy retryPolicy) {
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("retryPolicy cannot be null");
+        }
+        this.retryBudget = newRetryBudget(retryPolicy);
+        this.retryPolicy = retryPolicy;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * @return the retry counters of this client.
+     */
+    public RetryMetrics getRetryMetrics() {
+        return retryMetrics;
+    }
+
+    /**
+     * Replaces the connect, socket and pool lease timeouts of every request, and the default deadline of an
+     * operation. An Http2Transport takes its connect timeout from the policy it was built with, see
+     * Http2Transport(SSLContext, TimeoutPolicy), and ignores the connect timeout set here.
+     *
+     * @param timeoutPolicy the policy.
+     */
+    public void setTimeoutPolicy(final TimeoutPolicy timeoutPolicy) {
+        if (timeoutPolicy == null) {
+            throw new IllegalArgumentException("timeoutPolicy must not be null");
+        }
+        this.timeoutPolicy = timeoutPolicy;
+    }
+
+    public TimeoutPolicy getTimeoutPolicy() {
+        return timeoutPolicy;
+    }
+
+    /**
+     * Replaces the limiter on requests in flight. By default the limit starts at defaultMaxPerRoute and adapts to
+     * the latency of Catapult, up to maxTotal. Null removes the limit, leaving only the connection pool bounds.
+     *
+     * @param concurrencyLimiter the limiter, or null.
+     */
+    public void setConcurrencyLimiter(final ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Enables hedged GET requests: a GET still unanswered after a percentile of recent GET latencies is sent a second
+     * time, and the first answer wins. Meant for reads on a latency critical path, e.g. Call.get() while a call is
+     * being answered. Null, the default, disables hedging.
+     *
+     * @param hedgePolicy the policy, or null.
+     */
+    public void setHedgePolicy(final HedgePolicy hedgePolicy) {
+        final RequestHedger previous = this.requestHedger;
+        this.requestHedger = hedgePolicy == null ? null : new RequestHedger(hedgePolicy);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * @return the hedger with its counters, or null if hedging is disabled.
+     */
+    public RequestHedger getRequestHedger() {
+        return requestHedger;
+    }
+
+    /**
+     * Turns the coalescing of identical GET requests on or off; off by default. While on, concurrent calls such as
+     * Call.get(callId) for the same call share one request and its response. Responses are shared, not copied, so
+     * callers must not modify them. A GET sent after a POST, PUT or DELETE of this client to the same resource, or
+     * while one is in flight, never shares the response of a GET sent before it, see RequestCoalescer.
+     *
+     * @param enabled true to share the response of identical GETs in flight.
+     */
+    public void setCoalescingEnabled(final boolean enabled) {
+        if (enabled != (this.requestCoalescer != null)) {
+            this.requestCoalescer = enabled ? new RequestCoalescer() : null;
+        }
+    }
+
+    /**
+     * @return the coalescer with its counters, or null if coalescing is disabled.
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Replaces the settings of the per route circuit breakers. Existing breakers are discarded, so every route starts
+     * closed again. Null disables circuit breaking.
+     *
+     * @param circuitBreakerPolicy the policy, or null.
+     */
+    public void setCircuitBreakerPolicy(final CircuitBreakerPolicy circuitBreakerPolicy) {
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+        circuitBreakers.clear();
+    }
+
+    public CircuitBreakerPolicy getCircuitBreakerPolicy() {
+        return circuitBreakerPolicy;
+    }
+
+    /**
+     * @param route the resource route, e.g. BandwidthConstants.CALLS_URI_PATH.
+     * @return the breaker of the route, or null if no request was sent to it yet.
+     */
+    public CircuitBreaker getCircuitBreaker(final String route) {
+        return circuitBreakers.get(route);
+    }
+
+    /**
+     * @return the breakers by route.
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    public void addCircuitBreakerListener(final CircuitBreakerListener listener) {
+        circuitBreakerListeners.add(listener);
+    }
+
+    public void removeCircuitBreakerListener(final CircuitBreakerListener listener) {
+        circuitBreakerListeners.remove(listener);
+    }
+
+    /**
+     * Finds the circuit breaker of a request URI. The route is the first segment after the users/{userId} prefix,
+     * e.g. calls for https://api.catapult.inetwork.com/v1/users/u-id/calls/c-id/gather.
+     *
+     * @param uri the request URI.
+     * @return the breaker, or null if circuit breaking is disabled.
+     */
+    protected CircuitBreaker circuitBreakerFor(final URI uri) {
+        final CircuitBreakerPolicy policy = this.circuitBreakerPolicy;
+        if (policy == null) {
+            return null;
+        }
+        final String[] segments = resourceSegments(uri.getPath());
+        final String route = segments.length == 0 ? "" : segments[0];
+        CircuitBreaker circuitBreaker = circuitBreakers.get(route);
+        if (circuitBreaker == null) {
+            circuitBreaker = circuitBreakers.computeIfAbsent(route,
+                    key -> new CircuitBreaker(key, policy, circuitBreakerListeners));
+        }
+        return circuitBreaker;
+    }
+
+    /**
+     * Paces the requests sent to a resource path, e.g.
+     * <code>client.setRateLimit(BandwidthConstants.MESSAGES_URI_PATH, 10, 10, RateLimiter.Mode.WAIT);</code>
+     * The path is one of the resource path constants in BandwidthConstants and is matched against the request path
+     * after the users/{userId} prefix; the most specific path wins, and %s matches any segment. Replaces any limiter
+     * already set for the path.
+     *
+     * @param resourcePath the resource path.
+     * @param permitsPerSecond the sustained rate.
+     * @param burst the number of requests that may be sent at once after a quiet period.
+     * @param mode whether to wait for a permit or fail fast.
+     * @return the new limiter, which also exposes the wait and permit counters.
+     */
+    public RateLimiter setRateLimit(final String resourcePath, final double permitsPerSecond, final int burst,
+                                    final RateLimiter.Mode mode) {
+        final RateLimiter rateLimiter = new RateLimiter(resourcePath, permitsPerSecond, burst, mode);
+        rateLimiters.put(resourcePath, rateLimiter);
+        return rateLimiter;
+    }
+
+    public void removeRateLimit(final String resourcePath) {
+        rateLimiters.remove(resourcePath);
+    }
+
+    /**
+     * @param resourcePath the resource path.
+     * @return the limiter set for this exact path, or null.
+     */
+    public RateLimiter getRateLimiter(final String resourcePath) {
+        return rateLimiters.get(resourcePath);
+    }
+
+    /**
+     * Finds the limiter that applies to a request URI, e.g. the one for "messages" for
+     * https://api.catapult.inetwork.com/v1/users/u-id/messages/m-id.
+     *
+     * @param uri the request URI.
+     * @return the limiter with the longest matching resource path, or null if none matches.
+     */
+    protected RateLimiter rateLimiterFor(final URI uri) {
+        if (rateLimiters.isEmpty()) {
+            return null;
+        }
+        final String[] segments = resourceSegments(uri.getPath());
+        RateLimiter match = null;
+        int matchLength = 0;
+        for (final RateLimiter rateLimiter : rateLimiters.values()) {
+            final String[] pattern = rateLimiter.getResourcePath().split("/");
+            if (pattern.length > matchLength && pattern.length <= segments.length && matches(pattern, segments)) {
+                match = rateLimiter;
+                matchLength = pattern.length;
+            }
+        }
+        return match;
+    }
+
+    private String[] resourceSegments(final String path) {
+        final String[] segments = StringUtils.strip(path, "/").split("/");
+        int start = 0;
+        while (start < segments.length && !segments[start].equals(apiVersion)) {
+            start++;
+        }
+        start = start < segments.length ? start + 1 : 0;
+        if (start + 1 < segments.length && "users".equals(segments[start])) {
+            start += 2;
+        }
+        final String[] resource = new String[segments.length - start];
+        System.arraycopy(segments, start, resource, 0, resource.length);
+        return resource;
+    }
+
+    private static boolean matches(final String[] pattern, final String[] segments) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (!"%s".equals(pattern[i]) && !pattern[i].equals(segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static RetryBudget newRetryBudget(final RetryPolicy retryPolicy) {
+        return new RetryBudget(retryPolicy.getBudgetRatio(), retryPolicy.getBudgetMinRetries());
+    }
+
      /**
      * Convenience method to return the resource URL with the users credentials, e.g.
      *
@@ -325,7 +895,16 @@ public class BandwidthClient implements Client, Closeable {
      * @return usersUri
      */
     public String getUserUri() {
-    	return usersUri;
+    	return credentials.getUsersUri();
+    }
+
+    /**
+     * Returns the current credentials snapshot. The snapshot is immutable; setCredentials() replaces it.
+     *
+     * @return the credentials
+     */
+    public ApiCredentials getCredentials() {
+        return credentials;
     }
 
     /**
@@ -369,11 +948,32 @@ public class BandwidthClient implements Client, Closeable {
         final String path = getPath(uri);
         final RestResponse response = request(path, HttpGet.METHOD_NAME, params);
         if (response.isError()) {
-            throw new IOException(response.getResponseText());
+            final String text = response.getResponseText();
+            response.close();
+            throw new IOException(text);
         }
         return response;
     }
 
+    /**
+     * Streaming variant of get(): the body of a successful response is left on the connection, to be read with
+     * getContent() or a JsonArrayReader. The response must be closed. Streamed GETs are neither coalesced nor hedged,
+     * since their body can be read only once.
+     *
+     * @param uri the URI.
+     * @param params the parameters.
+     * @return the response, to be closed.
+     * @throws IOException unexpected exception.
+     * @throws AppPlatformException if the server answered with an error status.
+     */
+    public RestResponse getStreaming(final String uri, final Map<String, Object> params)
+            throws IOException, AppPlatformException {
+        final TransportRequest request = setupRequest(getPath(uri), HttpGet.METHOD_NAME,
+                params == null ? Collections.<String, Object>emptyMap() : params);
+        request.setStreaming(true);
+        return performRequest(request);
+    }
+
     /**
      * This method implements an HTTP put. Use this method to update a resource.
      *
@@ -411,9 +1011,11 @@ public class BandwidthClient implements Client, Closeable {
     public void upload(final String uri, final File sourceFile, final String contentType)
             throws IOException, AppPlatformException {
         final String path = getPath(uri);
-        final HttpPut request = (HttpPut) setupRequest(path, HttpPut.METHOD_NAME, null);
-        request.setEntity(contentType == null ? new FileEntity(sourceFile) : new FileEntity(sourceFile, ContentType.parse(contentType)));
-        performRequest(request);
+        final TransportRequest request = setupRequest(path, HttpPut.METHOD_NAME, null);
+        request.setFile(sourceFile, contentType);
+        try (RestResponse response = performRequest(request)) {
+            // nothing to read, closing gives a pooled body back
+        }
     }
 
     /**
@@ -425,33 +1027,15 @@ public class BandwidthClient implements Client, Closeable {
      */
     public void download(final String uri, final File destFile) throws IOException {
         final String path = getPath(uri);
-        final HttpGet request = (HttpGet) setupRequest(path, HttpGet.METHOD_NAME, Collections.<String, Object>emptyMap());
-        HttpResponse response;
-        OutputStream outputStream = null;
-        try {
-            response = httpClient.execute(request);
-            final HttpEntity entity = response.getEntity();
-
-            final StatusLine status = response.getStatusLine();
-            final int statusCode = status.getStatusCode();
-            if (statusCode >= 400) {
-                throw new IOException(EntityUtils.toString(entity));
-            }
-            outputStream = new BufferedOutputStream(new FileOutputStream(destFile));
-            entity.writeTo(outputStream);
-        } catch (final ClientProtocolException e1) {
-            throw new IOException(e1);
-        } catch (final IOException e1) {
-            throw new IOException(e1);
-        } finally {
-            try {
-                if (outputStream != null) {
-                    outputStream.close();
-                }
-            } catch (final IOException ignore) {
-                
+        final TransportRequest request = setupRequest(path, HttpGet.METHOD_NAME, Collections.<String, Object>emptyMap());
+        final Deadline deadline = deadlineOf(timeoutPolicy);
+        if (deadline != null) {
+            if (deadline.isExpired()) {
+                throw new DeadlineExceededException(request.toString(), null);
             }
+            applyTimeouts(request, timeoutPolicy, deadline);
         }
+        transport.download(request, destFile);
     }
 
     /**
@@ -482,7 +1066,7 @@ public class BandwidthClient implements Client, Closeable {
             paramList = Collections.emptyMap();
         }
 
-        final HttpUriRequest request = setupRequest(path, method, paramList);
+        final TransportRequest request = setupRequest(path, method, paramList);
         return performRequest(request);
     }
 
@@ -497,7 +1081,7 @@ public class BandwidthClient implements Client, Closeable {
      */
     protected RestResponse requestJson(final String path, final String method, final String param)
             throws IOException, AppPlatformException {
-        final HttpUriRequest request = setupRequestJson(path, method, param);
+        final TransportRequest request = setupRequestJson(path, method, param);
         return performRequest(request);
     }
 
@@ -510,24 +1094,231 @@ public class BandwidthClient implements Client, Closeable {
      * @throws IOException unexpected exception.
      * @throws AppPlatformException unexpected exception.
      */
-    protected RestResponse performRequest(final HttpUriRequest request) throws IOException, AppPlatformException {
+    protected RestResponse performRequest(final TransportRequest request) throws IOException, AppPlatformException {
 
-        if (this.usersUri == null || this.usersUri.isEmpty()
-                || this.token == null || this.token.isEmpty()
-                || this.secret == null || this.secret.isEmpty()) {
+        checkCredentials();
 
-            throw new MissingCredentialsException();
+        if (request.getDeadline() == null) {
+            request.setDeadline(deadlineOf(timeoutPolicy));
+        }
+        final RequestCoalescer coalescer = this.requestCoalescer;
+        final boolean get = HttpGet.METHOD_NAME.equals(request.getMethod());
+        final RestResponse restResponse;
+        try {
+            if (get && !request.isStreaming()) {
+                restResponse = coalescer != null ? coalescer.execute(request, this::executeGet) : executeGet(request);
+            } else if (!get && coalescer != null) {
+                coalescer.beginWrite(request);
+                try {
+                    restResponse = executeWithRetries(request);
+                } finally {
+                    coalescer.endWrite(request);
+                }
+            } else {
+                restResponse = executeWithRetries(request);
+            }
+        } finally {
+            // every attempt is over, nothing reads a pooled body anymore
+            request.releaseBody();
         }
-
-        RestResponse restResponse = RestResponse.createRestResponse(httpClient.execute(request));
 
         if (restResponse.getStatus() >= 400) {
-            throw new AppPlatformException(restResponse.getResponseText(), restResponse.getStatus());
+            final String text = restResponse.getResponseText();
+            restResponse.close();
+            throw new AppPlatformException(text, restResponse.getStatus());
         }
 
         return restResponse;
     }
 
+    private RestResponse executeGet(final TransportRequest request) throws IOException {
+        final RequestHedger hedger = this.requestHedger;
+        return hedger != null ? hedger.execute(request, this::executeWithRetries) : executeWithRetries(request);
+    }
+
+    /**
+     * Executes the request on the transport, sending it again while the RetryPolicy and the RetryBudget allow it.
+     * Every attempt is first checked against the CircuitBreaker of its route; a request refused by an open breaker
+     * fails with a CircuitBreakerOpenException, a refused retry ends the retries. The attempt then takes a permit
+     * from the RateLimiter of the resource path, if any, then a slot from the
+     * ConcurrencyLimiter, which is given back with the latency of the attempt. An attempt that is not sent, e.g.
+     * refused by a RateLimiter in Mode.FAIL_FAST, or is cancelled gives its permit back to the breaker without an
+     * outcome. Returns the last response, or rethrows the last I/O error, once retries are over. A cancelled request
+     * is not retried.
+     *
+     * With a Deadline on the request, the waits for a permit and a slot and the timeouts of each attempt are shortened
+     * to the time left, and no retry is made whose delay would outlast it.
+     *
+     * @param request the request.
+     * @return the response.
+     * @throws IOException if the last attempt failed with an I/O error, or the thread was interrupted while waiting.
+     * @throws DeadlineExceededException if the deadline passed before the request could complete.
+     */
+    protected RestResponse executeWithRetries(final TransportRequest request) throws IOException {
+        final RetryPolicy policy = this.retryPolicy;
+        final RetryBudget budget = this.retryBudget;
+        final String method = request.getMethod();
+
+        final CircuitBreaker circuitBreaker = circuitBreakerFor(request.getUri());
+        final RateLimiter rateLimiter = rateLimiterFor(request.getUri());
+        final ConcurrencyLimiter limiter = this.concurrencyLimiter;
+        final TimeoutPolicy timeouts = this.timeoutPolicy;
+        final Deadline deadline = request.getDeadline();
+        final EndpointSelector endpoints = this.endpointSelector;
+        int failovers = 0;
+
+        retryMetrics.recordRequest();
+        budget.deposit();
+
+        RestResponse restResponse = null;
+        IOException failure = null;
+        for (int attempt = 1; ; attempt++) {
+            if (deadline != null && deadline.isExpired()) {
+                IOUtils.closeQuietly(restResponse);
+                throw new DeadlineExceededException(request.toString(), failure);
+            }
+            final CircuitBreaker.Permit permit = circuitBreaker == null ? null : circuitBreaker.tryAcquire();
+            if (circuitBreaker != null && permit == null) {
+                if (attempt == 1) {
+                    throw new CircuitBreakerOpenException(circuitBreaker.getRoute());
+                }
+                break;
+            }
+            // the response of the previous attempt is not returned
+            IOUtils.closeQuietly(restResponse);
+            restResponse = null;
+            failure = null;
+            final long start;
+            try {
+                start = admit(request, rateLimiter, limiter, deadline);
+            } catch (final IOException | RuntimeException e) {
+                if (permit != null) {
+                    // not sent, it says nothing about the route, and must not hold a probe slot
+                    permit.release();
+                }
+                throw e;
+            }
+            final EndpointSelector.Endpoint endpoint = endpoints == null ? null : endpoints.route(request);
+            boolean dropped = true;
+            try {
+                if (deadline != null) {
+                    applyTimeouts(request, timeouts, deadline);
+                }
+                restResponse = transport.execute(request);
+                dropped = restResponse.getStatus() == 429 || restResponse.getStatus() == 503;
+            } catch (final IOException e) {
+                failure = e;
+            } finally {
+                // an attempt aborted by cancel() says nothing about the health of the route
+                final boolean cancelled = request.isCancelled();
+                if (limiter != null) {
+                    limiter.release(start, dropped && !cancelled);
+                }
+                if (permit != null) {
+                    if (cancelled) {
+                        permit.release();
+                    } else {
+                        permit.onResult(restResponse != null && restResponse.getStatus() < 500);
+                    }
+                }
+                if (endpoint != null && !cancelled) {
+                    endpoints.onResult(endpoint, restResponse, failure);
+                }
+            }
+
+            if (request.isCancelled()) {
+                break;
+            }
+            if (failure != null && endpoint != null && failovers < endpoints.size() - 1
+                    && endpoints.shouldFailOver(endpoint, failure)) {
+                // the request never reached the endpoint, send it to the next one now whatever its method
+                LOG.debug("Failing over {} {} from {} after {}", method, request.getUri(), endpoint.getUri(),
+                        failure.toString());
+                failovers++;
+                attempt--;
+                continue;
+            }
+            final boolean retryable = failure != null
+                    ? policy.isRetryableOnIOException(method)
+                    : policy.isRetryable(method, restResponse.getStatus());
+            if (!retryable) {
+                break;
+            }
+            if (attempt >= policy.getMaxAttempts()) {
+                if (policy.getMaxAttempts() > 1) {
+                    retryMetrics.recordAttemptsExhausted();
+                }
+                break;
+            }
+            if (!budget.tryWithdraw()) {
+                retryMetrics.recordBudgetExhausted();
+                break;
+            }
+
+            final long delay = policy.delayMillis(attempt, restResponse == null ? null : restResponse.getRetryAfter());
+            if (deadline != null && delay >= deadline.remainingMillis()) {
+                // the retry could not complete in time, fail now with what we have
+                break;
+            }
+            LOG.debug("Retrying {} {} in {} ms after {}", method, request.getUri(), delay,
+                    failure != null ? failure.toString() : "status " + restResponse.getStatus());
+            retryMetrics.recordRetry(failure != null);
+            try {
+                if (request.awaitCancel(delay)) {
+                    break;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry " + method + " " + request.getUri());
+            }
+        }
+
+        if (failure != null) {
+            if (deadline != null && deadline.isExpired()) {
+                throw new DeadlineExceededException(request.toString(), failure);
+            }
+            throw failure;
+        }
+        return restResponse;
+    }
+
+    /**
+     * Takes a permit from the RateLimiter of the resource path, if any, then a slot from the ConcurrencyLimiter,
+     * waiting no longer than the deadline of the request.
+     *
+     * @return the start time of the attempt, to pass to ConcurrencyLimiter.release(), or 0 without a limiter.
+     * @throws DeadlineExceededException if the permit or the slot would come after the deadline.
+     */
+    private long admit(final TransportRequest request, final RateLimiter rateLimiter, final ConcurrencyLimiter limiter,
+                       final Deadline deadline) throws IOException {
+        if (rateLimiter != null) {
+            if (deadline == null) {
+                rateLimiter.acquire();
+            } else if (!rateLimiter.tryAcquire(deadline.remainingMillis())) {
+                throw new DeadlineExceededException(request.toString(), null);
+            }
+        }
+        if (limiter == null) {
+            return 0;
+        } else if (deadline == null) {
+            return limiter.acquire();
+        } else if (limiter.tryAcquire(deadline.remainingMillis())) {
+            return System.nanoTime();
+        }
+        throw new DeadlineExceededException(request.toString(), null);
+    }
+
+    /**
+     * Helper method that verifies the user id, token and secret are all set before a request goes out.
+     *
+     * @throws MissingCredentialsException if any of the credentials is missing.
+     */
+    protected void checkCredentials() {
+        if (!this.credentials.isComplete()) {
+            throw new MissingCredentialsException();
+        }
+    }
+
     /**
      * Helper method to build the request to the server.
      *
@@ -536,11 +1327,11 @@ public class BandwidthClient implements Client, Closeable {
      * @param params the parameters.
      * @return the request.
      */
-    protected HttpUriRequest setupRequest(final String path, final String method, final Map<String, Object> params) {
-        final HttpUriRequest request = buildMethod(method, path, params);
-        request.addHeader(new BasicHeader("Accept", "application/json"));
-        request.addHeader(new BasicHeader("Accept-Charset", "utf-8"));
-        request.setHeader(new BasicHeader("Authorization", "Basic " + new String(Base64.encodeBase64((this.token + ":" + this.secret).getBytes()))));
+    protected TransportRequest setupRequest(final String path, final String method, final Map<String, Object> params) {
+        final TransportRequest request = buildMethod(method, path, params);
+        setupHeaders(request);
+        applyTimeouts(request, timeoutPolicy, null);
+        request.setBufferPool(bufferPool);
         return request;
     }
 
@@ -552,14 +1343,65 @@ public class BandwidthClient implements Client, Closeable {
      * @param params the json string.
      * @return the request.
      */
-    protected HttpUriRequest setupRequestJson(final String path, final String method, final String params) {
-        final HttpUriRequest request = buildMethod(method, path, params);
-        request.addHeader(new BasicHeader("Accept", "application/json"));
-        request.addHeader(new BasicHeader("Accept-Charset", "utf-8"));
-        request.setHeader(new BasicHeader("Authorization", "Basic " + new String(Base64.encodeBase64((this.token + ":" + this.secret).getBytes()))));
+    protected TransportRequest setupRequestJson(final String path, final String method, final String params) {
+        final TransportRequest request = buildMethod(method, path, params);
+        setupHeaders(request);
+        applyTimeouts(request, timeoutPolicy, null);
+        request.setBufferPool(bufferPool);
         return request;
     }
 
+    /**
+     * Helper method that adds the accept and authorization headers to a request.
+     *
+     * @param request the request.
+     */
+    protected void setupHeaders(final TransportRequest request) {
+        request.setHeader("Accept", "application/json");
+        request.setHeader("Accept-Charset", "utf-8");
+        if (compressionEnabled) {
+            request.setHeader("Accept-Encoding", ContentDecoder.ACCEPT_ENCODING);
+        }
+        request.setHeader("Authorization", this.credentials.getAuthorization());
+    }
+
+    /**
+     * @param policy the timeout policy.
+     * @return the Deadline started on the current thread, else one for the deadlineMillis of the policy, else null.
+     */
+    protected static Deadline deadlineOf(final TimeoutPolicy policy) {
+        final Deadline current = Deadline.current();
+        if (current != null || policy.getDeadlineMillis() <= 0) {
+            return current;
+        }
+        return Deadline.after(policy.getDeadlineMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Helper method that sets the timeouts of the policy on the request, shortened to the time left before the
+     * deadline.
+     *
+     * @param request the request.
+     * @param policy the timeout policy.
+     * @param deadline the deadline, or null.
+     */
+    protected static void applyTimeouts(final TransportRequest request, final TimeoutPolicy policy,
+                                        final Deadline deadline) {
+        if (deadline == null) {
+            request.setTimeouts(policy.getConnectTimeoutMillis(), policy.getSocketTimeoutMillis(),
+                    policy.getConnectionRequestTimeoutMillis());
+            return;
+        }
+        final int remaining = (int) Math.max(1, Math.min(Integer.MAX_VALUE, deadline.remainingMillis()));
+        request.setTimeouts(capTimeout(policy.getConnectTimeoutMillis(), remaining),
+                capTimeout(policy.getSocketTimeoutMillis(), remaining),
+                capTimeout(policy.getConnectionRequestTimeoutMillis(), remaining));
+    }
+
+    private static int capTimeout(final int timeoutMillis, final int remainingMillis) {
+        return timeoutMillis == 0 ? remainingMillis : Math.min(timeoutMillis, remainingMillis);
+    }
+
     /**
      * Helper method that builds the request to the server.
      *
@@ -568,7 +1410,7 @@ public class BandwidthClient implements Client, Closeable {
      * @param params the parameters.
      * @return the request.
      */
-    protected HttpUriRequest buildMethod(final String method, final String path, final Map<String, Object> params) {
+    protected TransportRequest buildMethod(final String method, final String path, final Map<String, Object> params) {
         if (StringUtils.equalsIgnoreCase(method, HttpGet.METHOD_NAME)) {
             return generateGetRequest(path, params);
         } else if (StringUtils.equalsIgnoreCase(method, HttpPost.METHOD_NAME)) {
@@ -592,7 +1434,7 @@ public class BandwidthClient implements Client, Closeable {
      * @param params json string.
      * @return the request.
      */
-    protected HttpUriRequest buildMethod(final String method, final String path, final String params) {
+    protected TransportRequest buildMethod(final String method, final String path, final String params) {
         if (StringUtils.equalsIgnoreCase(method, HttpPost.METHOD_NAME)) {
             return generatePostRequest(path, params);
         } else {
@@ -607,13 +1449,13 @@ public class BandwidthClient implements Client, Closeable {
      * @param paramMap the parameters map.
      * @return the get object.
      */
-    protected HttpGet generateGetRequest(final String path, final Map<String, Object> paramMap) {
+    protected TransportRequest generateGetRequest(final String path, final Map<String, Object> paramMap) {
         final List<NameValuePair> pairs = new ArrayList<NameValuePair>();
         for (final String key : paramMap.keySet()) {
             pairs.add(new BasicNameValuePair(key, paramMap.get(key).toString()));
         }
         final URI uri = buildUri(path, pairs);
-        return new HttpGet(uri);
+        return new TransportRequest(HttpGet.METHOD_NAME, uri);
     }
 
     /**
@@ -623,9 +1465,9 @@ public class BandwidthClient implements Client, Closeable {
      * @param paramMap the parameters map.
      * @return the post object.
      */
-    protected HttpPost generatePostRequest(final String path, final Map<String, Object> paramMap) {
-        final HttpPost post = new HttpPost(buildUri(path));
-        post.setEntity(new StringEntity(JSONObject.toJSONString(paramMap), ContentType.APPLICATION_JSON));
+    protected TransportRequest generatePostRequest(final String path, final Map<String, Object> paramMap) {
+        final TransportRequest post = new TransportRequest(HttpPost.METHOD_NAME, buildUri(path));
+        setJsonBody(post, paramMap);
         return post;
     }
 
@@ -636,9 +1478,9 @@ public class BandwidthClient implements Client, Closeable {
      * @param param json string.
      * @return the post object.
      */
-    protected HttpPost generatePostRequest(final String path, final String param) {
-        final HttpPost post = new HttpPost(buildUri(path));
-        post.setEntity(new StringEntity(param, ContentType.APPLICATION_JSON));
+    protected TransportRequest generatePostRequest(final String path, final String param) {
+        final TransportRequest post = new TransportRequest(HttpPost.METHOD_NAME, buildUri(path));
+        post.setBody(param, ContentType.APPLICATION_JSON.toString());
         return post;
     }
 
@@ -649,22 +1491,46 @@ public class BandwidthClient implements Client, Closeable {
      * @param paramMap the parameters map.
      * @return the put object.
      */
-    protected HttpPut generatePutRequest(final String path, final Map<String, Object> paramMap) {
-        final HttpPut put = new HttpPut(buildUri(path));
+    protected TransportRequest generatePutRequest(final String path, final Map<String, Object> paramMap) {
+        final TransportRequest put = new TransportRequest(HttpPut.METHOD_NAME, buildUri(path));
         if (paramMap != null) {
-            put.setEntity(new StringEntity(JSONObject.toJSONString(paramMap), ContentType.APPLICATION_JSON));
+            setJsonBody(put, paramMap);
         }
         return put;
     }
 
+    /**
+     * Helper method that sets the parameters as the json body of the request, in a pooled buffer if the client has a
+     * BufferPool.
+     *
+     * @param request the request.
+     * @param paramMap the parameters map.
+     */
+    protected void setJsonBody(final TransportRequest request, final Map<String, Object> paramMap) {
+        final BufferPool pool = this.bufferPool;
+        if (pool == null) {
+            request.setBody(JsonCodecs.getDefault().serialize(paramMap), ContentType.APPLICATION_JSON.toString());
+            return;
+        }
+        final PooledBuffer body = pool.acquire(BufferPool.DEFAULT_MIN_BUFFER_SIZE);
+        try {
+            JsonCodecs.getDefault().serialize(paramMap, body.newOutputStream());
+        } catch (final IOException | RuntimeException e) {
+            body.release();
+            // written in memory, only the codec can fail
+            throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+        }
+        request.setBody(body, ContentType.APPLICATION_JSON.toString());
+    }
+
     /**
      * Helper method to build the HTTP DELETE request for the server.
      *
      * @param path the path
      * @return the delete object.
      */
-    protected HttpDelete generateDeleteRequest(final String path) {
-        return new HttpDelete(buildUri(path));
+    protected TransportRequest generateDeleteRequest(final String path) {
+        return new TransportRequest(HttpDelete.METHOD_NAME, buildUri(path));
     }
 
     /**
@@ -699,45 +1565,11 @@ public class BandwidthClient implements Client, Closeable {
         }
     }
 
-    private HttpClient createHttpClient() {
-        // Following recommendations from
-        // https://hc.apache.org/httpcomponents-client-ga/tutorial/html/connmgmt.html
-        PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
-
-        cm.setMaxTotal(this.maxTotal);
-        cm.setDefaultMaxPerRoute(this.defaultMaxPerRoute);
-
-        HttpClient httpClient = HttpClients.custom()
-                .setConnectionManager(cm)
-                .setKeepAliveStrategy(getStrategy())
-                .setBackoffManager(new AIMDBackoffManager(cm))
-                .build();
-        this.idleConnectionMonitorRunnable = new IdleConnectionMonitorRunnable(cm);
-        this.executorService.execute(this.idleConnectionMonitorRunnable);
-
-        return httpClient;
-    }
-
-    private ConnectionKeepAliveStrategy getStrategy() {
-        return new ConnectionKeepAliveStrategy() {
-            @Override
-            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
-                HeaderElementIterator it = new BasicHeaderElementIterator
-                        (response.headerIterator(HTTP.CONN_KEEP_ALIVE));
-                while (it.hasNext()) {
-                    HeaderElement he = it.nextElement();
-                    String param = he.getName();
-                    String value = he.getValue();
-                    if (value != null && param.equalsIgnoreCase
-                            ("timeout")) {
-                        return Long.parseLong(value) * 1000;
-                    }
-                }
-                return 5 * 1000;
-            }
-        };
-    }
-
+    /**
+     * @deprecated ApacheTransport no longer runs a monitor thread per pool; its pool is registered with the shared
+     * IdleConnectionReaper instead. Kept for code that schedules this runnable on its own connection managers.
+     */
+    @Deprecated
     public static class IdleConnectionMonitorRunnable implements Runnable {
         private final HttpClientConnectionManager connMgr;
         private volatile boolean shutdown;
@@ -773,23 +1605,23 @@ public class BandwidthClient implements Client, Closeable {
         }
     }
 
-    @Override
-    protected void finalize() throws Throwable
-    {
-        try {
-            close();
-        } finally {
-            super.finalize();
-        }
-    }
-
+    /**
+     * Releases the transport, its pooled connections and the hedging threads. A shared transport is left open. Use try-with-resources or call it when
+     * the client is no longer needed; it is idempotent. A client that is never closed has its transport closed once it
+     * is garbage collected, but only then.
+     */
     @Override
     public void close() {
-        if (!this.idleConnectionMonitorRunnable.shutdown) {
-            this.idleConnectionMonitorRunnable.shutdown();
+        final RequestHedger hedger = this.requestHedger;
+        if (hedger != null) {
+            hedger.close();
+        }
+        final EndpointSelector endpoints = this.endpointSelector;
+        if (endpoints != null) {
+            endpoints.close();
         }
-        if (!this.executorService.isShutdown()) {
-            this.executorService.shutdown();
+        if (transportCleanup != null) {
+            transportCleanup.clean();
         }
     }
 
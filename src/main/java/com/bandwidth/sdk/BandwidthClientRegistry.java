@@ -0,0 +1,185 @@
+package com.bandwidth.sdk;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out one BandwidthClient per Catapult user (tenant), all sending through a single shared Transport, so any
+ * number of sub-accounts share one connection pool instead of opening one each.
+ *
+ * A tenant client is a lightweight view: credentials, retry budget, rate limits, circuit breakers and a
+ * ConcurrencyLimiter of its own, over the shared pool. The limiter of each tenant adapts to latency as usual but never
+ * goes above tenantMaxConcurrency, so one noisy tenant cannot hold every pooled connection while the others queue.
+ * <br>Example:<br>
+ * <code>
+ * BandwidthClientRegistry registry = new BandwidthClientRegistry(endpoint, "v1", 200, 20);<br>
+ * Call call = Call.get(registry.forTenant(userId, token, secret), callId);
+ * </code>
+ *
+ * Closing a tenant client removes it from the registry and leaves the pool open; closing the registry closes every
+ * tenant client and the transport.
+ */
+public class BandwidthClientRegistry implements Closeable {
+
+    protected final String apiEndpoint;
+    protected final String apiVersion;
+    protected final int maxTotal;
+    protected final int tenantMaxConcurrency;
+    protected final Transport transport;
+
+    protected final Map<String, BandwidthClient> tenants = new ConcurrentHashMap<String, BandwidthClient>();
+
+    /**
+     * Constructor. The tenants share a pooled ApacheTransport of maxTotal connections.
+     *
+     * @param apiEndpoint the API endpoint, null for the default.
+     * @param apiVersion the API version, null for the default.
+     * @param maxTotal the size of the shared connection pool.
+     * @param tenantMaxConcurrency the most requests a single tenant may have in flight.
+     */
+    public BandwidthClientRegistry(final String apiEndpoint, final String apiVersion, final int maxTotal,
+                                   final int tenantMaxConcurrency) {
+        // every tenant talks to the same host, so the per route limit is the whole pool
+        this(apiEndpoint, apiVersion, new ApacheTransport(maxTotal, maxTotal), maxTotal, tenantMaxConcurrency);
+    }
+
+    /**
+     * Constructor. The registry takes ownership of the transport and closes it in close().
+     *
+     * @param apiEndpoint the API endpoint, null for the default.
+     * @param apiVersion the API version, null for the default.
+     * @param transport the shared transport.
+     * @param maxTotal the number of connections of the shared transport.
+     * @param tenantMaxConcurrency the most requests a single tenant may have in flight.
+     */
+    public BandwidthClientRegistry(final String apiEndpoint, final String apiVersion, final Transport transport,
+                                   final int maxTotal, final int tenantMaxConcurrency) {
+        if (transport == null) {
+            throw new IllegalArgumentException("transport must not be null");
+        }
+        if (tenantMaxConcurrency < 1 || tenantMaxConcurrency > maxTotal) {
+            throw new IllegalArgumentException("tenantMaxConcurrency must be between 1 and maxTotal");
+        }
+        this.apiEndpoint = apiEndpoint == null || apiVersion == null ? BandwidthConstants.API_ENDPOINT : apiEndpoint;
+        this.apiVersion = apiEndpoint == null || apiVersion == null ? BandwidthConstants.API_VERSION : apiVersion;
+        this.maxTotal = maxTotal;
+        this.tenantMaxConcurrency = tenantMaxConcurrency;
+        this.transport = transport;
+    }
+
+    /**
+     * Returns the client of a tenant, creating it on first use. If the token or secret of a known tenant changed, the
+     * existing client is given the new credentials.
+     *
+     * @param userId the Catapult user id of the tenant.
+     * @param apiToken the API token.
+     * @param apiSecret the API secret.
+     * @return the tenant client.
+     */
+    public BandwidthClient forTenant(final String userId, final String apiToken, final String apiSecret) {
+        if (userId == null || apiToken == null || apiSecret == null) {
+            throw new IllegalArgumentException("userId, apiToken and apiSecret are required");
+        }
+        final BandwidthClient client = tenants.computeIfAbsent(userId,
+                id -> new TenantClient(this, id, apiToken, apiSecret));
+        final ApiCredentials credentials = client.getCredentials();
+        if (!apiToken.equals(credentials.getToken()) || !apiSecret.equals(credentials.getSecret())) {
+            // not setCredentials(), which validates through the singleton client
+            client.credentials = new ApiCredentials(userId, apiToken, apiSecret);
+        }
+        return client;
+    }
+
+    /**
+     * @param userId the Catapult user id of the tenant.
+     * @return the client of the tenant, or null if forTenant() was not called for it.
+     */
+    public BandwidthClient getTenant(final String userId) {
+        return tenants.get(userId);
+    }
+
+    /**
+     * @return the user ids of the tenants with a client.
+     */
+    public Set<String> getTenants() {
+        return Collections.unmodifiableSet(tenants.keySet());
+    }
+
+    /**
+     * Overrides the concurrency cap of one tenant, e.g. to give a high volume account a larger share of the pool.
+     * Requests in flight finish under the previous limiter.
+     *
+     * @param userId the Catapult user id of the tenant.
+     * @param maxConcurrency the most requests the tenant may have in flight.
+     */
+    public void setTenantMaxConcurrency(final String userId, final int maxConcurrency) {
+        final BandwidthClient client = tenants.get(userId);
+        if (client == null) {
+            throw new IllegalArgumentException("Unknown tenant " + userId);
+        }
+        client.setConcurrencyLimiter(newLimiter(maxConcurrency));
+    }
+
+    /**
+     * Closes the client of a tenant and forgets it. The shared pool stays open.
+     *
+     * @param userId the Catapult user id of the tenant.
+     */
+    public void removeTenant(final String userId) {
+        final BandwidthClient client = tenants.get(userId);
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public int getTenantMaxConcurrency() {
+        return tenantMaxConcurrency;
+    }
+
+    private ConcurrencyLimiter newLimiter(final int maxConcurrency) {
+        final int limit = Math.max(1, Math.min(maxConcurrency, maxTotal));
+        return ConcurrencyLimiter.builder()
+                .initialLimit(limit)
+                .maxLimit(limit)
+                .build();
+    }
+
+    /**
+     * Closes every tenant client, then the shared transport.
+     */
+    @Override
+    public void close() {
+        for (final BandwidthClient client : tenants.values()) {
+            client.close();
+        }
+        transport.close();
+    }
+
+    private static final class TenantClient extends BandwidthClient {
+
+        private final BandwidthClientRegistry registry;
+        private final String tenant;
+
+        TenantClient(final BandwidthClientRegistry registry, final String userId, final String apiToken,
+                     final String apiSecret) {
+            super(userId, apiToken, apiSecret, registry.apiEndpoint, registry.apiVersion, registry.maxTotal,
+                    registry.tenantMaxConcurrency, registry.transport, false);
+            this.registry = registry;
+            this.tenant = userId;
+            setConcurrencyLimiter(registry.newLimiter(registry.tenantMaxConcurrency));
+        }
+
+        @Override
+        public void close() {
+            registry.tenants.remove(tenant, this);
+            super.close();
+        }
+    }
+}
@@ -41,12 +41,14 @@ public interface BandwidthConstants {
     String BANDWIDTH_API_TOKEN = "BANDWIDTH_API_TOKEN";
     String BANDWIDTH_API_SECRET = "BANDWIDTH_API_SECRET";
     String BANDWIDTH_API_ENDPOINT = "BANDWIDTH_API_ENDPOINT";
+    String BANDWIDTH_API_ENDPOINTS = "BANDWIDTH_API_ENDPOINTS";
     String BANDWIDTH_API_VERSION = "BANDWIDTH_API_VERSION";
 
     String BANDWIDTH_SYSPROP_USER_ID = "com.bandwidth.userId";
     String BANDWIDTH_SYSPROP_API_TOKEN = "com.bandwidth.apiToken";
     String BANDWIDTH_SYSPROP_API_SECRET = "com.bandwidth.apiSecret";
     String BANDWIDTH_SYSPROP_API_ENDPOINT = "com.bandwidth.apiEndpoint";
+    String BANDWIDTH_SYSPROP_API_ENDPOINTS = "com.bandwidth.apiEndpoints";
     String BANDWIDTH_SYSPROP_API_VERSION = "com.bandwidth.apiVersion";
 
     String CONTENT_TYPE_JPEG = "image/jpeg";
@@ -57,4 +59,36 @@ public interface BandwidthConstants {
     String BANDWIDTH_SYSPROP_HTTP_MAX_TOTAL_CONNECTIONS = "com.bandwidth.http.maxtotalconnections";
     String BANDWIDTH_SYSPROP_HTTP_MAX_DEFAULT_CONNECTIONS_PER_ROUTE = "com.bandwidth.http.maxdefaultconnectionsperroute";
 
+    // Transport selection, one of HTTP_TRANSPORT_APACHE (default) or HTTP_TRANSPORT_HTTP2
+    String HTTP_TRANSPORT_APACHE = "apache";
+    String HTTP_TRANSPORT_HTTP2 = "http2";
+
+    String BANDWIDTH_HTTP_TRANSPORT = "BANDWIDTH_HTTP_TRANSPORT";
+    String BANDWIDTH_SYSPROP_HTTP_TRANSPORT = "com.bandwidth.http.transport";
+
+    // Connections opened to the API endpoint when the client is created, and kept open through idle periods
+    String BANDWIDTH_HTTP_WARM_CONNECTIONS = "BANDWIDTH_WARM_CONNECTIONS";
+    String BANDWIDTH_HTTP_KEEP_WARM_CONNECTIONS = "BANDWIDTH_KEEP_WARM_CONNECTIONS";
+
+    String BANDWIDTH_SYSPROP_HTTP_WARM_CONNECTIONS = "com.bandwidth.http.warmconnections";
+    String BANDWIDTH_SYSPROP_HTTP_KEEP_WARM_CONNECTIONS = "com.bandwidth.http.keepwarmconnections";
+
+    // TimeoutPolicy of the client, in milliseconds, 0 for no timeout
+    String BANDWIDTH_HTTP_CONNECT_TIMEOUT = "BANDWIDTH_HTTP_CONNECT_TIMEOUT";
+    String BANDWIDTH_HTTP_SOCKET_TIMEOUT = "BANDWIDTH_HTTP_SOCKET_TIMEOUT";
+    String BANDWIDTH_HTTP_CONNECTION_REQUEST_TIMEOUT = "BANDWIDTH_HTTP_CONNECTION_REQUEST_TIMEOUT";
+    String BANDWIDTH_HTTP_DEADLINE = "BANDWIDTH_HTTP_DEADLINE";
+
+    String BANDWIDTH_SYSPROP_HTTP_CONNECT_TIMEOUT = "com.bandwidth.http.connecttimeout";
+    String BANDWIDTH_SYSPROP_HTTP_SOCKET_TIMEOUT = "com.bandwidth.http.sockettimeout";
+    String BANDWIDTH_SYSPROP_HTTP_CONNECTION_REQUEST_TIMEOUT = "com.bandwidth.http.connectionrequesttimeout";
+    String BANDWIDTH_SYSPROP_HTTP_DEADLINE = "com.bandwidth.http.deadline";
+
+    // Json codec, one of JSON_CODEC_JACKSON (default) or JSON_CODEC_SIMPLE
+    String JSON_CODEC_JACKSON = "jackson";
+    String JSON_CODEC_SIMPLE = "simple";
+
+    String BANDWIDTH_JSON_CODEC = "BANDWIDTH_JSON_CODEC";
+    String BANDWIDTH_SYSPROP_JSON_CODEC = "com.bandwidth.json.codec";
+
 }
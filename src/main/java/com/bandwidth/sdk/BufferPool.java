@@ -0,0 +1,219 @@
+package com.bandwidth.sdk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of byte arrays in power of two size classes, from minBufferSize to maxBufferSize, which a BandwidthClient
+ * given one with setBufferPool() writes request bodies into and reads response bodies into, instead of allocating
+ * Strings for them. Each size class keeps up to buffersPerSize free arrays; larger buffers are allocated and dropped.
+ *
+ * A PooledBuffer goes back to the pool when released. The client releases the body of a request once the request is
+ * over, and the body of a RestResponse when the response is closed; the model classes close the responses they parse.
+ * A buffer that is never released is not lost, it is left to the garbage collector like any other array; with leak
+ * detection on, the pool also remembers where each buffer not yet released was acquired, see getLeaks().
+ *
+ * The buffers are heap arrays only, there is no direct variant: the HttpClient entities, the BodyPublisher of the JDK
+ * HttpClient and Jackson all read and write byte[], so a direct buffer would be copied to the heap on every use.
+ */
+public class BufferPool {
+
+    public static final int DEFAULT_MIN_BUFFER_SIZE = 1024;
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+    public static final int DEFAULT_BUFFERS_PER_SIZE = 64;
+
+    private final int minBufferSize;
+    private final int maxBufferSize;
+    private final ArrayBlockingQueue<byte[]>[] free;
+
+    private volatile boolean leakDetection;
+    private final ConcurrentMap<PooledBuffer, Throwable> outstanding = new ConcurrentHashMap<PooledBuffer, Throwable>();
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+
+    /**
+     * A pool of 1 KB to 1 MB buffers, keeping up to 64 of each size.
+     */
+    public BufferPool() {
+        this(DEFAULT_MIN_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_BUFFERS_PER_SIZE);
+    }
+
+    /**
+     * @param minBufferSize the smallest buffer, rounded up to a power of two.
+     * @param maxBufferSize the largest buffer kept in the pool, rounded up to a power of two.
+     * @param buffersPerSize the number of free buffers kept for each size.
+     */
+    @SuppressWarnings("unchecked")
+    public BufferPool(final int minBufferSize, final int maxBufferSize, final int buffersPerSize) {
+        if (minBufferSize <= 0 || maxBufferSize < minBufferSize) {
+            throw new IllegalArgumentException("minBufferSize must be positive and at most maxBufferSize");
+        }
+        if (buffersPerSize < 1) {
+            throw new IllegalArgumentException("buffersPerSize must be at least 1");
+        }
+        this.minBufferSize = roundUp(minBufferSize);
+        this.maxBufferSize = roundUp(maxBufferSize);
+        final int classes = Integer.numberOfTrailingZeros(this.maxBufferSize)
+                - Integer.numberOfTrailingZeros(this.minBufferSize) + 1;
+        this.free = new ArrayBlockingQueue[classes];
+        for (int i = 0; i < classes; i++) {
+            free[i] = new ArrayBlockingQueue<byte[]>(buffersPerSize);
+        }
+    }
+
+    /**
+     * @param capacity the number of bytes the buffer must hold at first; it grows as needed when written to.
+     * @return an empty buffer, to be released.
+     */
+    public PooledBuffer acquire(final int capacity) {
+        final PooledBuffer buffer = new PooledBuffer(this, take(capacity));
+        acquired.incrementAndGet();
+        if (leakDetection) {
+            outstanding.put(buffer, new Throwable("Buffer acquired here was not released"));
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads the stream to its end into a buffer.
+     *
+     * @param in the stream; not closed.
+     * @return the buffer, to be released.
+     * @throws IOException if the stream could not be read; the buffer is released.
+     */
+    public PooledBuffer read(final InputStream in) throws IOException {
+        final PooledBuffer buffer = acquire(minBufferSize);
+        try {
+            buffer.readFrom(in);
+            return buffer;
+        } catch (final IOException | RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @param capacity the capacity needed.
+     * @return an array of at least that size, from the pool if one is free.
+     */
+    byte[] take(final int capacity) {
+        if (capacity > maxBufferSize) {
+            allocated.incrementAndGet();
+            return new byte[capacity];
+        }
+        final int size = Math.max(minBufferSize, roundUp(capacity));
+        final byte[] array = free[indexOf(size)].poll();
+        if (array != null) {
+            return array;
+        }
+        allocated.incrementAndGet();
+        return new byte[size];
+    }
+
+    /**
+     * Gives an array back, kept if it is of a pooled size and its size class is not full.
+     */
+    void recycle(final byte[] array) {
+        final int size = array.length;
+        if (size >= minBufferSize && size <= maxBufferSize && Integer.bitCount(size) == 1) {
+            free[indexOf(size)].offer(array);
+        }
+    }
+
+    void onRelease(final PooledBuffer buffer) {
+        released.incrementAndGet();
+        outstanding.remove(buffer);
+    }
+
+    private int indexOf(final int size) {
+        return Integer.numberOfTrailingZeros(size) - Integer.numberOfTrailingZeros(minBufferSize);
+    }
+
+    private static int roundUp(final int size) {
+        final int highest = Integer.highestOneBit(size);
+        return highest == size ? size : highest << 1;
+    }
+
+    /**
+     * Turns leak detection on or off. While on, each acquired buffer records the stack it was acquired from until it
+     * is released, which costs a stack trace per buffer; meant for tests.
+     *
+     * @param leakDetection true to record where buffers are acquired.
+     */
+    public void setLeakDetection(final boolean leakDetection) {
+        this.leakDetection = leakDetection;
+        if (!leakDetection) {
+            outstanding.clear();
+        }
+    }
+
+    public boolean isLeakDetection() {
+        return leakDetection;
+    }
+
+    /**
+     * @return where each buffer acquired with leak detection on and not released since was acquired.
+     */
+    public Collection<Throwable> getLeaks() {
+        return new ArrayList<Throwable>(outstanding.values());
+    }
+
+    /**
+     * @throws IllegalStateException with the stack of the first, if buffers acquired with leak detection on were not
+     * released.
+     */
+    public void checkLeaks() {
+        final List<Throwable> leaks = new ArrayList<Throwable>(outstanding.values());
+        if (!leaks.isEmpty()) {
+            throw new IllegalStateException(leaks.size() + " pooled buffers were not released", leaks.get(0));
+        }
+    }
+
+    /**
+     * @return the number of buffers acquired.
+     */
+    public long getAcquired() {
+        return acquired.get();
+    }
+
+    /**
+     * @return the number of arrays allocated because no free one of the right size was in the pool.
+     */
+    public long getAllocated() {
+        return allocated.get();
+    }
+
+    /**
+     * @return the number of buffers released.
+     */
+    public long getReleased() {
+        return released.get();
+    }
+
+    /**
+     * @return the number of free arrays in the pool.
+     */
+    public int getFree() {
+        int count = 0;
+        for (final ArrayBlockingQueue<byte[]> queue : free) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPool{minBufferSize=" + minBufferSize + ", maxBufferSize=" + maxBufferSize + ", acquired="
+                + getAcquired() + ", allocated=" + getAllocated() + ", released=" + getReleased() + ", free="
+                + getFree() + "}";
+    }
+}
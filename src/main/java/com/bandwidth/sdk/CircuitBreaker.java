@@ -0,0 +1,257 @@
+package com.bandwidth.sdk;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker of one resource route of a BandwidthClient, following a CircuitBreakerPolicy.
+ *
+ * Outcomes are counted in a rolling window of time buckets. In State.CLOSED requests go through; in State.OPEN they
+ * are refused without touching the transport; in State.HALF_OPEN a few probe requests decide whether the route has
+ * recovered. Only the outcome of a probe counts while half-open: a request let through before the breaker opened
+ * cannot take or free a probe slot when it completes late.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String route;
+    private final CircuitBreakerPolicy policy;
+    private final List<CircuitBreakerListener> listeners;
+    private final long bucketMillis;
+
+    private final int[] successes;
+    private final int[] failures;
+    private final long[] bucketStarts;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+    // counts the transitions, so that a permit knows the period it was granted in
+    private long generation;
+
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong openedCount = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param route the resource route.
+     * @param policy the thresholds.
+     * @param listeners notified of every state change.
+     */
+    public CircuitBreaker(final String route, final CircuitBreakerPolicy policy,
+                          final List<CircuitBreakerListener> listeners) {
+        this.route = route;
+        this.policy = policy;
+        this.listeners = listeners;
+        this.bucketMillis = policy.getWindowMillis() / policy.getWindowBuckets();
+        this.successes = new int[policy.getWindowBuckets()];
+        this.failures = new int[policy.getWindowBuckets()];
+        this.bucketStarts = new long[policy.getWindowBuckets()];
+    }
+
+    /**
+     * Asks to send a request. Every granted request must be followed by exactly one call to Permit.onResult(), or to
+     * Permit.release() if it is not sent after all.
+     *
+     * @return the permit, or null if the request must not be sent.
+     */
+    public Permit tryAcquire() {
+        State from = null;
+        try {
+            synchronized (this) {
+                if (state == State.OPEN) {
+                    if (now() - openedAt < policy.getOpenMillis()) {
+                        rejectedCount.incrementAndGet();
+                        return null;
+                    }
+                    from = transition(State.HALF_OPEN);
+                }
+                if (state == State.HALF_OPEN) {
+                    if (probesInFlight + probeSuccesses >= policy.getHalfOpenProbes()) {
+                        rejectedCount.incrementAndGet();
+                        return null;
+                    }
+                    probesInFlight++;
+                    return new Permit(true, generation);
+                }
+                return new Permit(false, generation);
+            }
+        } finally {
+            notifyListeners(from, State.HALF_OPEN);
+        }
+    }
+
+    private void complete(final Permit permit, final boolean sent, final boolean success) {
+        State from = null;
+        State to = null;
+        synchronized (this) {
+            if (permit.done) {
+                return;
+            }
+            permit.done = true;
+            if (sent) {
+                (success ? successCount : failureCount).incrementAndGet();
+            }
+            if (permit.probe) {
+                // a probe of an earlier half-open period no longer holds a slot
+                if (state == State.HALF_OPEN && permit.generation == generation) {
+                    probesInFlight--;
+                    if (sent && !success) {
+                        to = State.OPEN;
+                    } else if (sent && ++probeSuccesses >= policy.getHalfOpenProbes()) {
+                        to = State.CLOSED;
+                    }
+                }
+            } else if (sent && state == State.CLOSED) {
+                final int bucket = currentBucket();
+                if (success) {
+                    successes[bucket]++;
+                } else {
+                    failures[bucket]++;
+                    if (isFailureRateExceeded()) {
+                        to = State.OPEN;
+                    }
+                }
+            }
+            if (to != null) {
+                from = transition(to);
+            }
+        }
+        notifyListeners(from, to);
+    }
+
+    private boolean isFailureRateExceeded() {
+        final long oldest = now() - policy.getWindowMillis();
+        int total = 0;
+        int failed = 0;
+        for (int i = 0; i < bucketStarts.length; i++) {
+            if (bucketStarts[i] > oldest) {
+                total += successes[i] + failures[i];
+                failed += failures[i];
+            }
+        }
+        return total >= policy.getMinimumRequests() && failed >= total * policy.getFailureRateThreshold();
+    }
+
+    private int currentBucket() {
+        final long start = now() / bucketMillis * bucketMillis;
+        final int bucket = (int) ((start / bucketMillis) % bucketStarts.length);
+        if (bucketStarts[bucket] != start) {
+            bucketStarts[bucket] = start;
+            successes[bucket] = 0;
+            failures[bucket] = 0;
+        }
+        return bucket;
+    }
+
+    private State transition(final State to) {
+        final State from = state;
+        state = to;
+        generation++;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        if (to == State.OPEN) {
+            openedAt = now();
+            openedCount.incrementAndGet();
+        } else if (to == State.CLOSED) {
+            for (int i = 0; i < bucketStarts.length; i++) {
+                bucketStarts[i] = 0;
+            }
+        }
+        return from;
+    }
+
+    private void notifyListeners(final State from, final State to) {
+        if (from == null || from == to) {
+            return;
+        }
+        for (final CircuitBreakerListener listener : listeners) {
+            listener.onStateChange(route, from, to);
+        }
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return the number of requests refused while open or half-open.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * @return the number of times the breaker opened.
+     */
+    public long getOpenedCount() {
+        return openedCount.get();
+    }
+
+    /**
+     * A request granted by tryAcquire(). Only the first call to onResult() or release() counts.
+     */
+    public final class Permit {
+        private final boolean probe;
+        private final long generation;
+        private boolean done;
+
+        private Permit(final boolean probe, final long generation) {
+            this.probe = probe;
+            this.generation = generation;
+        }
+
+        /**
+         * @return true if the request is one of the probes of the half-open state.
+         */
+        public boolean isProbe() {
+            return probe;
+        }
+
+        /**
+         * Records the outcome of the request.
+         *
+         * @param success false for an I/O error or a status &gt;= 500.
+         */
+        public void onResult(final boolean success) {
+            complete(this, true, success);
+        }
+
+        /**
+         * Gives the permit back without an outcome, for a request that was not sent or was cancelled, and so says
+         * nothing about the route. A probe slot is freed for another request.
+         */
+        public void release() {
+            complete(this, false, false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{route='" + route + "', state=" + getState() + ", successes=" + getSuccessCount()
+                + ", failures=" + getFailureCount() + ", rejected=" + getRejectedCount() + "}";
+    }
+}
@@ -0,0 +1,15 @@
+package com.bandwidth.sdk;
+
+/**
+ * Receives the state changes of the circuit breakers of a BandwidthClient. Called on the request thread that caused
+ * the change, so implementations should return quickly.
+ */
+public interface CircuitBreakerListener {
+
+    /**
+     * @param route the resource route, e.g. calls.
+     * @param from the previous state.
+     * @param to the new state.
+     */
+    void onStateChange(String route, CircuitBreaker.State from, CircuitBreaker.State to);
+}
@@ -0,0 +1,124 @@
+package com.bandwidth.sdk;
+
+/**
+ * Settings of the CircuitBreaker a BandwidthClient keeps for each resource route, e.g. calls or messages.
+ *
+ * A route's breaker opens when, over the last windowMillis, at least minimumRequests were sent and the share of them
+ * that failed (I/O error or status &gt;= 500) reached failureRateThreshold. It stays open for openMillis, failing
+ * requests at once, then lets halfOpenProbes requests through: if they all succeed the breaker closes, if one fails it
+ * opens again.
+ * <br>Example:<br>
+ * <code>client.setCircuitBreakerPolicy(CircuitBreakerPolicy.builder().failureRateThreshold(0.25).build());</code>
+ */
+public class CircuitBreakerPolicy {
+
+    /**
+     * The policy BandwidthClient starts with.
+     */
+    public static final CircuitBreakerPolicy DEFAULT = builder().build();
+
+    private final double failureRateThreshold;
+    private final int minimumRequests;
+    private final long windowMillis;
+    private final int windowBuckets;
+    private final long openMillis;
+    private final int halfOpenProbes;
+
+    private CircuitBreakerPolicy(final Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.minimumRequests = builder.minimumRequests;
+        this.windowMillis = builder.windowMillis;
+        this.windowBuckets = builder.windowBuckets;
+        this.openMillis = builder.openMillis;
+        this.halfOpenProbes = builder.halfOpenProbes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public int getMinimumRequests() {
+        return minimumRequests;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public int getWindowBuckets() {
+        return windowBuckets;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    public static class Builder {
+        private double failureRateThreshold = 0.5;
+        private int minimumRequests = 20;
+        private long windowMillis = 10000;
+        private int windowBuckets = 10;
+        private long openMillis = 5000;
+        private int halfOpenProbes = 3;
+
+        private Builder() {
+        }
+
+        /**
+         * @param failureRateThreshold the share of failed requests that opens the breaker, between 0 and 1.
+         * @return the builder
+         */
+        public Builder failureRateThreshold(final double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param minimumRequests the number of requests in the window before the failure rate is considered.
+         * @return the builder
+         */
+        public Builder minimumRequests(final int minimumRequests) {
+            this.minimumRequests = minimumRequests;
+            return this;
+        }
+
+        /**
+         * @param windowMillis the length of the rolling window.
+         * @param buckets the number of buckets the window is divided in; the oldest one is dropped as time moves on.
+         * @return the builder
+         */
+        public Builder window(final long windowMillis, final int buckets) {
+            if (buckets < 1 || windowMillis < buckets) {
+                throw new IllegalArgumentException("window must hold at least one bucket of 1 ms");
+            }
+            this.windowMillis = windowMillis;
+            this.windowBuckets = buckets;
+            return this;
+        }
+
+        public Builder openMillis(final long openMillis) {
+            this.openMillis = openMillis;
+            return this;
+        }
+
+        public Builder halfOpenProbes(final int halfOpenProbes) {
+            if (halfOpenProbes < 1) {
+                throw new IllegalArgumentException("halfOpenProbes must be at least 1");
+            }
+            this.halfOpenProbes = halfOpenProbes;
+            return this;
+        }
+
+        public CircuitBreakerPolicy build() {
+            return new CircuitBreakerPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.bandwidth.sdk;
+
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency driven limit on the number of requests a BandwidthClient has in flight, in the style of the gradient
+ * limiters of TCP Vegas.
+ *
+ * Latencies are collected in windows of windowSize samples. At the end of a window its p99 is compared to a slowly
+ * moving baseline: while the p99 stays within tolerance of the baseline the limit grows by about sqrt(limit), and as
+ * the p99 climbs above it the limit shrinks in proportion, down to half per window. A dropped request (I/O error, 429
+ * or 503) cuts the limit by backoffRatio at once, unless it was sent before the last cut: the requests in flight when
+ * the limit is cut report the same overload, so a burst of drops cuts it once per round trip rather than once per
+ * request. The limit stays within minLimit and maxLimit.
+ *
+ * Callers over the limit block in acquire() until a request completes.
+ * <br>Example:<br>
+ * <code>client.setConcurrencyLimiter(ConcurrencyLimiter.builder().maxLimit(400).build());</code>
+ */
+public class ConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+
+    private final long[] window;
+    private int samples;
+    private long lastP99Nanos;
+    private double baselineNanos;
+    private long drops;
+    private long waits;
+    private boolean backedOff;
+    private long lastBackoffNanos;
+
+    private ConcurrencyLimiter(final Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = Math.max(builder.minLimit, builder.maxLimit);
+        this.windowSize = builder.windowSize;
+        this.tolerance = builder.tolerance;
+        this.smoothing = builder.smoothing;
+        this.backoffRatio = builder.backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+        this.window = new long[windowSize];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Waits until the number of requests in flight is below the limit and counts this one in.
+     *
+     * @return the start time to pass to release().
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    public synchronized long acquire() throws InterruptedIOException {
+        if (inFlight >= (int) limit) {
+            waits++;
+            while (inFlight >= (int) limit) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a request slot");
+                }
+            }
+        }
+        inFlight++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Like acquire(), but gives up after timeoutMillis.
+     *
+     * @param timeoutMillis the longest time to wait.
+     * @return true if the request was counted in, then pass System.nanoTime() to release(); false on timeout.
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    public synchronized boolean tryAcquire(final long timeoutMillis) throws InterruptedIOException {
+        if (inFlight >= (int) limit) {
+            waits++;
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (inFlight >= (int) limit) {
+                final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    wait(remaining);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a request slot");
+                }
+            }
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Counts a request out and feeds its latency to the limit.
+     *
+     * @param startNanos the value returned by acquire().
+     * @param dropped true if the request failed in a way that signals overload: an I/O error, 429 or 503.
+     */
+    public void release(final long startNanos, final boolean dropped) {
+        release(dropped, System.nanoTime() - startNanos);
+    }
+
+    synchronized void release(final boolean dropped, final long latency) {
+        final boolean saturated = inFlight >= limit / 2;
+        inFlight--;
+
+        if (dropped) {
+            drops++;
+            final long now = System.nanoTime();
+            if (!backedOff || now - latency - lastBackoffNanos >= 0) {
+                backedOff = true;
+                lastBackoffNanos = now;
+                setLimit(limit * backoffRatio);
+            }
+        } else {
+            window[samples++] = latency;
+            if (samples == windowSize) {
+                endWindow(saturated);
+            }
+        }
+        notifyAll();
+    }
+
+    private void endWindow(final boolean saturated) {
+        Arrays.sort(window);
+        final long p99 = window[(int) Math.ceil(windowSize * 0.99) - 1];
+        samples = 0;
+        lastP99Nanos = p99;
+
+        if (baselineNanos == 0 || p99 < baselineNanos) {
+            baselineNanos = p99;
+        } else {
+            baselineNanos = baselineNanos * 0.95 + p99 * 0.05;
+        }
+
+        final double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / p99));
+        // Only grow when the limit is actually being used, or an idle client would inflate it without evidence.
+        final double queueSize = gradient >= 1.0 && !saturated ? 0 : Math.sqrt(limit);
+        final double target = limit * gradient + queueSize;
+        setLimit(limit * (1 - smoothing) + target * smoothing);
+    }
+
+    private void setLimit(final double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * @return the current limit on requests in flight.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the p99 latency of the last complete window, in milliseconds.
+     */
+    public synchronized long getLastP99Millis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastP99Nanos);
+    }
+
+    /**
+     * @return the baseline latency the p99 is compared to, in milliseconds.
+     */
+    public synchronized long getBaselineMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((long) baselineNanos);
+    }
+
+    /**
+     * @return the number of dropped requests reported.
+     */
+    public synchronized long getDrops() {
+        return drops;
+    }
+
+    /**
+     * @return the number of acquire() calls that had to wait for a slot.
+     */
+    public synchronized long getWaits() {
+        return waits;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ConcurrencyLimiter{limit=" + getLimit() + ", inFlight=" + inFlight + ", p99Millis="
+                + getLastP99Millis() + ", baselineMillis=" + getBaselineMillis() + ", drops=" + drops + "}";
+    }
+
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = BandwidthConstants.HTTP_MAX_TOTAL_CONNECTIONS;
+        private int windowSize = 100;
+        private double tolerance = 1.5;
+        private double smoothing = 0.5;
+        private double backoffRatio = 0.9;
+
+        private Builder() {
+        }
+
+        public Builder initialLimit(final int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(final int minLimit) {
+            if (minLimit < 1) {
+                throw new IllegalArgumentException("minLimit must be at least 1");
+            }
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(final int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @param windowSize the number of latency samples per window, at least 10.
+         * @return the builder
+         */
+        public Builder windowSize(final int windowSize) {
+            if (windowSize < 10) {
+                throw new IllegalArgumentException("windowSize must be at least 10");
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param tolerance how far the p99 may rise above the baseline before the limit shrinks, e.g. 1.5.
+         * @return the builder
+         */
+        public Builder tolerance(final double tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * @param smoothing the weight of each window's target limit, between 0 and 1.
+         * @return the builder
+         */
+        public Builder smoothing(final double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        /**
+         * @param backoffRatio the factor applied to the limit on a dropped request, at most once per round trip,
+         *                     e.g. 0.9.
+         * @return the builder
+         */
+        public Builder backoffRatio(final double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        public ConcurrencyLimiter build() {
+            return new ConcurrencyLimiter(this);
+        }
+    }
+}
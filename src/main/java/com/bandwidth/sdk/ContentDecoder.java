@@ -0,0 +1,129 @@
+package com.bandwidth.sdk;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes compressed response bodies as they are read from the connection. Used by every Transport, and by the
+ * BandwidthAsyncClient, so compression is negotiated and decoded the same way whatever the HTTP engine.
+ */
+public final class ContentDecoder {
+
+    /**
+     * The Accept-Encoding the BandwidthClient sends when compression is enabled.
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentDecoder() {
+    }
+
+    /**
+     * Wraps the body stream in a decoder for its Content-Encoding.
+     *
+     * @param in the body as received.
+     * @param contentEncoding the Content-Encoding header, or null.
+     * @return the decoded body.
+     * @throws IOException if the encoding is not supported or the stream is corrupt.
+     */
+    public static InputStream decode(final InputStream in, final String contentEncoding) throws IOException {
+        if (StringUtils.isBlank(contentEncoding) || "identity".equalsIgnoreCase(contentEncoding.trim())) {
+            return in;
+        }
+        final String encoding = contentEncoding.trim().toLowerCase();
+        if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        if ("deflate".equals(encoding)) {
+            return inflate(in);
+        }
+        throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+    }
+
+    /**
+     * Decodes the body and reads it as text, without first buffering the compressed bytes.
+     *
+     * @param in the body as received; closed when done.
+     * @param contentEncoding the Content-Encoding header, or null.
+     * @param contentType the Content-Type header, whose charset is used; UTF-8 if absent.
+     * @return the body text.
+     * @throws IOException if the body could not be read or decoded.
+     */
+    public static String readText(final InputStream in, final String contentEncoding, final String contentType)
+            throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (Reader reader = new InputStreamReader(decode(in, contentEncoding), charsetOf(contentType))) {
+            final StringBuilder text = new StringBuilder(BUFFER_SIZE);
+            final char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, read);
+            }
+            return text.toString();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @param contentType the Content-Type header, or null.
+     * @return its charset, or UTF-8, the encoding of Catapult's json.
+     */
+    public static Charset charsetOf(final String contentType) {
+        if (contentType != null) {
+            for (final String param : contentType.split(";")) {
+                final String[] pair = param.trim().split("=", 2);
+                if (pair.length == 2 && "charset".equalsIgnoreCase(pair[0].trim())) {
+                    try {
+                        return Charset.forName(StringUtils.strip(pair[1].trim(), "\""));
+                    } catch (final IllegalCharsetNameException | UnsupportedCharsetException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * "deflate" is meant to be zlib wrapped, but some servers send raw deflate; the zlib header tells them apart.
+     */
+    private static InputStream inflate(final InputStream in) throws IOException {
+        final PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        final int first = pushback.read();
+        final int second = pushback.read();
+        if (second != -1) {
+            pushback.unread(second);
+        }
+        if (first != -1) {
+            pushback.unread(first);
+        }
+        final boolean zlib = first != -1 && second != -1 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+        final Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(pushback, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.bandwidth.sdk;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which an operation must be done, retries included. Started around a block, it applies to every
+ * request the current thread sends through a BandwidthClient until it is closed:
+ * <br>Example:<br>
+ * <code>
+ * try (Deadline deadline = Deadline.start(2, TimeUnit.SECONDS)) {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;call.hangUp();<br>
+ * }
+ * </code>
+ *
+ * The timeouts of each attempt are shortened to the time left, no retry is made that cannot complete in time, and an
+ * operation that runs out of time fails with a DeadlineExceededException. A deadline started inside another one
+ * cannot extend it.
+ */
+public final class Deadline implements Closeable {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<Deadline>();
+
+    private final long deadlineNanos;
+    private final Deadline previous;
+    private boolean started;
+
+    private Deadline(final long deadlineNanos, final Deadline previous) {
+        this.deadlineNanos = deadlineNanos;
+        this.previous = previous;
+    }
+
+    /**
+     * @param timeout the time from now.
+     * @param unit the unit of timeout.
+     * @return a deadline that is not bound to the thread, e.g. to pass to TransportRequest.setDeadline().
+     */
+    public static Deadline after(final long timeout, final TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout), null);
+    }
+
+    /**
+     * Starts a deadline for the requests of the current thread, until close().
+     *
+     * @param timeout the time from now.
+     * @param unit the unit of timeout.
+     * @return the deadline, to close when the operation is done.
+     */
+    public static Deadline start(final long timeout, final TimeUnit unit) {
+        final Deadline outer = CURRENT.get();
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        if (outer != null && outer.deadlineNanos - deadlineNanos < 0) {
+            deadlineNanos = outer.deadlineNanos;
+        }
+        final Deadline deadline = new Deadline(deadlineNanos, outer);
+        deadline.started = true;
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    /**
+     * @return the deadline started on the current thread, or null.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the time left in milliseconds, 0 or less once the deadline has passed.
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Ends a deadline started on this thread, restoring the one it was nested in.
+     */
+    @Override
+    public void close() {
+        if (started && CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remainingMillis=" + remainingMillis() + "}";
+    }
+}
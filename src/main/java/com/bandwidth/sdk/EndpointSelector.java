@@ -0,0 +1,333 @@
+package com.bandwidth.sdk;
+
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Picks the API endpoint of each request for a BandwidthClient given several endpoints, following a FailoverPolicy.
+ *
+ * Each endpoint is probed from a daemon thread of its own, through the Transport of the client, which gives its
+ * latency and health. The outcome of every request is fed back as well, so an endpoint that stops accepting
+ * connections is left at the first failure rather than at the next probe, and the request is sent again to the next
+ * endpoint at once. The endpoint to use is chosen whenever the health or latency of one changes; routing a request
+ * only reads it.
+ */
+public class EndpointSelector implements Closeable {
+
+    private final static Logger LOG = LoggerFactory.getLogger(EndpointSelector.class);
+
+    private static final double LATENCY_WEIGHT = 0.3;
+
+    /**
+     * One API endpoint, with what is known of its health and latency.
+     */
+    public static final class Endpoint {
+        private final String uri;
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile long latencyNanos = -1;
+
+        private Endpoint(final String uri) {
+            this.uri = uri;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        /**
+         * @return the average probe latency in milliseconds, or -1 before the first probe is answered.
+         */
+        public long getLatencyMillis() {
+            final long latency = latencyNanos;
+            return latency < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(latency);
+        }
+
+        /**
+         * @return the number of probes and requests that failed in a row.
+         */
+        public int getFailures() {
+            return failures.get();
+        }
+
+        private boolean matches(final String requestUri) {
+            if (!requestUri.startsWith(uri)) {
+                return false;
+            }
+            if (requestUri.length() == uri.length()) {
+                return true;
+            }
+            final char next = requestUri.charAt(uri.length());
+            return next == '/' || next == '?';
+        }
+
+        @Override
+        public String toString() {
+            return "Endpoint{uri=" + uri + ", healthy=" + healthy + ", latencyMillis=" + getLatencyMillis()
+                    + ", failures=" + getFailures() + "}";
+        }
+    }
+
+    private final List<Endpoint> endpoints;
+    private final FailoverPolicy policy;
+    private final Transport transport;
+    private final ScheduledThreadPoolExecutor prober;
+
+    private volatile Endpoint selected;
+
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+    private final AtomicLong switches = new AtomicLong();
+
+    /**
+     * Starts probing the endpoints.
+     *
+     * @param endpoints the endpoints, e.g. "https://api.catapult.inetwork.com", the first being the primary.
+     * @param transport the transport to probe through.
+     * @param policy the failover policy.
+     */
+    public EndpointSelector(final List<String> endpoints, final Transport transport, final FailoverPolicy policy) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            throw new IllegalArgumentException("endpoints cannot be empty");
+        }
+        final List<Endpoint> list = new ArrayList<Endpoint>();
+        for (final String endpoint : endpoints) {
+            list.add(new Endpoint(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+        this.policy = policy;
+        this.transport = transport;
+        this.selected = list.get(0);
+
+        this.prober = new ScheduledThreadPoolExecutor(list.size(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "bandwidth-endpoint-probe-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (final Endpoint endpoint : list) {
+            prober.scheduleWithFixedDelay(() -> probe(endpoint), 0, policy.getProbeIntervalMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Points the request at the selected endpoint, if it is addressed to one of the endpoints.
+     *
+     * @param request the request.
+     * @return the endpoint the request now goes to, or null if it is addressed elsewhere and was left alone.
+     */
+    public Endpoint route(final TransportRequest request) {
+        final String uri = request.getUri().toString();
+        final Endpoint target = selected;
+        for (final Endpoint endpoint : endpoints) {
+            if (endpoint.matches(uri)) {
+                if (endpoint != target) {
+                    request.setUri(URI.create(target.uri + uri.substring(endpoint.uri.length())));
+                }
+                return target;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the outcome of a request sent to an endpoint.
+     *
+     * @param endpoint the endpoint, as returned by route().
+     * @param response the response, or null if it failed.
+     * @param failure the I/O error, or null.
+     */
+    public void onResult(final Endpoint endpoint, final RestResponse response, final IOException failure) {
+        if (failure != null) {
+            onFailure(endpoint, isUnreachable(failure));
+        } else if (response == null) {
+            // the attempt ended with an unexpected error, which says nothing about the endpoint
+            return;
+        } else if (response.getStatus() >= 500) {
+            onFailure(endpoint, false);
+        } else {
+            onSuccess(endpoint);
+        }
+    }
+
+    /**
+     * @param endpoint the endpoint a request was just sent to.
+     * @param failure the error it failed with.
+     * @return true if the request never reached the endpoint and another healthy one is selected now, so it can be
+     * sent there at once, whatever its method.
+     */
+    public boolean shouldFailOver(final Endpoint endpoint, final IOException failure) {
+        Endpoint target = selected;
+        if (target == endpoint && !endpoint.healthy) {
+            // a probe may be switching away from it right now
+            reselect();
+            target = selected;
+        }
+        if (target == endpoint || !target.healthy || !isUnreachable(failure)) {
+            return false;
+        }
+        failovers.incrementAndGet();
+        return true;
+    }
+
+    private void probe(final Endpoint endpoint) {
+        probes.incrementAndGet();
+        final TransportRequest request = new TransportRequest(HttpGet.METHOD_NAME,
+                URI.create(endpoint.uri + policy.getProbePath()));
+        final int timeout = policy.getProbeTimeoutMillis();
+        request.setTimeouts(timeout, timeout, timeout);
+        final long start = System.nanoTime();
+        try (RestResponse response = transport.execute(request)) {
+            if (!policy.isHealthyStatus(response.getStatus())) {
+                onFailure(endpoint, false);
+                return;
+            }
+            final long latency = System.nanoTime() - start;
+            final long average = endpoint.latencyNanos;
+            endpoint.latencyNanos = average < 0 ? latency : (long) (average + LATENCY_WEIGHT * (latency - average));
+            onSuccess(endpoint);
+            reselect();
+        } catch (final IOException e) {
+            if (!prober.isShutdown()) {
+                onFailure(endpoint, isUnreachable(e));
+            }
+        } catch (final RuntimeException e) {
+            if (prober.isShutdown()) {
+                // closed while probing, e.g. together with the transport
+                return;
+            }
+            // a probe must not end the schedule of the endpoint
+            LOG.warn("Failed to probe {}", endpoint.uri, e);
+            onFailure(endpoint, false);
+        }
+    }
+
+    private void onSuccess(final Endpoint endpoint) {
+        endpoint.failures.set(0);
+        if (!endpoint.healthy) {
+            endpoint.healthy = true;
+            LOG.info("Endpoint {} is healthy again", endpoint.uri);
+            reselect();
+        }
+    }
+
+    private void onFailure(final Endpoint endpoint, final boolean unreachable) {
+        final int failures = endpoint.failures.incrementAndGet();
+        if (endpoint.healthy && (unreachable || failures >= policy.getFailureThreshold())) {
+            endpoint.healthy = false;
+            LOG.warn("Endpoint {} is unhealthy after {} failures", endpoint.uri, failures);
+            reselect();
+        }
+    }
+
+    /**
+     * Selects the first healthy endpoint, unless a later one is known to be faster by more than the tolerance, so an
+     * endpoint is not left before its first probe is answered. With no healthy endpoint the primary is kept, so that
+     * requests can tell when it is back.
+     */
+    private synchronized void reselect() {
+        final long tolerance = TimeUnit.MILLISECONDS.toNanos(policy.getLatencyToleranceMillis());
+        Endpoint best = null;
+        for (final Endpoint endpoint : endpoints) {
+            if (!endpoint.healthy) {
+                continue;
+            }
+            if (best == null) {
+                best = endpoint;
+            } else if (endpoint.latencyNanos >= 0 && best.latencyNanos >= 0
+                    && endpoint.latencyNanos + tolerance < best.latencyNanos) {
+                best = endpoint;
+            }
+        }
+        if (best == null) {
+            best = endpoints.get(0);
+        }
+        if (best != selected) {
+            LOG.info("Switching from endpoint {} to {}", selected.uri, best.uri);
+            switches.incrementAndGet();
+            selected = best;
+        }
+    }
+
+    private static boolean isUnreachable(final IOException failure) {
+        return failure instanceof ConnectException || failure instanceof ConnectTimeoutException
+                || failure instanceof HttpConnectTimeoutException || failure instanceof NoRouteToHostException || failure instanceof UnknownHostException;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return the endpoint requests are sent to.
+     */
+    public Endpoint getSelected() {
+        return selected;
+    }
+
+    public int size() {
+        return endpoints.size();
+    }
+
+    /**
+     * @return the number of probes sent.
+     */
+    public long getProbes() {
+        return probes.get();
+    }
+
+    /**
+     * @return the number of requests sent again to another endpoint after failing to reach theirs.
+     */
+    public long getFailovers() {
+        return failovers.get();
+    }
+
+    /**
+     * @return the number of times the selected endpoint changed.
+     */
+    public long getSwitches() {
+        return switches.get();
+    }
+
+    /**
+     * Stops probing. Idempotent.
+     */
+    @Override
+    public void close() {
+        prober.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointSelector{selected=" + selected.uri + ", endpoints=" + endpoints + ", failovers="
+                + getFailovers() + ", switches=" + getSwitches() + "}";
+    }
+}
@@ -0,0 +1,160 @@
+package com.bandwidth.sdk;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Settings for spreading requests over several API endpoints, which BandwidthClient does when given a list with
+ * setEndpoints().
+ *
+ * Every endpoint is probed with a GET of probePath each probeIntervalMillis. Probes carry no credentials. A probe
+ * answered with a 2xx status, or one of healthyStatuses, within probeTimeoutMillis gives the latency of the endpoint;
+ * any other answer counts as a failure, so that a proxy or captive portal answering 401, 403 or 404 in place of the
+ * API is not taken for it; failureThreshold failed probes or requests in a row take it
+ * out of rotation until it answers again. An endpoint that cannot be connected to is taken out at once. Requests go to
+ * the first healthy endpoint of the list, unless a later one is faster by more than latencyToleranceMillis.
+ * <br>Example:<br>
+ * <code>client.setEndpoints(Arrays.asList(primary, secondary), FailoverPolicy.builder().probeIntervalMillis(1000).build());</code>
+ */
+public class FailoverPolicy {
+
+    /**
+     * The policy setEndpoints() uses when none is given.
+     */
+    public static final FailoverPolicy DEFAULT = builder().build();
+
+    private final long probeIntervalMillis;
+    private final int probeTimeoutMillis;
+    private final String probePath;
+    private final int failureThreshold;
+    private final long latencyToleranceMillis;
+    private final Set<Integer> healthyStatuses;
+
+    private FailoverPolicy(final Builder builder) {
+        this.probeIntervalMillis = builder.probeIntervalMillis;
+        this.probeTimeoutMillis = builder.probeTimeoutMillis;
+        this.probePath = builder.probePath;
+        this.failureThreshold = builder.failureThreshold;
+        this.latencyToleranceMillis = builder.latencyToleranceMillis;
+        this.healthyStatuses = Collections.unmodifiableSet(new HashSet<Integer>(builder.healthyStatuses));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long getProbeIntervalMillis() {
+        return probeIntervalMillis;
+    }
+
+    public int getProbeTimeoutMillis() {
+        return probeTimeoutMillis;
+    }
+
+    public String getProbePath() {
+        return probePath;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getLatencyToleranceMillis() {
+        return latencyToleranceMillis;
+    }
+
+    /**
+     * @return the statuses besides 2xx that a probe may be answered with.
+     */
+    public Set<Integer> getHealthyStatuses() {
+        return healthyStatuses;
+    }
+
+    /**
+     * @param status the status a probe was answered with.
+     * @return true if it tells that the endpoint is healthy.
+     */
+    public boolean isHealthyStatus(final int status) {
+        return status >= 200 && status < 300 || healthyStatuses.contains(status);
+    }
+
+    @Override
+    public String toString() {
+        return "FailoverPolicy{probeIntervalMillis=" + probeIntervalMillis + ", probeTimeoutMillis="
+                + probeTimeoutMillis + ", probePath=" + probePath + ", failureThreshold=" + failureThreshold
+                + ", latencyToleranceMillis=" + latencyToleranceMillis + ", healthyStatuses=" + healthyStatuses + "}";
+    }
+
+    public static class Builder {
+        private long probeIntervalMillis = 5000;
+        private int probeTimeoutMillis = 2000;
+        private String probePath = "/";
+        private int failureThreshold = 2;
+        private long latencyToleranceMillis = 10;
+        private Set<Integer> healthyStatuses = Collections.emptySet();
+
+        private Builder() {
+        }
+
+        public Builder probeIntervalMillis(final long probeIntervalMillis) {
+            if (probeIntervalMillis <= 0) {
+                throw new IllegalArgumentException("probeIntervalMillis must be positive");
+            }
+            this.probeIntervalMillis = probeIntervalMillis;
+            return this;
+        }
+
+        public Builder probeTimeoutMillis(final int probeTimeoutMillis) {
+            if (probeTimeoutMillis <= 0) {
+                throw new IllegalArgumentException("probeTimeoutMillis must be positive");
+            }
+            this.probeTimeoutMillis = probeTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param probePath the path probed on each endpoint, e.g. "/v1/". It must answer 2xx, or one of
+         *                  healthyStatuses, without credentials.
+         * @return the builder
+         */
+        public Builder probePath(final String probePath) {
+            if (probePath == null || !probePath.startsWith("/")) {
+                throw new IllegalArgumentException("probePath must start with /");
+            }
+            this.probePath = probePath;
+            return this;
+        }
+
+        public Builder failureThreshold(final int failureThreshold) {
+            if (failureThreshold < 1) {
+                throw new IllegalArgumentException("failureThreshold must be at least 1");
+            }
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        public Builder latencyToleranceMillis(final long latencyToleranceMillis) {
+            if (latencyToleranceMillis < 0) {
+                throw new IllegalArgumentException("latencyToleranceMillis must not be negative");
+            }
+            this.latencyToleranceMillis = latencyToleranceMillis;
+            return this;
+        }
+
+        /**
+         * @param statuses statuses besides 2xx that a probe may be answered with, e.g. 401 for a probePath that
+         *                 needs credentials.
+         * @return the builder
+         */
+        public Builder healthyStatuses(final Integer... statuses) {
+            this.healthyStatuses = new HashSet<Integer>(Arrays.asList(statuses));
+            return this;
+        }
+
+        public FailoverPolicy build() {
+            return new FailoverPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.bandwidth.sdk;
+
+/**
+ * Settings for hedged GET requests, which BandwidthClient sends when given a policy with setHedgePolicy().
+ *
+ * When a GET has not been answered after the given percentile of recent GET latencies, a duplicate is sent. The first
+ * response wins and the other request is cancelled. Until minSamples latencies are known the delay is
+ * initialDelayMillis. The delay is kept within minDelayMillis and maxDelayMillis.
+ *
+ * Hedges are paid for out of a budget shared by all GETs of the client: each GET earns budgetRatio of a hedge, so with
+ * the default of 0.05 hedging adds at most about 5% to the load on Catapult.
+ * <br>Example:<br>
+ * <code>client.setHedgePolicy(HedgePolicy.builder().percentile(0.9).build());</code>
+ */
+public class HedgePolicy {
+
+    private final double percentile;
+    private final int minSamples;
+    private final long initialDelayMillis;
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+    private final double budgetRatio;
+    private final int budgetMinHedges;
+
+    private HedgePolicy(final Builder builder) {
+        this.percentile = builder.percentile;
+        this.minSamples = builder.minSamples;
+        this.initialDelayMillis = builder.initialDelayMillis;
+        this.minDelayMillis = builder.minDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.budgetRatio = builder.budgetRatio;
+        this.budgetMinHedges = builder.budgetMinHedges;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    public long getMinDelayMillis() {
+        return minDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public int getBudgetMinHedges() {
+        return budgetMinHedges;
+    }
+
+    public static class Builder {
+        private double percentile = 0.95;
+        private int minSamples = 20;
+        private long initialDelayMillis = 100;
+        private long minDelayMillis = 5;
+        private long maxDelayMillis = 1000;
+        private double budgetRatio = 0.05;
+        private int budgetMinHedges = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * @param percentile the latency percentile after which a duplicate is sent, e.g. 0.95.
+         * @return the builder
+         */
+        public Builder percentile(final double percentile) {
+            if (percentile <= 0 || percentile >= 1) {
+                throw new IllegalArgumentException("percentile must be between 0 and 1");
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        public Builder minSamples(final int minSamples) {
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        public Builder initialDelayMillis(final long initialDelayMillis) {
+            this.initialDelayMillis = initialDelayMillis;
+            return this;
+        }
+
+        public Builder minDelayMillis(final long minDelayMillis) {
+            this.minDelayMillis = minDelayMillis;
+            return this;
+        }
+
+        public Builder maxDelayMillis(final long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * @param ratio the hedges earned per GET.
+         * @param minHedges the hedges available before any GET is made.
+         * @return the builder
+         */
+        public Builder budget(final double ratio, final int minHedges) {
+            this.budgetRatio = ratio;
+            this.budgetMinHedges = minHedges;
+            return this;
+        }
+
+        public HedgePolicy build() {
+            return new HedgePolicy(this);
+        }
+    }
+}
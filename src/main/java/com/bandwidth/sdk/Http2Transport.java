@@ -0,0 +1,166 @@
+package com.bandwidth.sdk;
+
+import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Transport backed by the JDK HttpClient speaking HTTP/2. Concurrent requests to the API endpoint are multiplexed as
+ * streams over a single TLS connection, so bursts do not pay TCP and TLS setup and there is no connection pool to
+ * size. Servers that do not negotiate h2 through ALPN are spoken to over HTTP/1.1.
+ *
+ * Select it with -Dcom.bandwidth.http.transport=http2 or BANDWIDTH_HTTP_TRANSPORT=http2.
+ */
+public class Http2Transport implements Transport {
+
+    protected final HttpClient httpClient;
+
+    public Http2Transport() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sslContext the SSL context used for TLS connections, or null for the JVM default.
+     */
+    public Http2Transport(final SSLContext sslContext) {
+        this(sslContext, TimeoutPolicy.DEFAULT);
+    }
+
+    /**
+     * Constructor. The JDK HttpClient takes its connect timeout once, when it is built, so the connect timeout of
+     * the given policy applies to every request, whatever the TimeoutPolicy of the client or the Deadline of a
+     * request later say. The socket timeout of each request still applies, as the time to the response headers.
+     *
+     * @param sslContext the SSL context used for TLS connections, or null for the JVM default.
+     * @param timeouts the policy to take the connect timeout from.
+     */
+    public Http2Transport(final SSLContext sslContext, final TimeoutPolicy timeouts) {
+        if (timeouts == null) {
+            throw new IllegalArgumentException("timeouts must not be null");
+        }
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (timeouts.getConnectTimeoutMillis() > 0) {
+            builder.connectTimeout(Duration.ofMillis(timeouts.getConnectTimeoutMillis()));
+        }
+        if (sslContext != null) {
+            builder.sslContext(sslContext);
+        }
+        this.httpClient = builder.build();
+    }
+
+    @Override
+    public RestResponse execute(final TransportRequest request) throws IOException {
+        final HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (request.isStreaming() && response.statusCode() < 300) {
+            return RestResponse.createStreamingResponse(response.statusCode(), response.body(),
+                    response.headers().map());
+        }
+        if (request.getBufferPool() != null) {
+            return RestResponse.createRestResponse(response.statusCode(), response.body(), response.headers().map(),
+                    request.getBufferPool());
+        }
+        final String text = ContentDecoder.readText(response.body(),
+                response.headers().firstValue("Content-Encoding").orElse(null),
+                response.headers().firstValue("Content-Type").orElse(null));
+        return RestResponse.createRestResponse(response.statusCode(), text, response.headers().map());
+    }
+
+    @Override
+    public void download(final TransportRequest request, final File destFile) throws IOException {
+        final HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        final String encoding = response.headers().firstValue("Content-Encoding").orElse(null);
+        if (response.statusCode() >= 400) {
+            throw new IOException(ContentDecoder.readText(response.body(), encoding, null));
+        }
+        try (InputStream body = ContentDecoder.decode(response.body(), encoding)) {
+            Files.copy(body, destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private <T> HttpResponse<T> send(final TransportRequest request, final HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        final CompletableFuture<HttpResponse<T>> exchange = httpClient.sendAsync(toHttpRequest(request), handler);
+        request.onCancel(() -> exchange.cancel(true));
+        boolean answered = false;
+        try {
+            final HttpResponse<T> response = exchange.get();
+            answered = true;
+            return response;
+        } catch (final InterruptedException e) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (final CancellationException e) {
+            throw new IOException("Request cancelled: " + request);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            if (!answered) {
+                // the JDK client may still be publishing the body of an exchange given up on
+                request.detachBody();
+            }
+        }
+    }
+
+    /**
+     * Helper method that converts a TransportRequest to a JDK HttpRequest.
+     *
+     * @param request the request.
+     * @return the JDK request.
+     * @throws IOException if the file to upload cannot be read.
+     */
+    protected HttpRequest toHttpRequest(final TransportRequest request) throws IOException {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri());
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+
+        final HttpRequest.BodyPublisher publisher;
+        if (request.getFile() != null) {
+            publisher = HttpRequest.BodyPublishers.ofFile(request.getFile().toPath());
+        } else if (request.getBodyBuffer() != null) {
+            final PooledBuffer body = request.getBodyBuffer();
+            publisher = HttpRequest.BodyPublishers.ofByteArray(body.array(), 0, body.length());
+        } else if (request.getBody() != null) {
+            publisher = HttpRequest.BodyPublishers.ofString(request.getBody(), StandardCharsets.UTF_8);
+        } else {
+            publisher = HttpRequest.BodyPublishers.noBody();
+        }
+        if (request.hasBody()) {
+            builder.header("Content-Type", request.getContentType() == null
+                    ? "application/octet-stream" : request.getContentType());
+        }
+        if (request.hasTimeouts() && request.getSocketTimeoutMillis() > 0) {
+            // the JDK client has no inactivity timeout, this bounds the wait for the response headers
+            builder.timeout(Duration.ofMillis(request.getSocketTimeoutMillis()));
+        }
+        return builder.method(request.getMethod(), publisher).build();
+    }
+
+    /**
+     * The JDK HttpClient releases its connections once it becomes unreachable, there is nothing to close eagerly.
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,124 @@
+package com.bandwidth.sdk;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes expired and idle pooled connections for every ApacheTransport in the VM from a single daemon thread, so the
+ * number of threads does not grow with the number of BandwidthClients. Each pool registers on creation and is
+ * unregistered when its transport is closed. The thread is started by the first registration and stopped when the
+ * last one is closed.
+ *
+ * Every MONITOR_TIMER ms each pool gets its keep warm hook run, then loses its expired connections and those idle
+ * for more than IDLE_TIMEOUT_MILLIS.
+ */
+public final class IdleConnectionReaper {
+
+    private final static Logger LOG = LoggerFactory.getLogger(IdleConnectionReaper.class);
+
+    /**
+     * How long a pooled connection may stay idle before it is closed.
+     */
+    public static final long IDLE_TIMEOUT_MILLIS = 30000;
+
+    private static final Set<Registration> REGISTRATIONS = new CopyOnWriteArraySet<Registration>();
+
+    private static ScheduledExecutorService scheduler;
+
+    private IdleConnectionReaper() {
+    }
+
+    /**
+     * Registers a pool with the reaper.
+     *
+     * @param connectionManager the pool.
+     * @param keepWarm run before each reap, to refresh the connections that must survive it; may be null.
+     * @return the registration, close it when the pool is shut down.
+     */
+    public static synchronized Registration register(final HttpClientConnectionManager connectionManager,
+                                                     final Runnable keepWarm) {
+        final Registration registration = new Registration(connectionManager, keepWarm);
+        REGISTRATIONS.add(registration);
+        if (scheduler == null) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "bandwidth-idle-reaper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            executor.scheduleWithFixedDelay(IdleConnectionReaper::reapAll, BandwidthClient.MONITOR_TIMER,
+                    BandwidthClient.MONITOR_TIMER, TimeUnit.MILLISECONDS);
+            scheduler = executor;
+        }
+        return registration;
+    }
+
+    /**
+     * @return the number of pools currently reaped.
+     */
+    public static int getRegisteredCount() {
+        return REGISTRATIONS.size();
+    }
+
+    /**
+     * @return true while the reaper thread is scheduled, i.e. while at least one pool is registered.
+     */
+    public static synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private static synchronized void unregister(final Registration registration) {
+        if (REGISTRATIONS.remove(registration) && REGISTRATIONS.isEmpty() && scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Runs one pass over every registered pool. Called by the reaper thread; package private so tests need not wait.
+     */
+    static void reapAll() {
+        for (final Registration registration : REGISTRATIONS) {
+            registration.reap();
+        }
+    }
+
+    /**
+     * A pool registered with the reaper. Closing it stops the reaping; it is idempotent.
+     */
+    public static final class Registration implements Closeable {
+        private final HttpClientConnectionManager connectionManager;
+        private final Runnable keepWarm;
+
+        private Registration(final HttpClientConnectionManager connectionManager, final Runnable keepWarm) {
+            this.connectionManager = connectionManager;
+            this.keepWarm = keepWarm;
+        }
+
+        private void reap() {
+            // one failing pool must not stop the reaper for the others
+            try {
+                if (keepWarm != null) {
+                    keepWarm.run();
+                }
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (final RuntimeException e) {
+                LOG.error("Failed to reap idle connections.", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            unregister(this);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.bandwidth.sdk;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONAware;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * The default JsonCodec, on Jackson's streaming parser and generator. One instance is shared by every thread: the
+ * JsonFactory is thread safe, and Jackson recycles its parse and write buffers per thread.
+ *
+ * It reads the same values json-simple does, Long for integers and Double for decimals, and fails with the same
+ * ParseException on invalid json. It writes arrays as json arrays, and values of other types as strings of their
+ * toString(), where json-simple writes them unquoted.
+ */
+public class JacksonJsonCodec implements JsonCodec {
+
+    static final JsonFactory FACTORY = new JsonFactory();
+
+    @Override
+    public Object parse(final String json) throws ParseException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return readDocument(parser);
+        } catch (final IOException e) {
+            // not from a String
+            throw new ParseException(ParseException.ERROR_UNEXPECTED_EXCEPTION, e);
+        }
+    }
+
+    @Override
+    public Object parse(final Reader json) throws IOException, ParseException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return readDocument(parser);
+        }
+    }
+
+    @Override
+    public Object parse(final byte[] json, final int offset, final int length, final Charset charset)
+            throws ParseException {
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            return parse(new String(json, offset, length, charset));
+        }
+        try (JsonParser parser = FACTORY.createParser(json, offset, length)) {
+            return readDocument(parser);
+        } catch (final IOException e) {
+            // not from an array
+            throw new ParseException(ParseException.ERROR_UNEXPECTED_EXCEPTION, e);
+        }
+    }
+
+    @Override
+    public String serialize(final Object value) {
+        final StringWriter json = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(json)) {
+            write(generator, value);
+        } catch (final IOException e) {
+            // not to a StringWriter
+            throw new IllegalStateException(e);
+        }
+        return json.toString();
+    }
+
+    @Override
+    public void serialize(final Object value, final OutputStream out) throws IOException {
+        try (JsonGenerator generator = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            write(generator, value);
+        }
+    }
+
+    private static Object readDocument(final JsonParser parser) throws IOException, ParseException {
+        try {
+            if (parser.nextToken() == null) {
+                throw new ParseException(offset(parser), ParseException.ERROR_UNEXPECTED_TOKEN, null);
+            }
+            final Object value = readValue(parser);
+            if (parser.nextToken() != null) {
+                throw new ParseException(offset(parser), ParseException.ERROR_UNEXPECTED_TOKEN, parser.getText());
+            }
+            return value;
+        } catch (final JsonProcessingException e) {
+            // the location of the exception can be past the token that failed, the parser has its start
+            final ParseException parseException = new ParseException(offset(parser),
+                    ParseException.ERROR_UNEXPECTED_TOKEN, e.getOriginalMessage());
+            parseException.initCause(e);
+            throw parseException;
+        }
+    }
+
+    /**
+     * Reads an object whose START_OBJECT is the current token.
+     */
+    @SuppressWarnings("unchecked")
+    static JSONObject readObject(final JsonParser parser) throws IOException {
+        final JSONObject object = new JSONObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            object.put(name, readValue(parser));
+        }
+        return object;
+    }
+
+    /**
+     * Reads the value whose first token is the current token.
+     */
+    @SuppressWarnings("unchecked")
+    static Object readValue(final JsonParser parser) throws IOException {
+        switch (parser.getCurrentToken()) {
+            case START_OBJECT:
+                return readObject(parser);
+            case START_ARRAY:
+                final JSONArray array = new JSONArray();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    array.add(readValue(parser));
+                }
+                return array;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                // json-simple reads integers as Long
+                return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                        ? (Object) parser.getDoubleValue() : (Object) parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new com.fasterxml.jackson.core.JsonParseException("Unexpected " + parser.getCurrentToken(),
+                        parser.getCurrentLocation());
+        }
+    }
+
+    private static void write(final JsonGenerator generator, final Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Number) {
+            writeNumber(generator, (Number) value);
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                write(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Iterable) {
+            generator.writeStartArray();
+            for (final Object element : (Iterable<?>) value) {
+                write(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (value.getClass().isArray()) {
+            generator.writeStartArray();
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                write(generator, Array.get(value, i));
+            }
+            generator.writeEndArray();
+        } else if (value instanceof JSONAware) {
+            generator.writeRawValue(((JSONAware) value).toJSONString());
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static void writeNumber(final JsonGenerator generator, final Number number) throws IOException {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short
+                || number instanceof Byte) {
+            generator.writeNumber(number.longValue());
+        } else if (number instanceof Double || number instanceof Float) {
+            final double value = number.doubleValue();
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                // not valid json, json-simple writes null as well
+                generator.writeNull();
+            } else if (number instanceof Float) {
+                generator.writeNumber(number.floatValue());
+            } else {
+                generator.writeNumber(value);
+            }
+        } else if (number instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) number);
+        } else if (number instanceof BigInteger) {
+            generator.writeNumber((BigInteger) number);
+        } else {
+            generator.writeNumber(number.toString());
+        }
+    }
+
+    private static int offset(final JsonParser parser) {
+        return (int) parser.getTokenLocation().getCharOffset();
+    }
+}
@@ -0,0 +1,115 @@
+package com.bandwidth.sdk;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.io.IOUtils;
+import org.json.simple.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the objects of a json array response one at a time, with Jackson's streaming parser. On a streamed
+ * RestResponse each object is parsed as it comes off the connection, so only one element of a page is held as a map
+ * at a time. The objects are the same JSONObject maps json-simple builds, with Long and Double numbers, so the model
+ * classes take them as they are.
+ *
+ * Like Utils.response2JSONArray(), a response holding a single object reads as an array of one.
+ * <br>Example:<br>
+ * <code>
+ * try (JsonArrayReader reader = new JsonArrayReader(client.getStreaming(uri, params))) {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;for (JSONObject call = reader.next(); call != null; call = reader.next()) { ... }<br>
+ * }
+ * </code>
+ */
+public final class JsonArrayReader implements Closeable {
+
+    private final RestResponse response;
+    private final JsonParser parser;
+    private JSONObject single;
+    private boolean done;
+    private int count;
+
+    /**
+     * @param response the response, streamed, pooled or read as text; closed with the reader, or at once if the
+     *                 constructor throws.
+     * @throws IOException if the body is neither an array nor an object.
+     */
+    public JsonArrayReader(final RestResponse response) throws IOException {
+        this.response = response;
+        JsonParser parser = null;
+        try {
+            if (response.isStreamed()) {
+                parser = StandardCharsets.UTF_8.equals(response.getCharset())
+                        ? JacksonJsonCodec.FACTORY.createParser(response.getContent())
+                        : JacksonJsonCodec.FACTORY.createParser(new InputStreamReader(response.getContent(), response.getCharset()));
+            } else if (response.getBody() != null && StandardCharsets.UTF_8.equals(response.getCharset())) {
+                final PooledBuffer body = response.getBody();
+                parser = JacksonJsonCodec.FACTORY.createParser(body.array(), 0, body.length());
+            } else {
+                parser = JacksonJsonCodec.FACTORY.createParser(response.getResponseText());
+            }
+            final JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_OBJECT) {
+                single = JacksonJsonCodec.readObject(parser);
+            } else if (first != JsonToken.START_ARRAY) {
+                throw new JsonParseException("Expected a json array or object", parser.getCurrentLocation());
+            }
+        } catch (final IOException | RuntimeException e) {
+            // the caller gets no reader to close, so the connection of a streamed response is released here
+            IOUtils.closeQuietly(parser);
+            IOUtils.closeQuietly(response);
+            throw e;
+        }
+        this.parser = parser;
+    }
+
+    /**
+     * @return the next object, or null at the end of the array.
+     * @throws IOException if the body could not be read or is not valid json.
+     */
+    public JSONObject next() throws IOException {
+        if (done) {
+            return null;
+        }
+        if (single != null) {
+            final JSONObject object = single;
+            single = null;
+            done = true;
+            count++;
+            return object;
+        }
+        final JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY || token == null) {
+            done = true;
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Expected a json object", parser.getCurrentLocation());
+        }
+        count++;
+        return JacksonJsonCodec.readObject(parser);
+    }
+
+    /**
+     * @return the number of objects read so far.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Closes the parser and the response, which releases the connection of a streamed response.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            parser.close();
+        } finally {
+            response.close();
+        }
+    }
+}
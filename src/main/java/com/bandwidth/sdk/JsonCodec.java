@@ -0,0 +1,62 @@
+package com.bandwidth.sdk;
+
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes the json exchanged with Catapult. Parsed documents are json-simple values, which is what the model
+ * classes are built from: JSONObject, JSONArray, String, Long, Double, Boolean or null. Implementations must be thread
+ * safe; one instance, JsonCodecs.getDefault(), serves every request.
+ */
+public interface JsonCodec {
+
+    /**
+     * @param json the document.
+     * @return its value.
+     * @throws ParseException if it is not valid json.
+     */
+    Object parse(String json) throws ParseException;
+
+    /**
+     * @param json the document.
+     * @return its value.
+     * @throws IOException if the document could not be read.
+     * @throws ParseException if it is not valid json.
+     */
+    Object parse(Reader json) throws IOException, ParseException;
+
+    /**
+     * @param json the document, e.g. a pooled response body.
+     * @param offset where it starts.
+     * @param length its length in bytes.
+     * @param charset its encoding.
+     * @return its value.
+     * @throws ParseException if it is not valid json.
+     */
+    default Object parse(final byte[] json, final int offset, final int length, final Charset charset)
+            throws ParseException {
+        return parse(new String(json, offset, length, charset));
+    }
+
+    /**
+     * @param value a Map, Collection, array, String, Number, Boolean or null; nested to any depth.
+     * @return its json.
+     */
+    String serialize(Object value);
+
+    /**
+     * Writes the json of the value as UTF-8, e.g. to a pooled request body.
+     *
+     * @param value as for serialize(Object).
+     * @param out the stream; not closed.
+     * @throws IOException if the stream could not be written.
+     */
+    default void serialize(final Object value, final OutputStream out) throws IOException {
+        out.write(serialize(value).getBytes(StandardCharsets.UTF_8));
+    }
+}
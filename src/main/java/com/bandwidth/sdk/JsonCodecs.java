@@ -0,0 +1,51 @@
+package com.bandwidth.sdk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the JsonCodec every response is parsed with and every request body written with. It is a JacksonJsonCodec,
+ * unless the com.bandwidth.json.codec system property or the BANDWIDTH_JSON_CODEC environment variable is "simple",
+ * which selects the SimpleJsonCodec.
+ */
+public final class JsonCodecs {
+
+    private final static Logger LOG = LoggerFactory.getLogger(JsonCodecs.class);
+
+    private static volatile JsonCodec defaultCodec = create();
+
+    private JsonCodecs() {
+    }
+
+    /**
+     * @return the codec in use.
+     */
+    public static JsonCodec getDefault() {
+        return defaultCodec;
+    }
+
+    /**
+     * @param codec the codec to use from now on, shared by every client.
+     */
+    public static void setDefault(final JsonCodec codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("codec cannot be null");
+        }
+        defaultCodec = codec;
+    }
+
+    private static JsonCodec create() {
+        String name = System.getProperty(BandwidthConstants.BANDWIDTH_SYSPROP_JSON_CODEC);
+        if (name == null) {
+            name = System.getenv().get(BandwidthConstants.BANDWIDTH_JSON_CODEC);
+        }
+        if (name == null || name.isEmpty() || BandwidthConstants.JSON_CODEC_JACKSON.equalsIgnoreCase(name)) {
+            return new JacksonJsonCodec();
+        }
+        if (BandwidthConstants.JSON_CODEC_SIMPLE.equalsIgnoreCase(name)) {
+            return new SimpleJsonCodec();
+        }
+        LOG.warn("Unknown json codec {}, using {}", name, BandwidthConstants.JSON_CODEC_JACKSON);
+        return new JacksonJsonCodec();
+    }
+}
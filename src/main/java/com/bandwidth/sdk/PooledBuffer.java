@@ -0,0 +1,164 @@
+package com.bandwidth.sdk;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A growable byte buffer on arrays of a BufferPool, to be released once. Growing takes a larger array from the pool
+ * and gives the smaller one back. Not thread safe while written; once filled it can be read from several threads.
+ */
+public final class PooledBuffer {
+
+    private final BufferPool pool;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile boolean detached;
+    private byte[] array;
+    private int length;
+
+    PooledBuffer(final BufferPool pool, final byte[] array) {
+        this.pool = pool;
+        this.array = array;
+    }
+
+    /**
+     * @return the backing array; the content is its first length() bytes.
+     */
+    public byte[] array() {
+        checkNotReleased();
+        return array;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int capacity() {
+        return array.length;
+    }
+
+    public void write(final byte[] bytes, final int offset, final int count) {
+        ensureCapacity(length + count);
+        System.arraycopy(bytes, offset, array, length, count);
+        length += count;
+    }
+
+    /**
+     * @return a stream appending to the buffer; closing it does nothing.
+     */
+    public OutputStream newOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(final int b) {
+                ensureCapacity(length + 1);
+                array[length++] = (byte) b;
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int offset, final int count) {
+                PooledBuffer.this.write(bytes, offset, count);
+            }
+        };
+    }
+
+    /**
+     * @return a stream over the content, valid until the buffer is released.
+     */
+    public InputStream newInputStream() {
+        checkNotReleased();
+        return new ByteArrayInputStream(array, 0, length);
+    }
+
+    /**
+     * @param charset the encoding of the content.
+     * @return the content as text.
+     */
+    public String toString(final Charset charset) {
+        checkNotReleased();
+        return new String(array, 0, length, charset);
+    }
+
+    /**
+     * @param bytes what to look for.
+     * @return true if the content contains the bytes.
+     */
+    public boolean contains(final byte[] bytes) {
+        checkNotReleased();
+        outer:
+        for (int i = 0; i <= length - bytes.length; i++) {
+            for (int j = 0; j < bytes.length; j++) {
+                if (array[i + j] != bytes[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    void readFrom(final InputStream in) throws IOException {
+        while (true) {
+            if (length == array.length) {
+                ensureCapacity(length + 1);
+            }
+            final int read = in.read(array, length, array.length - length);
+            if (read == -1) {
+                return;
+            }
+            length += read;
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        checkNotReleased();
+        if (capacity <= array.length) {
+            return;
+        }
+        final byte[] larger = pool.take(Math.max(capacity, array.length * 2));
+        System.arraycopy(array, 0, larger, 0, length);
+        pool.recycle(array);
+        array = larger;
+    }
+
+    /**
+     * Gives the buffer back to its pool. The buffer must not be used afterwards.
+     *
+     * @throws IllegalStateException if it was already released.
+     */
+    public void release() {
+        if (!released.compareAndSet(false, true)) {
+            throw new IllegalStateException("Buffer released twice");
+        }
+        pool.onRelease(this);
+        if (!detached) {
+            pool.recycle(array);
+        }
+    }
+
+    /**
+     * Keeps the array out of the pool when the buffer is released, for when something else may still read it, such
+     * as an exchange that outlives its request; it is left to the garbage collector instead. The buffer stays usable
+     * until released.
+     */
+    public void detach() {
+        detached = true;
+    }
+
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    private void checkNotReleased() {
+        if (released.get()) {
+            throw new IllegalStateException("Buffer already released");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PooledBuffer{length=" + length + ", capacity=" + array.length + ", released=" + released.get() + "}";
+    }
+}
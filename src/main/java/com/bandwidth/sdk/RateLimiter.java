@@ -0,0 +1,258 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.exception.RateLimitExceededException;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that paces the requests a client sends to one resource path, e.g. BandwidthConstants.MESSAGES_URI_PATH,
+ * so that they stay under the per second limits of the account instead of being answered with 429.
+ *
+ * The bucket holds up to burst permits and refills at permitsPerSecond. When it is empty a request either waits for
+ * its permit (Mode.WAIT) or is refused with a RateLimitExceededException (Mode.FAIL_FAST). Waiting blocks the calling
+ * thread in BandwidthClient, and is a non-blocking delay in BandwidthAsyncClient.
+ */
+public class RateLimiter {
+
+    public enum Mode {
+        /**
+         * Wait until a permit is available.
+         */
+        WAIT,
+        /**
+         * Throw a RateLimitExceededException when no permit is available.
+         */
+        FAIL_FAST
+    }
+
+    private final String resourcePath;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final Mode mode;
+    private final double nanosPerPermit;
+
+    private double permits;
+    private long lastRefill;
+
+    private final AtomicLong permitsGranted = new AtomicLong();
+    private final AtomicLong permitsRejected = new AtomicLong();
+    private final AtomicLong delayedRequests = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param resourcePath the resource path this limiter applies to.
+     * @param permitsPerSecond the sustained rate.
+     * @param burst the number of requests that may be sent at once after a quiet period.
+     * @param mode what to do when no permit is available.
+     */
+    public RateLimiter(final String resourcePath, final double permitsPerSecond, final int burst, final Mode mode) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+        }
+        this.resourcePath = resourcePath;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.mode = mode;
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.permits = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a permit, blocking until it is available in Mode.WAIT.
+     *
+     * @throws RateLimitExceededException in Mode.FAIL_FAST when no permit is available.
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedIOException {
+        sleep(take(Long.MAX_VALUE));
+    }
+
+    /**
+     * Takes a permit if it is available within the timeout, blocking until then in Mode.WAIT. A permit that would
+     * come later is not reserved, so the callers behind this one do not wait for it.
+     *
+     * @param timeoutMillis the longest time to wait, e.g. what is left of a Deadline.
+     * @return true if the permit was granted, false if it would have come after the timeout.
+     * @throws RateLimitExceededException in Mode.FAIL_FAST when no permit is available.
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    public boolean tryAcquire(final long timeoutMillis) throws InterruptedIOException {
+        final long wait = take(TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis)));
+        if (wait < 0) {
+            return false;
+        }
+        sleep(wait);
+        return true;
+    }
+
+    private void sleep(final long wait) throws InterruptedIOException {
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (final InterruptedException e) {
+                // the permit was reserved by take(), the callers queued behind it must not wait for it
+                giveBack();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a permit for " + resourcePath);
+            }
+        }
+    }
+
+    /**
+     * Takes a permit without blocking the calling thread.
+     *
+     * @return a future that completes when the permit is available, or fails with a RateLimitExceededException in
+     * Mode.FAIL_FAST.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        final long wait;
+        try {
+            wait = take(Long.MAX_VALUE);
+        } catch (final RateLimitExceededException e) {
+            final CompletableFuture<Void> failed = new CompletableFuture<Void>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        if (wait <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Takes a permit only if one is available now, whatever the mode.
+     *
+     * @return true if the permit was granted.
+     */
+    public boolean tryAcquire() {
+        synchronized (this) {
+            refill();
+            if (permits < 1) {
+                permitsRejected.incrementAndGet();
+                return false;
+            }
+            permits -= 1;
+        }
+        permitsGranted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Reserves the next permit. In Mode.WAIT the bucket may go into debt, which queues later callers behind this one.
+     *
+     * @param timeoutNanos the longest wait to reserve a permit for.
+     * @return the nanoseconds to wait before the permit may be used, or -1 if it was not reserved.
+     */
+    private long take(final long timeoutNanos) {
+        final long wait;
+        synchronized (this) {
+            refill();
+            if (permits >= 1) {
+                wait = 0;
+            } else if (mode == Mode.FAIL_FAST) {
+                permitsRejected.incrementAndGet();
+                throw new RateLimitExceededException(resourcePath, permitsPerSecond);
+            } else {
+                wait = (long) ((1 - permits) * nanosPerPermit);
+                if (wait > timeoutNanos) {
+                    permitsRejected.incrementAndGet();
+                    return -1;
+                }
+            }
+            permits -= 1;
+        }
+        permitsGranted.incrementAndGet();
+        if (wait > 0) {
+            delayedRequests.incrementAndGet();
+            totalWaitNanos.addAndGet(wait);
+            long max;
+            while (wait > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, wait)) {
+                // retry until the larger wait is recorded
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * Returns a permit reserved by take() that will not be used.
+     */
+    private void giveBack() {
+        synchronized (this) {
+            refill();
+            permits = Math.min(burst, permits + 1);
+        }
+        permitsGranted.decrementAndGet();
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        permits = Math.min(burst, permits + (now - lastRefill) / nanosPerPermit);
+        lastRefill = now;
+    }
+
+    public String getResourcePath() {
+        return resourcePath;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the number of permits handed out, including those that had to wait.
+     */
+    public long getPermitsGranted() {
+        return permitsGranted.get();
+    }
+
+    /**
+     * @return the number of requests refused in Mode.FAIL_FAST or by tryAcquire(), with or without a timeout.
+     */
+    public long getPermitsRejected() {
+        return permitsRejected.get();
+    }
+
+    /**
+     * @return the number of requests that had to wait for their permit.
+     */
+    public long getDelayedRequests() {
+        return delayedRequests.get();
+    }
+
+    /**
+     * @return the total time requests spent waiting for a permit, in milliseconds.
+     */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    /**
+     * @return the longest time a request waited for a permit, in milliseconds.
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiter{resourcePath='" + resourcePath + "', permitsPerSecond=" + permitsPerSecond
+                + ", burst=" + burst + ", mode=" + mode + ", granted=" + getPermitsGranted()
+                + ", rejected=" + getPermitsRejected() + ", totalWaitMillis=" + getTotalWaitMillis() + "}";
+    }
+}
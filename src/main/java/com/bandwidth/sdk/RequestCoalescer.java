@@ -0,0 +1,266 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.exception.DeadlineExceededException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collapses identical GET requests that are in flight at the same time into one, for a BandwidthClient. The first
+ * caller (the leader) sends the request; callers that ask for the same uri with the same credentials while it is
+ * outstanding wait for it and get the same RestResponse, or the same I/O error. Once the leader is answered the next
+ * caller sends a new request, so nothing is cached.
+ *
+ * A pooled response is detached from its buffer before it is shared, see RestResponse.detach(), so that no caller
+ * closing it takes the body from the others.
+ *
+ * Failures that belong to the leader alone are not shared: if its request is cancelled, its thread interrupted or its
+ * Deadline passed, the waiters send the request themselves instead. A waiter gives up at its own Deadline, or when its
+ * thread is interrupted, without affecting the leader.
+ *
+ * A GET must not be answered with a state older than a write the caller has seen complete. The client reports its
+ * writes with beginWrite() and endWrite(): both drop the flights of the written resource, of its parents and of its
+ * children, so that a GET sent after the write does not join one sent before it, and while a write is in flight the
+ * GETs of those resources are sent on their own.
+ */
+public class RequestCoalescer {
+
+    /**
+     * A request in flight, with the number of callers waiting for it, or -1 once it no longer takes any.
+     */
+    private static final class Flight extends CompletableFuture<RestResponse> {
+        private final String path;
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        Flight(final String path) {
+            this.path = path;
+        }
+
+        boolean addWaiter() {
+            while (true) {
+                final int count = waiters.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (waiters.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        int seal() {
+            return waiters.getAndSet(-1);
+        }
+    }
+
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<String, Flight>();
+    // the paths of the writes in flight, with their number
+    private final ConcurrentMap<String, Integer> writes = new ConcurrentHashMap<String, Integer>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Sends the request, or waits for an identical one already in flight.
+     *
+     * @param request the GET request.
+     * @param attempt how to send a request.
+     * @return the response.
+     * @throws IOException if the shared request failed with an I/O error, or this caller ran out of time.
+     */
+    public RestResponse execute(final TransportRequest request, final RequestHedger.Attempt attempt)
+            throws IOException {
+        requests.incrementAndGet();
+        final String path = request.getUri().getPath();
+        if (isWritten(path)) {
+            return attempt.execute(request);
+        }
+        final String key = keyOf(request);
+        while (true) {
+            final Flight leader = new Flight(path);
+            final Flight existing = inFlight.putIfAbsent(key, leader);
+            if (existing == null) {
+                return lead(key, leader, request, attempt);
+            }
+            if (!existing.addWaiter()) {
+                // answered just now and leaving the map
+                continue;
+            }
+            final RestResponse response = await(existing, request);
+            if (response != null) {
+                coalesced.incrementAndGet();
+                return response;
+            }
+            // the leader gave up for reasons of its own, send it again
+        }
+    }
+
+    private RestResponse lead(final String key, final Flight result,
+                              final TransportRequest request, final RequestHedger.Attempt attempt)
+            throws IOException {
+        RestResponse response = null;
+        Throwable failure = null;
+        try {
+            response = attempt.execute(request);
+            return response;
+        } catch (final IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            // leave the map first, callers arriving from now on must not get a response that is already old
+            inFlight.remove(key, result);
+            final int waiters = result.seal();
+            if (failure == null) {
+                if (waiters > 0 && response != null) {
+                    response.detach();
+                }
+                result.complete(response);
+            } else if (isShared(request, failure)) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Reports a POST, PUT or DELETE about to be sent. Until endWrite(), GETs of the resource it writes, of its parents
+     * and of its children are not coalesced.
+     *
+     * @param request the request.
+     */
+    public void beginWrite(final TransportRequest request) {
+        final String path = request.getUri().getPath();
+        writes.merge(path, 1, Integer::sum);
+        forget(path);
+    }
+
+    /**
+     * Reports the end of a write reported with beginWrite(), whatever its outcome.
+     *
+     * @param request the request.
+     */
+    public void endWrite(final TransportRequest request) {
+        final String path = request.getUri().getPath();
+        writes.computeIfPresent(path, (written, count) -> count == 1 ? null : count - 1);
+        // a GET that joined a flight from now on would miss the write
+        forget(path);
+    }
+
+    private boolean isWritten(final String path) {
+        if (writes.isEmpty()) {
+            return false;
+        }
+        for (final String written : writes.keySet()) {
+            if (isRelated(path, written)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void forget(final String written) {
+        for (final Map.Entry<String, Flight> flight : inFlight.entrySet()) {
+            if (isRelated(flight.getValue().path, written)) {
+                // the callers already waiting keep it, the others send a new request
+                inFlight.remove(flight.getKey(), flight.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return true if one path is the other, or one of its parents.
+     */
+    private static boolean isRelated(final String path, final String other) {
+        if (path.length() == other.length()) {
+            return path.equals(other);
+        }
+        final String shorter = path.length() < other.length() ? path : other;
+        final String longer = shorter == path ? other : path;
+        return longer.startsWith(shorter) && (shorter.endsWith("/") || longer.charAt(shorter.length()) == '/');
+    }
+
+    /**
+     * @return the response of the leader, or null if the waiter must send the request itself.
+     */
+    private static RestResponse await(final CompletableFuture<RestResponse> leader, final TransportRequest request)
+            throws IOException {
+        final Deadline deadline = request.getDeadline();
+        try {
+            if (deadline == null) {
+                return leader.get();
+            }
+            return leader.get(Math.max(0, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            throw new DeadlineExceededException(request.toString(), null);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * @return false for failures of the leader that say nothing about the request: cancellation, interruption and
+     * its own deadline. A socket timeout is shared, the waiters would run into it too.
+     */
+    private static boolean isShared(final TransportRequest request, final Throwable failure) {
+        if (request.isCancelled() || failure instanceof DeadlineExceededException) {
+            return false;
+        }
+        return !(failure instanceof InterruptedIOException) || failure instanceof SocketTimeoutException;
+    }
+
+    private static String keyOf(final TransportRequest request) {
+        // the credentials are part of the key, a response is only shared with callers allowed to see it
+        return request.getUri() + " " + request.getHeaders().get("Authorization");
+    }
+
+    /**
+     * @return the number of GET requests seen.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of GET requests answered with the response of an identical request already in flight.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the number of distinct requests in flight.
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RequestCoalescer{requests=" + getRequests() + ", coalesced=" + getCoalesced() + ", inFlight="
+                + getInFlight() + "}";
+    }
+}
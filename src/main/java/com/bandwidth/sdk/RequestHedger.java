@@ -0,0 +1,265 @@
+package com.bandwidth.sdk;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends hedged GET requests for a BandwidthClient, following a HedgePolicy.
+ *
+ * The original request runs on the calling thread. If it is still unanswered after the hedge delay, and the budget
+ * allows it, a duplicate is sent from a pooled thread. Whichever gets an answer (a status below 500) first wins; the
+ * other is cancelled through TransportRequest.cancel(). If neither is answered, the outcome of the original request
+ * is returned. Once the original request is over, the hedge is waited for only until the deadline of the request, or
+ * for the connect and socket timeouts of one attempt when it has none.
+ *
+ * The hedge delay follows a percentile of the latencies seen. An original request that loses to its hedge counts
+ * too, with the time it ran until cancelled, which is less than its actual latency; leaving it out would skew the
+ * percentile towards the fast requests and hedge more and more.
+ */
+public class RequestHedger implements Closeable {
+
+    /**
+     * One way of sending a request, normally BandwidthClient.executeWithRetries().
+     */
+    public interface Attempt {
+        RestResponse execute(TransportRequest request) throws IOException;
+    }
+
+    private static final int PENDING = 0;
+    private static final int HEDGED = 1;
+    private static final int DONE = 2;
+
+    private static final int SAMPLES = 1024;
+    private static final int REFRESH_EVERY = 16;
+
+    private final HedgePolicy policy;
+    private final RetryBudget budget;
+    private final ExecutorService executor;
+
+    private final long[] latencies = new long[SAMPLES];
+    private int samples;
+    private int next;
+    private int sinceRefresh;
+    private long delayNanos;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+
+    public RequestHedger(final HedgePolicy policy) {
+        this.policy = policy;
+        this.budget = new RetryBudget(policy.getBudgetRatio(), policy.getBudgetMinHedges());
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(policy.getInitialDelayMillis());
+        this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "bandwidth-hedge-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Sends the request, and a hedge if it is slow.
+     *
+     * @param primary the request.
+     * @param attempt how to send a request.
+     * @return the winning response.
+     * @throws IOException if neither request was answered and the original failed with an I/O error.
+     */
+    public RestResponse execute(final TransportRequest primary, final Attempt attempt) throws IOException {
+        requests.incrementAndGet();
+        budget.deposit();
+
+        final TransportRequest hedge = primary.copy();
+        final AtomicInteger race = new AtomicInteger(PENDING);
+        final CompletableFuture<RestResponse> hedgeResult = new CompletableFuture<RestResponse>();
+
+        CompletableFuture.delayedExecutor(getDelayNanos(), TimeUnit.NANOSECONDS, executor).execute(() -> {
+            if (!race.compareAndSet(PENDING, HEDGED)) {
+                return;
+            }
+            if (!budget.tryWithdraw()) {
+                budgetExhausted.incrementAndGet();
+                hedgeResult.cancel(false);
+                return;
+            }
+            hedgesSent.incrementAndGet();
+            final long start = System.nanoTime();
+            try {
+                final RestResponse response = attempt.execute(hedge);
+                if (isAnswer(response)) {
+                    record(System.nanoTime() - start);
+                    primary.cancel();
+                }
+                hedgeResult.complete(response);
+            } catch (final Throwable e) {
+                hedgeResult.completeExceptionally(e);
+            }
+        });
+
+        final long start = System.nanoTime();
+        RestResponse response = null;
+        IOException failure = null;
+        try {
+            response = attempt.execute(primary);
+        } catch (final IOException e) {
+            failure = e;
+        } catch (final RuntimeException e) {
+            if (race.compareAndSet(PENDING, DONE)) {
+                throw e;
+            }
+            hedge.cancel();
+            // the hedge may have answered already, or answer before it sees the cancel
+            hedgeResult.thenAccept(IOUtils::closeQuietly);
+            throw e;
+        }
+
+        final boolean hedged = !race.compareAndSet(PENDING, DONE);
+        if (primary.isCancelled()) {
+            // lost to the hedge, its latency is at least that
+            record(System.nanoTime() - start);
+        } else if (isAnswer(response)) {
+            record(System.nanoTime() - start);
+            hedge.cancel();
+            // a hedge answered anyway is not returned
+            hedgeResult.thenAccept(IOUtils::closeQuietly);
+            return response;
+        }
+
+        if (hedged) {
+            try {
+                final RestResponse hedgeResponse = hedgeResult.get(hedgeWaitMillis(primary), TimeUnit.MILLISECONDS);
+                if (isAnswer(hedgeResponse)) {
+                    hedgesWon.incrementAndGet();
+                    IOUtils.closeQuietly(response);
+                    return hedgeResponse;
+                }
+                IOUtils.closeQuietly(hedgeResponse);
+            } catch (final InterruptedException e) {
+                hedge.cancel();
+                hedgeResult.thenAccept(IOUtils::closeQuietly);
+                IOUtils.closeQuietly(response);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for hedged request " + hedge);
+            } catch (final TimeoutException e) {
+                // the hedge is stuck: give up on it and fall back to the original outcome
+                hedge.cancel();
+                hedgeResult.thenAccept(IOUtils::closeQuietly);
+            } catch (final CancellationException | ExecutionException e) {
+                // no hedge was sent, or it failed: fall back to the original outcome
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        return response;
+    }
+
+    /**
+     * @param request the original request.
+     * @return how long to wait for the hedge once the original request is over: what is left before the deadline,
+     * else the connect and socket timeouts of one attempt, else without limit.
+     */
+    private static long hedgeWaitMillis(final TransportRequest request) {
+        final Deadline deadline = request.getDeadline();
+        if (deadline != null) {
+            return Math.max(0, deadline.remainingMillis());
+        }
+        if (request.getSocketTimeoutMillis() > 0) {
+            return (long) Math.max(0, request.getConnectTimeoutMillis()) + request.getSocketTimeoutMillis();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static boolean isAnswer(final RestResponse response) {
+        return response != null && response.getStatus() < 500;
+    }
+
+    private synchronized long getDelayNanos() {
+        return delayNanos;
+    }
+
+    private synchronized void record(final long latencyNanos) {
+        latencies[next] = latencyNanos;
+        next = (next + 1) % SAMPLES;
+        samples = Math.min(samples + 1, SAMPLES);
+        if (samples >= policy.getMinSamples() && ++sinceRefresh >= Math.min(REFRESH_EVERY, policy.getMinSamples())) {
+            sinceRefresh = 0;
+            final long[] sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+            final long percentile = sorted[(int) Math.ceil(samples * policy.getPercentile()) - 1];
+            delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(policy.getMinDelayMillis()),
+                    Math.min(TimeUnit.MILLISECONDS.toNanos(policy.getMaxDelayMillis()), percentile));
+        }
+    }
+
+    public HedgePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return the current delay before a hedge is sent, in milliseconds.
+     */
+    public long getDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(getDelayNanos());
+    }
+
+    /**
+     * @return the number of GET requests seen.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of duplicate requests sent.
+     */
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    /**
+     * @return the number of GET requests answered by their duplicate.
+     */
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /**
+     * @return the number of hedges not sent because the budget was spent.
+     */
+    public long getBudgetExhausted() {
+        return budgetExhausted.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "RequestHedger{delayMillis=" + getDelayMillis() + ", requests=" + getRequests() + ", hedgesSent="
+                + getHedgesSent() + ", hedgesWon=" + getHedgesWon() + ", budgetExhausted=" + getBudgetExhausted() + "}";
+    }
+}
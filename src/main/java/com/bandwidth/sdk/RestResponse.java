@@ -3,29 +3,54 @@
  */
 package com.bandwidth.sdk;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
-import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
+ * A streamed response, see createStreamingResponse(), holds its connection until its content is read to the end or
+ * it is closed. A pooled response, see createRestResponse(int, InputStream, Map, BufferPool), holds its body in a
+ * PooledBuffer until it is closed, after which getResponseText() can no longer be called unless it was before.
+ *
  * @author smitchell
  * 
  */
-public class RestResponse {
+public class RestResponse implements Closeable {
     
 	protected String responseText;
 	protected boolean error;
 	protected String contentType;
 	protected String location;
 	protected int status;
+	protected String retryAfter;
 	
 	protected String firstLink;
 	protected String lastLink;
 	protected String nextLink;
 	protected String previousLink;
+
+	protected InputStream content;
+	protected Charset charset;
+	protected PooledBuffer body;
+	protected boolean released;
+
+	private final static Logger LOG = LoggerFactory.getLogger(RestResponse.class);
+
+	private static final byte[] ACCESS_DENIED = "access-denied".getBytes(StandardCharsets.US_ASCII);
 	
 	public RestResponse() {
 		
@@ -37,43 +62,190 @@ public class RestResponse {
 		this.status = status;
 	}
 	
-	public static RestResponse createRestResponse(final HttpResponse httpResponse) {
+	/**
+	 * @param httpResponse the response.
+	 * @return the response, with its body read as text.
+	 * @throws IOException if the body could not be read or decoded, e.g. a truncated gzip stream or a reset connection.
+	 */
+	public static RestResponse createRestResponse(final HttpResponse httpResponse) throws IOException {
+		final Map<String, List<String>> headers = headersOf(httpResponse);
+		String responseText = "";
+		final HttpEntity entity = httpResponse.getEntity();
+		if (entity != null) {
+			final Header contentEncoding = httpResponse.getFirstHeader("Content-Encoding");
+			final Header contentType = entity.getContentType();
+			responseText = ContentDecoder.readText(entity.getContent(),
+					contentEncoding == null ? null : contentEncoding.getValue(),
+					contentType == null ? null : contentType.getValue());
+		}
+		return createRestResponse(httpResponse.getStatusLine().getStatusCode(), responseText, headers);
+	}
+
+	/**
+	 * @param httpResponse the response.
+	 * @param pool the pool to read the body into, or null to read it as text.
+	 * @return the response, to be closed if pooled.
+	 * @throws IOException if the body could not be read into the pool.
+	 */
+	public static RestResponse createRestResponse(final HttpResponse httpResponse, final BufferPool pool)
+			throws IOException {
+		if (pool == null) {
+			return createRestResponse(httpResponse);
+		}
+		final HttpEntity entity = httpResponse.getEntity();
+		return createRestResponse(httpResponse.getStatusLine().getStatusCode(),
+				entity == null ? null : entity.getContent(), headersOf(httpResponse), pool);
+	}
+
+	/**
+	 * Streaming variant of createRestResponse(HttpResponse): the body is left on the connection.
+	 *
+	 * @param httpResponse the response.
+	 * @return the response, which must be closed.
+	 * @throws IOException if the body could not be opened.
+	 */
+	public static RestResponse createStreamingResponse(final HttpResponse httpResponse) throws IOException {
+		final HttpEntity entity = httpResponse.getEntity();
+		return createStreamingResponse(httpResponse.getStatusLine().getStatusCode(),
+				entity == null ? null : entity.getContent(), headersOf(httpResponse));
+	}
+
+	/**
+	 * Transport neutral factory for a response whose body is not read up front: getContent() returns it, decoded, as
+	 * it comes off the connection, so large pages can be parsed without first being copied into a String.
+	 * getResponseText() still works, and reads the rest of the body.
+	 *
+	 * @param status the HTTP status.
+	 * @param content the response body as received, or null if there is none.
+	 * @param headers the response headers.
+	 * @return the response, which must be closed.
+	 * @throws IOException if the Content-Encoding is not supported.
+	 */
+	public static RestResponse createStreamingResponse(final int status, final InputStream content,
+													   final Map<String, List<String>> headers) throws IOException {
+		final RestResponse restResponse = new RestResponse();
+		restResponse.setStatus(status);
+		restResponse.setError(status >= 400);
+		final Map<String, List<String>> byName = applyHeaders(restResponse, headers);
+		if (content == null) {
+			restResponse.setResponseText("{}");
+			return restResponse;
+		}
+		final List<String> contentEncoding = headerValues(byName, "Content-Encoding");
+		restResponse.content = ContentDecoder.decode(content, contentEncoding.isEmpty() ? null : contentEncoding.get(0));
+		restResponse.charset = ContentDecoder.charsetOf(restResponse.contentType);
+		return restResponse;
+	}
+
+	/**
+	 * Transport neutral factory for a response whose body is read into a buffer of the pool rather than a String.
+	 * getResponseText() decodes it when called; the json parsers of the sdk read it in place, see
+	 * Utils.response2JSON(). The buffer goes back to the pool when the response is closed. An empty body takes no
+	 * buffer and reads as "{}".
+	 *
+	 * @param status the HTTP status.
+	 * @param content the response body as received, or null if there is none; closed.
+	 * @param headers the response headers.
+	 * @param pool the pool.
+	 * @return the response, to be closed.
+	 * @throws IOException if the body could not be read or decoded.
+	 */
+	public static RestResponse createRestResponse(final int status, final InputStream content,
+												  final Map<String, List<String>> headers, final BufferPool pool)
+			throws IOException {
+		final RestResponse restResponse = new RestResponse();
+		restResponse.setStatus(status);
+		final Map<String, List<String>> byName = applyHeaders(restResponse, headers);
+		PooledBuffer body = null;
+		if (content != null) {
+			try {
+				final List<String> contentEncoding = headerValues(byName, "Content-Encoding");
+				body = pool.read(ContentDecoder.decode(content,
+						contentEncoding.isEmpty() ? null : contentEncoding.get(0)));
+			} finally {
+				content.close();
+			}
+		}
+		if (body == null || body.length() == 0) {
+			if (body != null) {
+				body.release();
+			}
+			restResponse.setResponseText("{}");
+			restResponse.setError(status >= 400);
+			return restResponse;
+		}
+		restResponse.body = body;
+		restResponse.charset = ContentDecoder.charsetOf(restResponse.contentType);
+		restResponse.setError(status >= 400 || body.contains(ACCESS_DENIED));
+		return restResponse;
+	}
+
+	/**
+	 * Transport neutral factory, used by every Transport implementation to build the RestResponse from the
+	 * status, body and headers of an HTTP response. Header names are matched case-insensitively.
+	 *
+	 * @param status the HTTP status.
+	 * @param responseText the response body.
+	 * @param headers the response headers.
+	 * @return the response.
+	 */
+	public static RestResponse createRestResponse(final int status, String responseText,
+												  final Map<String, List<String>> headers) {
 		
 		final RestResponse restResponse = new RestResponse();
-		try {
-			restResponse.setStatus(httpResponse.getStatusLine().getStatusCode());
-	        final HttpEntity entity = httpResponse.getEntity();
-	        String responseText = "";
-	        if (entity != null) {
-	            responseText = EntityUtils.toString(entity);
-	        }
-	        if (responseText.length() == 0) {
-	            responseText = "{}";
-	        }
-	        
-	        // TODO There are several more error conditions that should be handled. 
-	        if (responseText.contains("access-denied")) {
-	            restResponse.setError(true);
-	        } else if (restResponse.getStatus() >= 400) {
-	            restResponse.setError(true);
-	        }
-	        
-	        restResponse.setResponseText(responseText);
-	        for  (final Header header : httpResponse.getHeaders("Content-Type")) {
-	        	restResponse.setContentType(header.getValue());
-	        }
-	        for (final Header header : httpResponse.getHeaders("Location")) {
-	            restResponse.setLocation(header.getValue());
-	        }
-	        for (final Header header : httpResponse.getHeaders("Link")) {	        	
-	        	restResponse.parseLinkHeader(header.getValue());
-	        }
-		}	
-        catch (final IOException e) {
-        	e.printStackTrace();
+		restResponse.setStatus(status);
+        if (responseText == null || responseText.length() == 0) {
+            responseText = "{}";
         }
+        
+        // TODO There are several more error conditions that should be handled. 
+        if (responseText.contains("access-denied")) {
+            restResponse.setError(true);
+        } else if (restResponse.getStatus() >= 400) {
+            restResponse.setError(true);
+        }
+        
+        restResponse.setResponseText(responseText);
+        applyHeaders(restResponse, headers);
 		return restResponse;
 	}
+
+	private static Map<String, List<String>> headersOf(final HttpResponse httpResponse) {
+		final Map<String, List<String>> headers = new HashMap<String, List<String>>();
+		for (final Header header : httpResponse.getAllHeaders()) {
+			List<String> values = headers.get(header.getName());
+			if (values == null) {
+				values = new ArrayList<String>();
+				headers.put(header.getName(), values);
+			}
+			values.add(header.getValue());
+		}
+		return headers;
+	}
+
+	private static Map<String, List<String>> applyHeaders(final RestResponse restResponse,
+														  final Map<String, List<String>> headers) {
+        final Map<String, List<String>> byName = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        byName.putAll(headers);
+        for (final String value : headerValues(byName, "Content-Type")) {
+        	restResponse.setContentType(value);
+        }
+        for (final String value : headerValues(byName, "Location")) {
+            restResponse.setLocation(value);
+        }
+        for (final String value : headerValues(byName, "Link")) {
+        	restResponse.parseLinkHeader(value);
+        }
+        for (final String value : headerValues(byName, "Retry-After")) {
+        	restResponse.setRetryAfter(value);
+        }
+		return byName;
+	}
+
+	private static List<String> headerValues(final Map<String, List<String>> headers, final String name) {
+		final List<String> values = headers.get(name);
+		return values == null ? Collections.<String>emptyList() : values;
+	}
 	
 	/**
 	 * This parses out the Link for the first, next and prev. Link header looks like this:
@@ -125,10 +297,93 @@ public class RestResponse {
 		return status;
 	}
 
+	/**
+	 * @return the body; for a streamed response, what is left of it is read first.
+	 * @throws IllegalStateException if the response is pooled and was closed before its text was read.
+	 */
 	public String getResponseText() {
+		if (responseText == null && body != null) {
+			responseText = body.toString(charset);
+		} else if (responseText == null && released) {
+			throw new IllegalStateException("The body of the response was released by close()");
+		}
+		if (content != null) {
+			final InputStream body = content;
+			content = null;
+			try {
+				responseText = ContentDecoder.readText(body, null, contentType);
+			} catch (final IOException e) {
+				LOG.error("Failed to read the rest of the response body", e);
+				error = true;
+				responseText = "";
+			}
+			if (responseText.length() == 0) {
+				responseText = "{}";
+			}
+		}
 		return responseText;
 	}
 
+	/**
+	 * @return the body of a pooled response, valid until the response is closed, or null.
+	 */
+	public PooledBuffer getBody() {
+		return body;
+	}
+
+	/**
+	 * Reads the body of a pooled response as text and gives its buffer back, so that the response no longer needs
+	 * closing and can be handed to several callers. Does nothing for other responses.
+	 */
+	public void detach() {
+		final PooledBuffer buffer = body;
+		if (buffer != null) {
+			getResponseText();
+			body = null;
+			buffer.release();
+		}
+	}
+
+	/**
+	 * @return true if the body is still on the connection, to be read with getContent().
+	 */
+	public boolean isStreamed() {
+		return content != null;
+	}
+
+	/**
+	 * @return the decoded body of a streamed response, to be read once, or null if it was read as text.
+	 */
+	public InputStream getContent() {
+		return content;
+	}
+
+	/**
+	 * @return the charset of the content of a streamed response, from the Content-Type; UTF-8 if absent.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Releases the connection of a streamed response, discarding what is left of the body, or gives the buffer of a
+	 * pooled response back to its pool. Does nothing for a response read as text, or when called again.
+	 */
+	@Override
+	public void close() throws IOException {
+		final PooledBuffer buffer = body;
+		if (buffer != null) {
+			body = null;
+			released = true;
+			buffer.release();
+		}
+		final InputStream stream = content;
+		if (stream != null) {
+			content = null;
+			stream.close();
+		}
+	}
+
 	public boolean isError() {
 		return error;
 	}
@@ -165,6 +420,17 @@ public class RestResponse {
 		this.status = status;
 	}
 	
+	/**
+	 * @return the Retry-After header sent with a 429 or 503, in seconds or as an HTTP date, or null.
+	 */
+	public String getRetryAfter() {
+		return retryAfter;
+	}
+
+	public void setRetryAfter(final String retryAfter) {
+		this.retryAfter = retryAfter;
+	}
+
 	public String getFirstLink() {
 		return firstLink;
 	}
@@ -0,0 +1,63 @@
+package com.bandwidth.sdk;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per client limit on retries, so that a Catapult outage does not turn every request into maxAttempts requests.
+ *
+ * Each request earns ratio of a retry and each retry spends a whole one. The balance starts at, and is capped by,
+ * minRetries, which allows a short burst of retries while keeping the sustained retry rate to ratio of the request rate.
+ * Balances are kept in thousandths of a retry so the accounting is a lock free compare and set.
+ *
+ * The RequestHedger uses the same accounting for its hedge budget.
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    public RetryBudget(final double ratio, final int minRetries) {
+        this.deposit = (long) (ratio * SCALE);
+        this.capacity = Math.max(minRetries, 1) * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * Records a new request, earning ratio of a retry.
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    /**
+     * Spends one retry if the balance allows it.
+     *
+     * @return true if the retry may be made.
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * @return the number of retries currently available.
+     */
+    public double getAvailable() {
+        return (double) balance.get() / SCALE;
+    }
+}
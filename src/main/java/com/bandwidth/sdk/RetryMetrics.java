@@ -0,0 +1,85 @@
+package com.bandwidth.sdk;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters kept by a BandwidthClient for its RetryPolicy, e.g. to export to a metrics system.
+ */
+public class RetryMetrics {
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retriedAfterStatus = new AtomicLong();
+    private final AtomicLong retriedAfterIOException = new AtomicLong();
+    private final AtomicLong attemptsExhausted = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+
+    void recordRequest() {
+        requests.incrementAndGet();
+    }
+
+    void recordRetry(final boolean afterIOException) {
+        retries.incrementAndGet();
+        if (afterIOException) {
+            retriedAfterIOException.incrementAndGet();
+        } else {
+            retriedAfterStatus.incrementAndGet();
+        }
+    }
+
+    void recordAttemptsExhausted() {
+        attemptsExhausted.incrementAndGet();
+    }
+
+    void recordBudgetExhausted() {
+        budgetExhausted.incrementAndGet();
+    }
+
+    /**
+     * @return the number of requests made, not counting retries.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of retries made.
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * @return the number of retries made after a retryable status such as 429 or 503.
+     */
+    public long getRetriedAfterStatus() {
+        return retriedAfterStatus.get();
+    }
+
+    /**
+     * @return the number of retries made after an I/O error.
+     */
+    public long getRetriedAfterIOException() {
+        return retriedAfterIOException.get();
+    }
+
+    /**
+     * @return the number of requests that still failed after maxAttempts.
+     */
+    public long getAttemptsExhausted() {
+        return attemptsExhausted.get();
+    }
+
+    /**
+     * @return the number of retries refused because the RetryBudget was spent.
+     */
+    public long getBudgetExhausted() {
+        return budgetExhausted.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryMetrics{requests=" + getRequests() + ", retries=" + getRetries()
+                + ", attemptsExhausted=" + getAttemptsExhausted() + ", budgetExhausted=" + getBudgetExhausted() + "}";
+    }
+}
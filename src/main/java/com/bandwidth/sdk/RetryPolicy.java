@@ -0,0 +1,216 @@
+package com.bandwidth.sdk;
+
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.utils.DateUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed request is sent again by the BandwidthClient, and how long to wait before doing so.
+ *
+ * Retryable statuses are configured per HTTP method. By default GET, PUT and DELETE, which are idempotent, are
+ * retried on 429, 500, 502, 503 and 504 and on I/O errors. POST only on 429 and 503, where Catapult has refused the
+ * request without acting on it, so a retry cannot create a second call or message.
+ *
+ * The delay is exponential backoff with full jitter, capped at maxDelayMillis. A Retry-After header on the response
+ * takes precedence, up to maxRetryAfterMillis. Retries are also limited per client by a RetryBudget.
+ * <br>Example:<br>
+ * <code>client.setRetryPolicy(RetryPolicy.builder().maxAttempts(5).baseDelayMillis(200).build());</code>
+ */
+public class RetryPolicy {
+
+    /**
+     * Retries disabled, every request is sent once.
+     */
+    public static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    /**
+     * The policy BandwidthClient starts with.
+     */
+    public static final RetryPolicy DEFAULT = builder().build();
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long maxRetryAfterMillis;
+    private final Map<String, Set<Integer>> retryableStatuses;
+    private final Set<String> retryOnIOException;
+    private final double budgetRatio;
+    private final int budgetMinRetries;
+
+    private RetryPolicy(final Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.maxRetryAfterMillis = builder.maxRetryAfterMillis;
+        this.retryableStatuses = Collections.unmodifiableMap(new HashMap<String, Set<Integer>>(builder.retryableStatuses));
+        this.retryOnIOException = Collections.unmodifiableSet(new HashSet<String>(builder.retryOnIOException));
+        this.budgetRatio = builder.budgetRatio;
+        this.budgetMinRetries = builder.budgetMinRetries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public int getBudgetMinRetries() {
+        return budgetMinRetries;
+    }
+
+    /**
+     * @param method the HTTP method.
+     * @param status the response status.
+     * @return true if a request with this method may be sent again after this status.
+     */
+    public boolean isRetryable(final String method, final int status) {
+        final Set<Integer> statuses = retryableStatuses.get(method.toUpperCase());
+        return statuses != null && statuses.contains(status);
+    }
+
+    /**
+     * @param method the HTTP method.
+     * @return true if a request with this method may be sent again after an I/O error, when it is unknown whether the
+     * server acted on it.
+     */
+    public boolean isRetryableOnIOException(final String method) {
+        return retryOnIOException.contains(method.toUpperCase());
+    }
+
+    /**
+     * Computes how long to wait before the given retry.
+     *
+     * @param retry the retry number, 1 for the first retry.
+     * @param retryAfter the Retry-After header of the failed response, or null.
+     * @return the delay in milliseconds.
+     */
+    public long delayMillis(final int retry, final String retryAfter) {
+        final long fromHeader = parseRetryAfter(retryAfter);
+        if (fromHeader >= 0) {
+            return Math.min(fromHeader, maxRetryAfterMillis);
+        }
+        final long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry - 1, 30));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Parses a Retry-After value, given either in seconds or as an HTTP date.
+     *
+     * @param retryAfter the header value.
+     * @return the delay in milliseconds, or -1 if absent or unparseable.
+     */
+    static long parseRetryAfter(final String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+        } catch (final NumberFormatException e) {
+            final Date date = DateUtils.parseDate(retryAfter.trim());
+            return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    public static class Builder {
+        private int maxAttempts = 3;
+        private long baseDelayMillis = 100;
+        private long maxDelayMillis = 5000;
+        private long maxRetryAfterMillis = 30000;
+        private final Map<String, Set<Integer>> retryableStatuses = new HashMap<String, Set<Integer>>();
+        private final Set<String> retryOnIOException = new HashSet<String>();
+        private double budgetRatio = 0.2;
+        private int budgetMinRetries = 10;
+
+        private Builder() {
+            final Integer[] transientStatuses = {429, 500, 502, 503, 504};
+            retryableStatuses(HttpGet.METHOD_NAME, transientStatuses);
+            retryableStatuses(HttpPut.METHOD_NAME, transientStatuses);
+            retryableStatuses(HttpDelete.METHOD_NAME, transientStatuses);
+            retryableStatuses(HttpPost.METHOD_NAME, 429, 503);
+            retryOnIOException.addAll(Arrays.asList(HttpGet.METHOD_NAME, HttpPut.METHOD_NAME, HttpDelete.METHOD_NAME));
+        }
+
+        /**
+         * @param maxAttempts total attempts per request, including the first one.
+         * @return the builder
+         */
+        public Builder maxAttempts(final int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder baseDelayMillis(final long baseDelayMillis) {
+            this.baseDelayMillis = baseDelayMillis;
+            return this;
+        }
+
+        public Builder maxDelayMillis(final long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        public Builder maxRetryAfterMillis(final long maxRetryAfterMillis) {
+            this.maxRetryAfterMillis = maxRetryAfterMillis;
+            return this;
+        }
+
+        /**
+         * Replaces the retryable statuses for a method. No statuses disables status based retries for it.
+         *
+         * @param method the HTTP method.
+         * @param statuses the statuses.
+         * @return the builder
+         */
+        public Builder retryableStatuses(final String method, final Integer... statuses) {
+            retryableStatuses.put(method.toUpperCase(), new HashSet<Integer>(Arrays.asList(statuses)));
+            return this;
+        }
+
+        public Builder retryOnIOException(final String method, final boolean retry) {
+            if (retry) {
+                retryOnIOException.add(method.toUpperCase());
+            } else {
+                retryOnIOException.remove(method.toUpperCase());
+            }
+            return this;
+        }
+
+        /**
+         * Sizes the per client RetryBudget: each request earns budgetRatio of a retry, and minRetries can always be
+         * spent, so a client never retries more than about minRetries + ratio * requests.
+         *
+         * @param ratio the retries earned per request.
+         * @param minRetries the retries available before any request is made.
+         * @return the builder
+         */
+        public Builder budget(final double ratio, final int minRetries) {
+            this.budgetRatio = ratio;
+            this.budgetMinRetries = minRetries;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
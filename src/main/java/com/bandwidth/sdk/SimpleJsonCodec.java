@@ -0,0 +1,31 @@
+package com.bandwidth.sdk;
+
+import org.json.simple.JSONValue;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The json-simple codec the sdk used before JacksonJsonCodec, kept for applications that depend on its exact output.
+ * Select it with JsonCodecs.setDefault(new SimpleJsonCodec()) or -Dcom.bandwidth.json.codec=simple.
+ */
+public class SimpleJsonCodec implements JsonCodec {
+
+    @Override
+    public Object parse(final String json) throws ParseException {
+        // a JSONParser keeps state between calls, so it cannot be shared between threads
+        return new JSONParser().parse(json);
+    }
+
+    @Override
+    public Object parse(final Reader json) throws IOException, ParseException {
+        return new JSONParser().parse(json);
+    }
+
+    @Override
+    public String serialize(final Object value) {
+        return JSONValue.toJSONString(value);
+    }
+}
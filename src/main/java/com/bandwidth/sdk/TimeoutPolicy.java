@@ -0,0 +1,110 @@
+package com.bandwidth.sdk;
+
+/**
+ * Client wide timeouts of the BandwidthClient. Every attempt is bounded by:
+ * <ul>
+ * <li>connectTimeoutMillis, to open a connection to Catapult,</li>
+ * <li>socketTimeoutMillis, of inactivity while waiting for the response,</li>
+ * <li>connectionRequestTimeoutMillis, to lease a connection from the pool when every connection is in use.</li>
+ * </ul>
+ * A timeout is an IOException, so idempotent requests are retried as after any I/O error.
+ *
+ * deadlineMillis bounds a whole operation, retries and the waits between them included. It is off by default;
+ * a Deadline started around a call, e.g. call.hangUp(), takes precedence. 0 disables a timeout.
+ * <br>Example:<br>
+ * <code>client.setTimeoutPolicy(TimeoutPolicy.builder().socketTimeoutMillis(5000).deadlineMillis(10000).build());</code>
+ */
+public class TimeoutPolicy {
+
+    /**
+     * The policy BandwidthClient starts with.
+     */
+    public static final TimeoutPolicy DEFAULT = builder().build();
+
+    private final int connectTimeoutMillis;
+    private final int socketTimeoutMillis;
+    private final int connectionRequestTimeoutMillis;
+    private final long deadlineMillis;
+
+    private TimeoutPolicy(final Builder builder) {
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.socketTimeoutMillis = builder.socketTimeoutMillis;
+        this.connectionRequestTimeoutMillis = builder.connectionRequestTimeoutMillis;
+        this.deadlineMillis = builder.deadlineMillis;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    public int getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeoutPolicy{connectTimeoutMillis=" + connectTimeoutMillis + ", socketTimeoutMillis="
+                + socketTimeoutMillis + ", connectionRequestTimeoutMillis=" + connectionRequestTimeoutMillis
+                + ", deadlineMillis=" + deadlineMillis + "}";
+    }
+
+    public static class Builder {
+        private int connectTimeoutMillis = 10000;
+        private int socketTimeoutMillis = 30000;
+        private int connectionRequestTimeoutMillis = 10000;
+        private long deadlineMillis;
+
+        private Builder() {
+        }
+
+        public Builder connectTimeoutMillis(final int connectTimeoutMillis) {
+            this.connectTimeoutMillis = checkTimeout(connectTimeoutMillis);
+            return this;
+        }
+
+        public Builder socketTimeoutMillis(final int socketTimeoutMillis) {
+            this.socketTimeoutMillis = checkTimeout(socketTimeoutMillis);
+            return this;
+        }
+
+        public Builder connectionRequestTimeoutMillis(final int connectionRequestTimeoutMillis) {
+            this.connectionRequestTimeoutMillis = checkTimeout(connectionRequestTimeoutMillis);
+            return this;
+        }
+
+        /**
+         * @param deadlineMillis the time allowed to each operation, retries included, 0 for no limit.
+         * @return the builder
+         */
+        public Builder deadlineMillis(final long deadlineMillis) {
+            if (deadlineMillis < 0) {
+                throw new IllegalArgumentException("deadlineMillis must not be negative");
+            }
+            this.deadlineMillis = deadlineMillis;
+            return this;
+        }
+
+        private static int checkTimeout(final int millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("timeouts must not be negative");
+            }
+            return millis;
+        }
+
+        public TimeoutPolicy build() {
+            return new TimeoutPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bandwidth.sdk;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * SPI for the HTTP layer underneath the BandwidthClient. The client builds a TransportRequest (path, params,
+ * credentials and payload) and the transport executes it on its own HTTP engine and connection management.
+ *
+ * Two implementations ship with the sdk: ApacheTransport, the pooled HTTP/1.1 default, and Http2Transport, which
+ * multiplexes every request over a few HTTP/2 connections. Implementations must be thread safe.
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Executes the request and returns the response. Error statuses are returned, not thrown; it is up to the
+     * client to decide what to do with them. For a request marked streaming, a successful response may leave its body
+     * on the connection, see RestResponse.createStreamingResponse().
+     *
+     * @param request the request.
+     * @return the response.
+     * @throws IOException if the exchange could not complete.
+     */
+    RestResponse execute(TransportRequest request) throws IOException;
+
+    /**
+     * Executes the request and streams the response body to the destination file.
+     *
+     * @param request the request.
+     * @param destFile the destination file.
+     * @throws IOException if the exchange could not complete or the server returned an error status.
+     */
+    void download(TransportRequest request, File destFile) throws IOException;
+
+    /**
+     * Opens connections to the endpoint ahead of the first requests, so they do not pay DNS, TCP and TLS setup.
+     * Transports without a connection pool do nothing.
+     *
+     * @param endpoint the API endpoint, e.g. https://api.catapult.inetwork.com
+     * @param connections the number of connections to open.
+     * @return the number of connections actually opened.
+     * @throws IOException if a connection could not be opened.
+     */
+    default int warmUp(final URI endpoint, final int connections) throws IOException {
+        return 0;
+    }
+
+    /**
+     * Keeps at least minConnections open to the endpoint through idle periods, replacing those closed by the server.
+     * Transports without a connection pool do nothing.
+     *
+     * @param endpoint the API endpoint.
+     * @param minConnections the number of connections to keep, 0 to stop.
+     */
+    default void keepWarm(final URI endpoint, final int minConnections) {
+    }
+
+    /**
+     * Releases the connections and threads held by the transport.
+     */
+    @Override
+    void close();
+}
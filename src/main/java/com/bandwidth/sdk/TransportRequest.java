@@ -0,0 +1,301 @@
+package com.bandwidth.sdk;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport neutral description of a request to the server. The BandwidthClient builds these and hands them to its
+ * Transport, which converts them to whatever its HTTP engine expects.
+ *
+ * The body is either a string or a pooled buffer (json payloads) or a file (media uploads), never two of them. A
+ * pooled body belongs to the request, whoever sends it releases it with releaseBody() once the request is over.
+ *
+ * A request can be cancelled from another thread, e.g. when a hedged duplicate has already been answered. The
+ * Transport registers how to abort its exchange with onCancel().
+ */
+public class TransportRequest {
+
+    private final String method;
+    private volatile URI uri;
+    private final Map<String, String> headers = new LinkedHashMap<String, String>();
+
+    private String body;
+    private PooledBuffer bodyBuffer;
+    private File file;
+    private String contentType;
+
+    private volatile Deadline deadline;
+    private int connectTimeoutMillis;
+    private int socketTimeoutMillis;
+    private int connectionRequestTimeoutMillis;
+    private boolean timeoutsSet;
+    private boolean streaming;
+    private BufferPool bufferPool;
+
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private volatile Runnable cancelHandler;
+
+    public TransportRequest(final String method, final URI uri) {
+        this.method = method;
+        this.uri = uri;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Points the request at another uri before an attempt, e.g. the same resource on another API endpoint.
+     *
+     * @param uri the uri.
+     */
+    public void setUri(final URI uri) {
+        this.uri = uri;
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    public void setHeader(final String name, final String value) {
+        headers.put(name, value);
+    }
+
+    /**
+     * @return the string payload, or a pooled one decoded as UTF-8, or null.
+     */
+    public String getBody() {
+        if (body == null && bodyBuffer != null) {
+            return bodyBuffer.toString(StandardCharsets.UTF_8);
+        }
+        return body;
+    }
+
+    /**
+     * Sets a string payload, encoded as UTF-8 on the wire.
+     *
+     * @param body the payload.
+     * @param contentType the content type.
+     */
+    public void setBody(final String body, final String contentType) {
+        releaseBody();
+        this.body = body;
+        this.file = null;
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return the pooled payload, or null.
+     */
+    public PooledBuffer getBodyBuffer() {
+        return bodyBuffer;
+    }
+
+    /**
+     * Sets a payload already encoded as UTF-8 in a pooled buffer, which the request then owns.
+     *
+     * @param body the payload.
+     * @param contentType the content type.
+     */
+    public void setBody(final PooledBuffer body, final String contentType) {
+        releaseBody();
+        this.bodyBuffer = body;
+        this.body = null;
+        this.file = null;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Gives a pooled payload back to its pool, once no attempt of the request can read it anymore. Does nothing
+     * otherwise, or when called again.
+     */
+    public void releaseBody() {
+        final PooledBuffer buffer = bodyBuffer;
+        if (buffer != null) {
+            bodyBuffer = null;
+            if (!buffer.isReleased()) {
+                buffer.release();
+            }
+        }
+    }
+
+    /**
+     * Marks a pooled payload as possibly still read by an exchange given up on, so that releaseBody() leaves it to
+     * the garbage collector rather than giving it back to the pool. It can still be sent again.
+     */
+    public void detachBody() {
+        final PooledBuffer buffer = bodyBuffer;
+        if (buffer != null) {
+            buffer.detach();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Sets a file payload, streamed from disk.
+     *
+     * @param file the file.
+     * @param contentType the content type, or null to let the transport pick a default.
+     */
+    public void setFile(final File file, final String contentType) {
+        releaseBody();
+        this.file = file;
+        this.body = null;
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean hasBody() {
+        return body != null || bodyBuffer != null || file != null;
+    }
+
+    /**
+     * @return the deadline of the operation, or null.
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(final Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    public int getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+
+    /**
+     * @return true once setTimeouts() was called; until then the transport applies its own defaults.
+     */
+    public boolean hasTimeouts() {
+        return timeoutsSet;
+    }
+
+    /**
+     * Sets the timeouts of the next attempt, which the transport applies on its HTTP engine. 0 means no timeout.
+     *
+     * @param connectTimeoutMillis to open a connection.
+     * @param socketTimeoutMillis of inactivity while waiting for the response.
+     * @param connectionRequestTimeoutMillis to lease a pooled connection.
+     */
+    public void setTimeouts(final int connectTimeoutMillis, final int socketTimeoutMillis,
+                            final int connectionRequestTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+        this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+        this.timeoutsSet = true;
+    }
+
+    /**
+     * @return true if the body of a successful response is to be left on the connection, see
+     * RestResponse.createStreamingResponse(). Transports that cannot stream read it as text.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(final boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * @return the pool the transport reads the response body into, see RestResponse.createRestResponse(int,
+     * InputStream, Map, BufferPool), or null to read it as text.
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    public void setBufferPool(final BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * @return a request with the same method, uri, headers, body, deadline and timeouts, which can be sent and
+     * cancelled independently. A pooled body is shared, and still released through this request.
+     */
+    public TransportRequest copy() {
+        final TransportRequest copy = new TransportRequest(method, uri);
+        copy.headers.putAll(headers);
+        copy.body = body;
+        copy.bodyBuffer = bodyBuffer;
+        copy.file = file;
+        copy.contentType = contentType;
+        copy.deadline = deadline;
+        copy.connectTimeoutMillis = connectTimeoutMillis;
+        copy.socketTimeoutMillis = socketTimeoutMillis;
+        copy.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+        copy.timeoutsSet = timeoutsSet;
+        copy.streaming = streaming;
+        copy.bufferPool = bufferPool;
+        return copy;
+    }
+
+    /**
+     * Cancels the request: the exchange in progress, if any, is aborted and the client will not retry it.
+     */
+    public void cancel() {
+        cancelled.countDown();
+        final Runnable handler = cancelHandler;
+        if (handler != null) {
+            handler.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    /**
+     * Registers how the transport aborts the exchange in progress. Runs the handler at once if the request is
+     * already cancelled.
+     *
+     * @param handler aborts the exchange.
+     */
+    public void onCancel(final Runnable handler) {
+        this.cancelHandler = handler;
+        if (isCancelled()) {
+            handler.run();
+        }
+    }
+
+    /**
+     * Waits, e.g. before a retry, unless the request is cancelled meanwhile.
+     *
+     * @param millis the time to wait.
+     * @return true if the request was cancelled.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean awaitCancel(final long millis) throws InterruptedException {
+        return cancelled.await(millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + uri;
+    }
+}
@@ -2,23 +2,24 @@ package com.bandwidth.sdk;
 
 import java.io.IOException;
 
+import org.apache.commons.io.IOUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
 
 
 public class Utils {
 
 	public static JSONArray response2JSONArray(final RestResponse response) throws IOException {
-		if (response != null && response.isJson() && response.getResponseText() != null) {
+		if (response != null && response.isJson() && (response.getBody() != null || response.getResponseText() != null)) {
 			try {
-			    final Object parsedContent = new JSONParser().parse(response.getResponseText());
+			    final Object parsedContent = response2JSON(response);
 				if(parsedContent instanceof JSONObject) {
 				    final JSONArray jsonArray = new JSONArray();
 				    jsonArray.add(parsedContent);
 				    return jsonArray;
 				} else {
-				    return (JSONArray) new JSONParser().parse(response.getResponseText());
+				    return (JSONArray) parsedContent;
 				}
 			} 
 			catch (final org.json.simple.parser.ParseException e) {
@@ -29,4 +30,24 @@ public class Utils {
 			throw new IOException("Response is not a JSON format.");
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Parses the body of the response with the default JsonCodec, in place if it is pooled, then closes the
+	 * response, which gives a pooled body back.
+	 *
+	 * @param response the response.
+	 * @return the parsed value.
+	 * @throws ParseException if the body is not valid json.
+	 */
+	public static Object response2JSON(final RestResponse response) throws ParseException {
+		try {
+			final PooledBuffer body = response.getBody();
+			if (body != null) {
+				return JsonCodecs.getDefault().parse(body.array(), 0, body.length(), response.getCharset());
+			}
+			return JsonCodecs.getDefault().parse(response.getResponseText());
+		} finally {
+			IOUtils.closeQuietly(response);
+		}
+	}
+}
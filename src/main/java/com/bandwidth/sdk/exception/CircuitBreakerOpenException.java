@@ -0,0 +1,23 @@
+package com.bandwidth.sdk.exception;
+
+/**
+ * Thrown instead of sending a request when the circuit breaker of its resource route is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 2712265394116482037L;
+
+    private final String route;
+
+    public CircuitBreakerOpenException(final String route) {
+        super("Circuit breaker open for " + route + ", request not sent");
+        this.route = route;
+    }
+
+    /**
+     * @return the resource route, e.g. calls.
+     */
+    public String getRoute() {
+        return route;
+    }
+}
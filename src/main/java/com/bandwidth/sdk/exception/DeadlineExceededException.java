@@ -0,0 +1,23 @@
+package com.bandwidth.sdk.exception;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown when a request could not complete before its Deadline, retries included. An InterruptedIOException, like
+ * the socket timeouts it usually follows, so it reaches the callers that handle I/O errors.
+ */
+public class DeadlineExceededException extends InterruptedIOException {
+
+    private static final long serialVersionUID = -6034412829011358275L;
+
+    /**
+     * @param request the method and uri of the request.
+     * @param cause the failure of the last attempt, or null if no attempt could be made.
+     */
+    public DeadlineExceededException(final String request, final Throwable cause) {
+        super("Deadline exceeded for " + request);
+        if (cause != null) {
+            initCause(cause);
+        }
+    }
+}
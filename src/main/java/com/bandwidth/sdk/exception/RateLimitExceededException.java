@@ -0,0 +1,23 @@
+package com.bandwidth.sdk.exception;
+
+/**
+ * Thrown by a fail-fast RateLimiter when a request would exceed the configured rate for its resource path.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = -3059142707447226511L;
+
+    private final String resourcePath;
+
+    public RateLimitExceededException(final String resourcePath, final double permitsPerSecond) {
+        super("Rate limit of " + permitsPerSecond + " requests per second exceeded for " + resourcePath);
+        this.resourcePath = resourcePath;
+    }
+
+    /**
+     * @return the resource path of the limiter, e.g. BandwidthConstants.MESSAGES_URI_PATH.
+     */
+    public String getResourcePath() {
+        return resourcePath;
+    }
+}
@@ -1,6 +1,7 @@
 package com.bandwidth.sdk.model;
 
 import com.bandwidth.sdk.AppPlatformException;
+import com.bandwidth.sdk.BandwidthAsyncClient;
 import com.bandwidth.sdk.BandwidthConstants;
 import com.bandwidth.sdk.BandwidthClient;
 import com.bandwidth.sdk.RestResponse;
@@ -11,6 +12,7 @@ import org.json.simple.JSONObject;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Information about a specific bridge
@@ -136,10 +138,60 @@ public class Bridge extends ResourceBase {
         assert (client!= null && params != null);
     	final String bridgesUri =  client.getUserResourceUri(BandwidthConstants.BRIDGES_URI_PATH);
     	final RestResponse response = client.post(bridgesUri, params);
+    	if (client.isLazyCreateEnabled()) {
+    		return createLazily(client, response.getLocation(), Bridge::new);
+    	}
     	final JSONObject callObj = toJSONObject(client.get(response.getLocation(), null));
     	final Bridge bridge = new Bridge(client, callObj);
     	return bridge;
 	}
+
+    /**
+     * Non-blocking variant of get(), returns a future Bridge given an id
+     * @param id the bridge id
+     * @return the future Bridge
+     */
+    public static CompletableFuture<Bridge> getAsync(final String id) {
+        return getAsync(BandwidthAsyncClient.getInstance(), id);
+    }
+
+    /**
+     * Non-blocking variant of get(), returns a future Bridge given an async client and an id
+     * @param client the async client
+     * @param id the bridge id
+     * @return the future Bridge
+     */
+    public static CompletableFuture<Bridge> getAsync(final BandwidthAsyncClient client, final String id) {
+        assert(client != null);
+        final String bridgesUri = client.getClient().getUserResourceInstanceUri(BandwidthConstants.BRIDGES_URI_PATH, id);
+
+        return client.get(bridgesUri, null)
+                .thenApply(response -> new Bridge(client.getClient(), toJSONObjectUnchecked(response)));
+    }
+
+    /**
+     * Non-blocking factory method to create a Bridge object from a params map
+     * @param params the params
+     * @return the future Bridge
+     */
+    public static CompletableFuture<Bridge> createAsync(final Map<String, Object> params) {
+        return createAsync(BandwidthAsyncClient.getInstance(), params);
+    }
+
+    /**
+     * Non-blocking factory method to create a Bridge object from a params map
+     * @param client the async client
+     * @param params the params
+     * @return the future Bridge
+     */
+    public static CompletableFuture<Bridge> createAsync(final BandwidthAsyncClient client, final Map<String, Object> params) {
+        assert (client != null && params != null);
+        final String bridgesUri = client.getClient().getUserResourceUri(BandwidthConstants.BRIDGES_URI_PATH);
+
+        return client.post(bridgesUri, params)
+                .thenCompose(response -> client.get(response.getLocation(), null))
+                .thenApply(response -> new Bridge(client.getClient(), toJSONObjectUnchecked(response)));
+    }
     
     
     /**
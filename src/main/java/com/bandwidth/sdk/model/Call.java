@@ -1,6 +1,7 @@
 package com.bandwidth.sdk.model;
 
 import com.bandwidth.sdk.AppPlatformException;
+import com.bandwidth.sdk.BandwidthAsyncClient;
 import com.bandwidth.sdk.BandwidthConstants;
 import com.bandwidth.sdk.BandwidthClient;
 import com.bandwidth.sdk.RestResponse;
@@ -12,6 +13,7 @@ import org.json.simple.JSONObject;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Information about call.
@@ -155,6 +157,9 @@ public class Call extends ResourceBase {
     	assert (client != null && params != null);
         final String callUri = client.getUserResourceUri(BandwidthConstants.CALLS_URI_PATH);
     	final RestResponse response = client.post(callUri, params);
+        if (client.isLazyCreateEnabled()) {
+            return createLazily(client, response.getLocation(), Call::new);
+        }
 
         // success here, otherwise an exception is generated
     	final String callId = response.getLocation().substring(client.getPath(callUri).length() + 1);
@@ -162,6 +167,54 @@ public class Call extends ResourceBase {
         return get(client, callId);
     }
 
+    /**
+     * Non-blocking factory method for Call, returns information about an active or completed call.
+     *
+     * @param callId call id
+     * @return the future call
+     */
+    public static CompletableFuture<Call> getAsync(final String callId) {
+        return getAsync(BandwidthAsyncClient.getInstance(), callId);
+    }
+
+    /**
+     * Non-blocking factory method for Call, returns a Call object given an id
+     * @param client the async client
+     * @param callId the call id
+     * @return the future call
+     */
+    public static CompletableFuture<Call> getAsync(final BandwidthAsyncClient client, final String callId) {
+        final String callsUri = client.getClient().getUserResourceInstanceUri(BandwidthConstants.CALLS_URI_PATH, callId);
+
+        return client.get(callsUri, null)
+                .thenApply(response -> new Call(client.getClient(), toJSONObjectUnchecked(response)));
+    }
+
+    /**
+     * Non-blocking variant of create(), dials a call from a phone number to a phone number.
+     * @param params the call params
+     * @return the future call
+     */
+    public static CompletableFuture<Call> createAsync(final Map<String, Object> params) {
+        return createAsync(BandwidthAsyncClient.getInstance(), params);
+    }
+
+    /**
+     * Non-blocking variant of create(), dials a call from a phone number to a phone number.
+     * @param client the async client
+     * @param params the call params
+     * @return the future call
+     */
+    public static CompletableFuture<Call> createAsync(final BandwidthAsyncClient client, final Map<String, Object> params) {
+        assert (client != null && params != null);
+        final String callUri = client.getClient().getUserResourceUri(BandwidthConstants.CALLS_URI_PATH);
+
+        return client.post(callUri, params).thenCompose(response -> {
+            final String callId = response.getLocation().substring(client.getClient().getPath(callUri).length() + 1);
+            return getAsync(client, callId);
+        });
+    }
+
     public Call(final BandwidthClient client, final JSONObject jsonObject) {
         super(client, jsonObject);
     }
@@ -363,9 +416,7 @@ public class Call extends ResourceBase {
 
         final String uri = getUri();
         client.post(uri, params);
-
-        final JSONObject jsonObject = toJSONObject(client.get(uri, null));
-        updateProperties(jsonObject);
+        refresh(uri);
     }
 
     /**
@@ -379,9 +430,7 @@ public class Call extends ResourceBase {
 
         final String uri = getUri();
         client.post(uri, params);
-
-        final JSONObject jsonObject = toJSONObject(client.get(uri, null));
-        updateProperties(jsonObject);
+        refresh(uri);
     }
 
     /**
@@ -395,9 +444,7 @@ public class Call extends ResourceBase {
 
         final String uri = getUri();
         client.post(uri, params);
-
-        final JSONObject jsonObject = toJSONObject(client.get(uri, null));
-        updateProperties(jsonObject);
+        refresh(uri);
     }
 
     /**
@@ -411,9 +458,7 @@ public class Call extends ResourceBase {
 
         final String uri = getUri();
         client.post(uri, params);
-
-        final JSONObject jsonObject = toJSONObject(client.get(uri, null));
-        updateProperties(jsonObject);
+        refresh(uri);
     }
 
     /**
@@ -427,9 +472,7 @@ public class Call extends ResourceBase {
 
         final String uri = getUri();
         client.post(uri, params);
-
-        final JSONObject jsonObject = toJSONObject(client.get(uri, null));
-        updateProperties(jsonObject);
+        refresh(uri);
     }
 
     /**
@@ -542,9 +585,7 @@ public class Call extends ResourceBase {
 
         final String uri = getUri();
         client.post(uri, params);
-
-        final JSONObject jsonObject = toJSONObject(client.get(uri, null));
-        updateProperties(jsonObject);
+        refresh(uri);
     }
 
     @Override
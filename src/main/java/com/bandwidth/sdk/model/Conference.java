@@ -1,6 +1,7 @@
 package com.bandwidth.sdk.model;
 
 import com.bandwidth.sdk.AppPlatformException;
+import com.bandwidth.sdk.BandwidthAsyncClient;
 import com.bandwidth.sdk.BandwidthConstants;
 import com.bandwidth.sdk.BandwidthClient;
 import com.bandwidth.sdk.RestResponse;
@@ -10,6 +11,7 @@ import org.json.simple.JSONObject;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Information about conference.
@@ -70,12 +72,63 @@ public class Conference extends ResourceBase {
     public static Conference createConference(final BandwidthClient client, final Map<String, Object> params) throws Exception {
         final String conferencesUri = client.getUserResourceUri(BandwidthConstants.CONFERENCES_URI_PATH);
         final RestResponse response = client.post(conferencesUri, params);
+        if (client.isLazyCreateEnabled()) {
+            return createLazily(client, response.getLocation(), Conference::new);
+        }
 
         final String id = response.getLocation().substring(client.getPath(conferencesUri).length() + 1);
 
         return getConference(client, id);
     }
 
+    /**
+     * Non-blocking variant of getConference(), retrieves the conference information.
+     *
+     * @param id the conference id.
+     * @return the future conference.
+     */
+    public static CompletableFuture<Conference> getConferenceAsync(final String id) {
+        return getConferenceAsync(BandwidthAsyncClient.getInstance(), id);
+    }
+
+    /**
+     * Non-blocking variant of getConference(), retrieves the conference information.
+     *
+     * @param client the async client
+     * @param id the conference id.
+     * @return the future conference.
+     */
+    public static CompletableFuture<Conference> getConferenceAsync(final BandwidthAsyncClient client, final String id) {
+        final String conferenceUri = client.getClient().getUserResourceInstanceUri(BandwidthConstants.CONFERENCES_URI_PATH, id);
+
+        return client.get(conferenceUri, null)
+                .thenApply(response -> new Conference(client.getClient(), toJSONObjectUnchecked(response)));
+    }
+
+    /**
+     * Non-blocking factory method to create a conference given a set of params
+     * @param params the params
+     * @return the future conference
+     */
+    public static CompletableFuture<Conference> createConferenceAsync(final Map<String, Object> params) {
+        return createConferenceAsync(BandwidthAsyncClient.getInstance(), params);
+    }
+
+    /**
+     * Non-blocking factory method to create a conference given a set of params and an async client
+     * @param client the async client.
+     * @param params the params
+     * @return the future conference
+     */
+    public static CompletableFuture<Conference> createConferenceAsync(final BandwidthAsyncClient client, final Map<String, Object> params) {
+        final String conferencesUri = client.getClient().getUserResourceUri(BandwidthConstants.CONFERENCES_URI_PATH);
+
+        return client.post(conferencesUri, params).thenCompose(response -> {
+            final String id = response.getLocation().substring(client.getClient().getPath(conferencesUri).length() + 1);
+            return getConferenceAsync(client, id);
+        });
+    }
+
 
     public Conference(final BandwidthClient client, final JSONObject jsonObject) {
         super(client, jsonObject);
@@ -135,9 +188,7 @@ public class Conference extends ResourceBase {
 
         final String uri = getUri();
         client.post(uri, params);
-
-        final JSONObject jsonObject = toJSONObject(client.get(uri, null));
-        updateProperties(jsonObject);
+        refresh(uri);
     }
 
     /**
@@ -151,9 +202,7 @@ public class Conference extends ResourceBase {
 
         final String uri = getUri();
         client.post(uri, params);
-
-        final JSONObject jsonObject = toJSONObject(client.get(uri, null));
-        updateProperties(jsonObject);
+        refresh(uri);
     }
 
     /**
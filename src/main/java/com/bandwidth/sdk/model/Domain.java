@@ -4,9 +4,9 @@ import com.bandwidth.sdk.AppPlatformException;
 import com.bandwidth.sdk.BandwidthClient;
 import com.bandwidth.sdk.BandwidthConstants;
 import com.bandwidth.sdk.RestResponse;
+import com.bandwidth.sdk.Utils;
 import org.apache.commons.lang3.StringUtils;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 import java.io.IOException;
@@ -30,7 +30,7 @@ public class Domain extends ResourceBase {
     }  
     
     public static JSONObject toJSONObject(final RestResponse response) throws ParseException {
-        return (JSONObject) new JSONParser().parse(response.getResponseText());
+        return (JSONObject) Utils.response2JSON(response);
     }
     
     /**
@@ -91,6 +91,9 @@ public class Domain extends ResourceBase {
         assert (client!= null && params != null);
         final String domainsUri =  client.getUserResourceUri(BandwidthConstants.DOMAINS_URI_PATH);
         final RestResponse response = client.post(domainsUri, params);
+        if (client.isLazyCreateEnabled()) {
+            return createLazily(client, response.getLocation(), Domain::new);
+        }
         final JSONObject callObj = toJSONObject(client.get(response.getLocation(), null));
         return new Domain(client, callObj);
     }
@@ -9,9 +9,9 @@ import com.bandwidth.sdk.AppPlatformException;
 import com.bandwidth.sdk.BandwidthClient;
 import com.bandwidth.sdk.BandwidthConstants;
 import com.bandwidth.sdk.RestResponse;
+import com.bandwidth.sdk.Utils;
 
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 import java.io.IOException;
@@ -35,7 +35,7 @@ public class Endpoint extends ResourceBase {
     }  
     
     public static JSONObject toJSONObject(final RestResponse response) throws ParseException {
-        return (JSONObject) new JSONParser().parse(response.getResponseText());
+        return (JSONObject) Utils.response2JSON(response);
     }
     
     /**
@@ -239,6 +239,9 @@ public class Endpoint extends ResourceBase {
         assert (client!= null && params != null);
         final String endpointsUri = String.format(client.getUserResourceUri(BandwidthConstants.ENDPOINTS_URI_PATH), domainId);
         final RestResponse response = client.post(endpointsUri, params);
+        if (client.isLazyCreateEnabled()) {
+            return createLazily(client, response.getLocation(), Endpoint::new);
+        }
         final JSONObject callObj = toJSONObject(client.get(response.getLocation(), null));
         return new Endpoint(client, callObj);
     }
@@ -1,5 +1,6 @@
 package com.bandwidth.sdk.model;
 
+import com.bandwidth.sdk.BandwidthAsyncClient;
 import com.bandwidth.sdk.BandwidthClient;
 import com.bandwidth.sdk.BandwidthConstants;
 import com.bandwidth.sdk.RestResponse;
@@ -9,6 +10,7 @@ import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Information about message.
@@ -198,10 +200,76 @@ public class Message extends ResourceBase {
     public static Message create(final BandwidthClient client, final Map<String, Object> params) throws Exception {
         final String messageUri = client.getUserResourceUri(BandwidthConstants.MESSAGES_URI_PATH);
         final RestResponse response = client.post(messageUri, params);
+        if (client.isLazyCreateEnabled()) {
+            return createLazily(client, response.getLocation(), Message::new);
+        }
     	final String messageId = response.getLocation().substring(client.getPath(messageUri).length() + 1);
 
         return get(client, messageId);
     }
+
+    /**
+     * Non-blocking variant of get(), gets information about a previously sent or received message.
+     *
+     * @param id message id
+     * @return the future message
+     */
+    public static CompletableFuture<Message> getAsync(final String id) {
+        return getAsync(BandwidthAsyncClient.getInstance(), id);
+    }
+
+    /**
+     * Non-blocking variant of get(), gets information about a previously sent or received message.
+     * @param client the async client.
+     * @param id message id
+     * @return the future message
+     */
+    public static CompletableFuture<Message> getAsync(final BandwidthAsyncClient client, final String id) {
+        final String messagesUri = client.getClient().getUserResourceInstanceUri(BandwidthConstants.MESSAGES_URI_PATH, id);
+
+        return client.get(messagesUri, null)
+                .thenApply(response -> new Message(client.getClient(), toJSONObjectUnchecked(response)));
+    }
+
+    /**
+     * Non-blocking convenience factory method to send a message, given the to number, the from number and the text
+     * @param to the to number
+     * @param from the from number
+     * @param text the text
+     * @return the future message
+     */
+    public static CompletableFuture<Message> createAsync(final String to, final String from, final String text) {
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("to", to);
+        params.put("from", from);
+        params.put("text", text);
+
+        return createAsync(params);
+    }
+
+    /**
+     * Non-blocking factory method to send a message, given a set of params
+     * @param params the params
+     * @return the future message
+     */
+    public static CompletableFuture<Message> createAsync(final Map<String, Object> params) {
+        return createAsync(BandwidthAsyncClient.getInstance(), params);
+    }
+
+    /**
+     * Non-blocking factory method to send a message from a params object, given an async client instance
+     * @param client the async client
+     * @param params the params
+     * @return the future message
+     */
+    public static CompletableFuture<Message> createAsync(final BandwidthAsyncClient client, final Map<String, Object> params) {
+        final String messageUri = client.getClient().getUserResourceUri(BandwidthConstants.MESSAGES_URI_PATH);
+
+        return client.post(messageUri, params).thenCompose(response -> {
+            final String messageId = response.getLocation().substring(client.getClient().getPath(messageUri).length() + 1);
+            return getAsync(client, messageId);
+        });
+    }
 	
 
     public Message(final BandwidthClient client, final JSONObject jsonObject) {
@@ -21,6 +21,13 @@ public abstract class ModelBase {
 
     protected final Map<String, Object> properties = new HashMap<String, Object>();
 
+    /**
+     * Called before the properties are read or written. Does nothing here; ResourceBase reads a lazily created
+     * resource on first access.
+     */
+    protected void ensureLoaded() {
+    }
+
     protected void updateProperties(final JSONObject jsonObject) {
         if (jsonObject != null) {
             for (final Object key : jsonObject.keySet()) {
@@ -30,10 +37,12 @@ public abstract class ModelBase {
     }
 
     protected String getPropertyAsString(final String key) {
+        ensureLoaded();
         return (String) properties.get(key);
     }
 
     protected String[] getPropertyAsStringArray(final String key) {
+        ensureLoaded();
         if (properties.containsKey(key)) {
             @SuppressWarnings("unchecked")
             final
@@ -51,10 +60,12 @@ public abstract class ModelBase {
     }
 
     protected Object getProperty(final String key) {
+        ensureLoaded();
         return properties.get(key);
     }
 
     protected Boolean getPropertyAsBoolean(final String key) {
+        ensureLoaded();
         final Object o = properties.get(key);
         if (o == null) return null;
 
@@ -62,15 +73,18 @@ public abstract class ModelBase {
     }
 
     protected Long getPropertyAsLong(final String key) {
+        ensureLoaded();
         return (Long) properties.get(key);
     }
 
     protected Double getPropertyAsDouble(final String key) {
+        ensureLoaded();
         final Object o = properties.get(key);
         return (o instanceof Double) ? (Double) o : Double.parseDouble(o.toString());
     }
 
     protected Date getPropertyAsDate(final String key) {
+        ensureLoaded();
         final Object o = properties.get(key);
         if (o == null) return null;
         if (o instanceof Long) return new Date((Long) o);
@@ -83,10 +97,12 @@ public abstract class ModelBase {
     }
 
     protected void putProperty(final String key, final Object value) {
+        ensureLoaded();
         properties.put(key, value);
     }
 
     protected Map<String, Object> toMap() {
+        ensureLoaded();
         final Map<String, Object> map = new HashMap<String, Object>();
 
         for (final String key : properties.keySet()) {
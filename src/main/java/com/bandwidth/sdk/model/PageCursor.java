@@ -0,0 +1,173 @@
+package com.bandwidth.sdk.model;
+
+import com.bandwidth.sdk.JsonCodecs;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Position of a traversal of a ResourceList, as given by PageIterator.getCursor(): the page being read, by number and
+ * by the link it was read from, how many of its elements were consumed, and how many in all. ResourceList.resume()
+ * builds a list positioned at the same element, so that a traversal that died part way can carry on where it
+ * stopped rather than start again from the first page.
+ *
+ * A cursor is immutable and Serializable; writeTo() and readFrom() keep it in a small json file, which a PageIterator
+ * does on its own with checkpointEvery().
+ */
+public final class PageCursor implements Serializable {
+
+    private static final long serialVersionUID = 4197352184561930522L;
+
+    private final String resourceUri;
+    private final int size;
+    private final int page;
+    private final String pageLink;
+    private final int offset;
+    private final long consumed;
+    private final boolean finished;
+
+    /**
+     * @param resourceUri the uri of the list.
+     * @param size the page size.
+     * @param page the number of the page being read.
+     * @param pageLink the link the page was read from, or null if it was read by number.
+     * @param offset the number of elements of the page consumed.
+     * @param consumed the number of elements consumed in all.
+     * @param finished true once the last element has been consumed.
+     */
+    public PageCursor(final String resourceUri, final int size, final int page, final String pageLink,
+            final int offset, final long consumed, final boolean finished) {
+        if (resourceUri == null) {
+            throw new IllegalArgumentException("resourceUri cannot be null");
+        }
+        this.resourceUri = resourceUri;
+        this.size = size;
+        this.page = page;
+        this.pageLink = pageLink;
+        this.offset = offset;
+        this.consumed = consumed;
+        this.finished = finished;
+    }
+
+    public String getResourceUri() {
+        return resourceUri;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public String getPageLink() {
+        return pageLink;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public long getConsumed() {
+        return consumed;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @SuppressWarnings("unchecked")
+    public JSONObject toJSONObject() {
+        final JSONObject jsonObject = new JSONObject();
+        jsonObject.put("resourceUri", resourceUri);
+        jsonObject.put("size", size);
+        jsonObject.put("page", page);
+        jsonObject.put("pageLink", pageLink);
+        jsonObject.put("offset", offset);
+        jsonObject.put("consumed", consumed);
+        jsonObject.put("finished", finished);
+        return jsonObject;
+    }
+
+    public static PageCursor fromJSONObject(final JSONObject jsonObject) {
+        return new PageCursor((String) jsonObject.get("resourceUri"),
+                ((Number) jsonObject.get("size")).intValue(),
+                ((Number) jsonObject.get("page")).intValue(),
+                (String) jsonObject.get("pageLink"),
+                ((Number) jsonObject.get("offset")).intValue(),
+                ((Number) jsonObject.get("consumed")).longValue(),
+                Boolean.TRUE.equals(jsonObject.get("finished")));
+    }
+
+    /**
+     * Writes the cursor to a file, replacing it in one step, so that a crash while writing leaves the previous
+     * checkpoint in place.
+     *
+     * @param file the file.
+     * @throws IOException if the file could not be written.
+     */
+    public void writeTo(final File file) throws IOException {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        final File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            Files.write(temp.toPath(), JsonCodecs.getDefault().serialize(toJSONObject()).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * @param file a file written by writeTo().
+     * @return the cursor, or null if the file does not exist.
+     * @throws IOException if the file could not be read or holds no cursor.
+     */
+    public static PageCursor readFrom(final File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            final Object json = JsonCodecs.getDefault().parse(reader);
+            if (!(json instanceof JSONObject)) {
+                throw new IOException("No cursor in " + file);
+            }
+            return fromJSONObject((JSONObject) json);
+        } catch (final ParseException | ClassCastException | NullPointerException e) {
+            throw new IOException("No cursor in " + file, e);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageCursor)) {
+            return false;
+        }
+        final PageCursor other = (PageCursor) o;
+        return size == other.size && page == other.page && offset == other.offset && consumed == other.consumed
+                && finished == other.finished && resourceUri.equals(other.resourceUri)
+                && (pageLink == null ? other.pageLink == null : pageLink.equals(other.pageLink));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * resourceUri.hashCode() + page) + (int) consumed;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{resourceUri=" + resourceUri + ", size=" + size + ", page=" + page + ", pageLink="
+                + pageLink + ", offset=" + offset + ", consumed=" + consumed + ", finished=" + finished + "}";
+    }
+}
@@ -0,0 +1,221 @@
+package com.bandwidth.sdk.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Iterator over the rest of a ResourceList, from its current element to the end of its last page, that holds a
+ * single page at a time, or two with prefetching. It is what ResourceList.asStream() and asIterable() are built on.
+ *
+ * Unlike the iterator of the list itself, it leaves the list as it is, and requests the next page only from hasNext()
+ * once the current one is used up, so a caller that stops at the end of a page, like Stream.limit() or anyMatch() do,
+ * does not read the page after it. A page that cannot be read is thrown from hasNext() as a RuntimeException, with the
+ * error of the API or the connection as its cause. With a prefetch depth on the list, the pages the list has already
+ * requested ahead are taken from it rather than requested again; past those, the page after the current one is
+ * requested as soon as the current one is loaded, only one ahead, so that memory stays bounded.
+ *
+ * getCursor() gives the position of the iterator, from which ResourceList.resume() carries on later; with
+ * checkpointEvery() it is written to a file as the iterator goes, for long traversals to survive a restart.
+ * <br>Example:<br>
+ * <code>
+ * final PageCursor cursor = PageCursor.readFrom(file);<br>
+ * final ResourceList&lt;Message&gt; messages = cursor == null ? Message.list(client, 0, 1000)<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;: ResourceList.resume(client, cursor, Message.class);<br>
+ * try (PageIterator&lt;Message&gt; it = messages.pageIterator().checkpointEvery(1000, file)) {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;while (it.hasNext()) { export(it.next()); }<br>
+ * }
+ * </code>
+ *
+ * @param <E> the resource type.
+ */
+public class PageIterator<E> implements Iterator<E>, Closeable {
+
+    private final ResourceList<E> list;
+    private final boolean prefetch;
+
+    private Iterator<E> current;
+    private String nextLink;
+    private int page;
+    private CompletableFuture<ResourceList.Page<E>> next;
+    // whether next is one of the pages of the list, which must not be cancelled
+    private boolean shared;
+    // the pages the list requested ahead that are not taken yet
+    private final Deque<CompletableFuture<ResourceList.Page<E>>> ahead;
+    private boolean closed;
+
+    // the position, for getCursor()
+    private String pageLink;
+    private int offset;
+    private long consumed;
+    private boolean finished;
+
+    private File checkpointFile;
+    private int checkpointEvery;
+
+    PageIterator(final ResourceList<E> list) {
+        this.list = list;
+        this.prefetch = list.getPrefetchDepth() > 0;
+        this.offset = Math.min(list.index, list.size());
+        this.current = list.subList(offset, list.size()).iterator();
+        this.nextLink = list.nextLink;
+        this.page = list.page;
+        this.pageLink = list.pageLink;
+        this.consumed = list.consumedBefore + offset;
+        this.ahead = new ArrayDeque<CompletableFuture<ResourceList.Page<E>>>(list.getPrefetched());
+        prefetch();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!closed && !current.hasNext()) {
+            if (nextLink == null) {
+                if (!finished) {
+                    finished = true;
+                    checkpoint();
+                }
+                return false;
+            }
+            final ResourceList.Page<E> loaded = readNextPage();
+            page++;
+            pageLink = nextLink;
+            offset = 0;
+            current = loaded.elements.iterator();
+            nextLink = loaded.nextLink;
+            prefetch();
+        }
+        return !closed;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final E element = current.next();
+        offset++;
+        consumed++;
+        if (checkpointEvery > 0 && consumed % checkpointEvery == 0) {
+            checkpoint();
+        }
+        return element;
+    }
+
+    /**
+     * @return the position of the iterator, after the last element returned by next().
+     */
+    public PageCursor getCursor() {
+        return new PageCursor(list.resourceUri, list.size, page, pageLink, offset, consumed, finished);
+    }
+
+    /**
+     * Writes the cursor to a file every given number of elements, and once the last one is consumed. The cursor is
+     * written after the element is returned, so a traversal resumed from it may see again the elements consumed
+     * after the last checkpoint, never skip one.
+     *
+     * @param elements the number of elements between checkpoints.
+     * @param file the file, replaced at each checkpoint.
+     * @return this iterator.
+     */
+    public PageIterator<E> checkpointEvery(final int elements, final File file) {
+        if (elements <= 0) {
+            throw new IllegalArgumentException("elements must be positive");
+        }
+        if (file == null) {
+            throw new IllegalArgumentException("file cannot be null");
+        }
+        this.checkpointEvery = elements;
+        this.checkpointFile = file;
+        return this;
+    }
+
+    /**
+     * Writes the cursor to the checkpoint file now, if there is one.
+     *
+     * @throws UncheckedIOException if the file could not be written.
+     */
+    public void checkpoint() {
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            getCursor().writeTo(checkpointFile);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Stops the iteration and drops the page requested ahead, if any. Idempotent.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (next != null && !shared) {
+            next.cancel(false);
+        }
+        next = null;
+        ahead.clear();
+    }
+
+    /**
+     * @return true if there is nothing left, as known without reading another page.
+     */
+    boolean isExhausted() {
+        return closed || finished || (!current.hasNext() && nextLink == null);
+    }
+
+    /**
+     * @return the number of the page being gone through.
+     */
+    public int getPage() {
+        return page;
+    }
+
+    private ResourceList.Page<E> readNextPage() {
+        try {
+            if (next != null) {
+                final CompletableFuture<ResourceList.Page<E>> pending = next;
+                next = null;
+                return pending.join();
+            }
+            return list.fetchPage(nextLink, null);
+        } catch (final CompletionException e) {
+            // the pages the list requested after this one failed with it
+            ahead.clear();
+            throw failure(e.getCause());
+        } catch (final Exception e) {
+            throw failure(e);
+        }
+    }
+
+    private RuntimeException failure(final Throwable cause) {
+        return new RuntimeException("Failed to read page " + (page + 1) + " of " + list.resourceUri, cause);
+    }
+
+    private void prefetch() {
+        if (nextLink == null) {
+            return;
+        }
+        shared = !ahead.isEmpty();
+        if (shared) {
+            next = ahead.poll();
+        } else if (prefetch) {
+            final String link = nextLink;
+            next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return list.fetchPage(link, null);
+                } catch (final Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, ResourceList.PREFETCHER);
+        }
+    }
+}
@@ -80,6 +80,9 @@ public class PhoneNumber extends ResourceBase {
     public static PhoneNumber create(final BandwidthClient client, final Map<String, Object> params) throws Exception {
         final String uri = client.getUserResourceUri(BandwidthConstants.PHONE_NUMBER_URI_PATH);
         final RestResponse createResponse = client.post(uri, params);
+        if (client.isLazyCreateEnabled()) {
+            return createLazily(client, createResponse.getLocation(), PhoneNumber::new);
+        }
         final RestResponse getResponse = client.get(createResponse.getLocation(), null);
         final JSONObject jsonObject = toJSONObject(getResponse);
         return new PhoneNumber(client, jsonObject);
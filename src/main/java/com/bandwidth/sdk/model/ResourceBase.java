@@ -2,13 +2,15 @@ package com.bandwidth.sdk.model;
 
 import com.bandwidth.sdk.BandwidthClient;
 import com.bandwidth.sdk.RestResponse;
+import com.bandwidth.sdk.Utils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
 
 /**
  * Created by sbarstow on 10/3/14.
@@ -19,6 +21,12 @@ public abstract class ResourceBase extends ModelBase {
 
 	protected final BandwidthClient client;
 	protected final Map<String, Object> properties = new HashMap<String, Object>();
+
+	/**
+	 * The uri to read the properties from on next access, while the resource holds only its id or a command has left
+	 * them out of date.
+	 */
+	private volatile String location;
 	
 	protected ResourceBase(final JSONObject jsonObject) {
 		this.client = BandwidthClient.getInstance();
@@ -32,14 +40,105 @@ public abstract class ResourceBase extends ModelBase {
 	
 	protected abstract void setUp(JSONObject jsonObject);
 
+	/**
+	 * Builds a resource that holds only the id of the one just created at location, for the create methods to return
+	 * when BandwidthClient.isLazyCreateEnabled(). Its properties are read with a GET of location on first access,
+	 * which never happens if only getId() is called.
+	 *
+	 * @param client the client.
+	 * @param location the Location header of the create response.
+	 * @param factory the constructor of the resource.
+	 * @param <T> the resource type.
+	 * @return the resource.
+	 */
+	@SuppressWarnings("unchecked")
+	protected static <T extends ResourceBase> T createLazily(final BandwidthClient client, final String location,
+			final BiFunction<BandwidthClient, JSONObject, T> factory) {
+		final JSONObject jsonObject = new JSONObject();
+		jsonObject.put("id", location.substring(location.lastIndexOf('/') + 1));
+		final T resource = factory.apply(client, jsonObject);
+		((ResourceBase) resource).location = location;
+		return resource;
+	}
+
+	/**
+	 * Brings the properties up to date after a command changed the resource at uri. Unless the client has strict
+	 * refresh enabled, the GET is left until the next property access, so that a command the caller reads nothing
+	 * after costs a single round trip.
+	 *
+	 * @param uri the uri of the resource.
+	 * @throws Exception if the resource could not be read with strict refresh.
+	 */
+	protected void refresh(final String uri) throws Exception {
+		if (client.isStrictRefreshEnabled()) {
+			updateProperties(toJSONObject(client.get(uri, null)));
+		} else {
+			location = uri;
+		}
+	}
+
+	/**
+	 * Reads the properties of a lazily created or refreshed resource, once. A failure is thrown as a RuntimeException, since the
+	 * property getters declare none, and the next access tries again.
+	 */
+	@Override
+	protected void ensureLoaded() {
+		if (location == null) {
+			return;
+		}
+		synchronized (this) {
+			final String uri = location;
+			if (uri == null) {
+				return;
+			}
+			// cleared first, so that setUp() can read the properties it has just set
+			location = null;
+			try {
+				setUp(toJSONObject(client.get(uri, null)));
+			} catch (final Exception e) {
+				location = uri;
+				throw new RuntimeException("Failed to read " + uri, e);
+			}
+		}
+	}
+
+	/**
+	 * @return false while the properties of a lazily created or refreshed resource have not been read yet.
+	 */
+	public boolean isLoaded() {
+		return location == null;
+	}
+
+	/**
+	 * Parses the body of the response, then closes it.
+	 *
+	 * @param response the response.
+	 * @return the parsed object.
+	 * @throws ParseException if the body is not valid json.
+	 */
 	public static JSONObject toJSONObject(final RestResponse response)
 			throws ParseException {
-		return (JSONObject) new JSONParser().parse(response.getResponseText());
+		return (JSONObject) Utils.response2JSON(response);
+	}
+
+	/**
+	 * Variant of toJSONObject() for use inside CompletableFuture stages, where a checked ParseException
+	 * cannot be thrown. The parse error is rethrown as the cause of a CompletionException.
+	 *
+	 * @param response the response.
+	 * @return the parsed object.
+	 */
+	protected static JSONObject toJSONObjectUnchecked(final RestResponse response) {
+		try {
+			return toJSONObject(response);
+		} catch (final ParseException e) {
+			throw new CompletionException(e);
+		}
 	}
 
 	protected static JSONArray toJSONArray(final RestResponse response)
 			throws ParseException {
-		return (JSONArray) new JSONParser().parse(response.getResponseText());
+		return (JSONArray) Utils.response2JSON(response);
 	}
 
 	public String getId() {
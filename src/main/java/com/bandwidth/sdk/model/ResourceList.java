@@ -1,16 +1,39 @@
 package com.bandwidth.sdk.model;
 
+import java.lang.reflect.Constructor;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.bandwidth.sdk.BandwidthClient;
 import com.bandwidth.sdk.Client;
+import com.bandwidth.sdk.JsonArrayReader;
 import com.bandwidth.sdk.RestResponse;
 import com.bandwidth.sdk.Utils;
 
 import org.json.simple.JSONObject;
 import org.json.simple.JSONArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The ResourceList class is an ArraryList wrapper, but provides pagination for the BW API 
@@ -22,7 +45,25 @@ import org.json.simple.JSONArray;
 public class ResourceList<E> extends ArrayList<E> {
 
     private static final long serialVersionUID = -4240538084517234581L;
+
+    private final static Logger LOG = LoggerFactory.getLogger(ResourceList.class);
+
+    /**
+     * Fetches the pages of the lists that prefetch, on daemon threads that go away when idle.
+     */
+    static final ExecutorService PREFETCHER = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "bandwidth-list-prefetch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
     
+    private static final Pattern PAGE_PARAM = Pattern.compile("[?&]page=(\\d+)");
+
     protected int page;
 	protected int size;
 	protected int index = 0;
@@ -32,6 +73,7 @@ public class ResourceList<E> extends ArrayList<E> {
 	protected String previousLink;
 	protected String nextLink = null;
 	protected String firstLink;
+	protected String lastLink;
 	
 	RestResponse response;
 	
@@ -39,6 +81,28 @@ public class ResourceList<E> extends ArrayList<E> {
 	protected String resourceUri;
 	
 	Client client;
+
+	protected int prefetchDepth = -1;
+
+	/**
+	 * The link the current page was read from, when resumed from a PageCursor, or null if read by number.
+	 */
+	protected String pageLink;
+
+	/**
+	 * The number of elements consumed before the current page, when resumed from a PageCursor.
+	 */
+	protected long consumedBefore;
+
+	/**
+	 * The error the last page failed to load with, or null.
+	 */
+	protected transient Throwable failure;
+
+	/**
+	 * The pages following the current one, in order, each fetched from the next link of the one before it.
+	 */
+	private transient Deque<CompletableFuture<Page<E>>> prefetched;
 	
 
 	public ResourceList(final String resourceUri, final Class <E> clazz) {
@@ -59,6 +123,52 @@ public class ResourceList<E> extends ArrayList<E> {
 		this.clazz = clazz;
 	}
 
+	/**
+	 * Builds a list positioned where a traversal stopped: its current page is read again, from the same link if it had
+	 * one, and the elements of it already consumed are skipped. A cursor at the end of its page carries on from the
+	 * next one, so that the list and its iterator start at the next element. Unlike initialize(), a page that cannot be
+	 * read is thrown.
+	 * @param client the client
+	 * @param cursor the cursor, e.g. from PageCursor.readFrom()
+	 * @param clazz the resource type
+	 * @param <E> the resource type
+	 * @return the list, empty if the traversal had finished
+	 * @throws Exception if the page could not be read
+	 */
+	public static <E> ResourceList<E> resume(final BandwidthClient client, final PageCursor cursor,
+			final Class<E> clazz) throws Exception {
+		final ResourceList<E> list = new ResourceList<E>(cursor.getPage(), cursor.getSize(), cursor.getResourceUri(),
+				clazz);
+		list.setClient(client);
+		list.consumedBefore = cursor.getConsumed() - cursor.getOffset();
+		if (cursor.isFinished()) {
+			list.consumedBefore = cursor.getConsumed();
+			return list;
+		}
+		Page<E> page;
+		if (cursor.getPageLink() != null) {
+			page = list.fetchPage(cursor.getPageLink(), null);
+		} else {
+			final JSONObject params = new JSONObject();
+			params.put("page", cursor.getPage());
+			params.put("size", cursor.getSize());
+			page = list.fetchPage(cursor.getResourceUri(), params);
+		}
+		String pageLink = cursor.getPageLink();
+		int offset = cursor.getOffset();
+		while (offset >= page.elements.size() && page.nextLink != null) {
+			list.page++;
+			list.consumedBefore = cursor.getConsumed();
+			offset = 0;
+			pageLink = page.nextLink;
+			page = list.fetchPage(pageLink, null);
+		}
+		list.setPage(page);
+		list.pageLink = pageLink;
+		list.index = Math.min(offset, list.size());
+		return list;
+	}
+
 	/**
 	 * initializes ArrayList with first page from BW API
 	 */
@@ -97,7 +207,7 @@ public class ResourceList<E> extends ArrayList<E> {
 
 			@Override
 			public void remove() {
-				// TODO Auto-generated method stub
+				throw new UnsupportedOperationException();
 			}
 		};
 		return it;
@@ -106,7 +216,8 @@ public class ResourceList<E> extends ArrayList<E> {
 	}
 		
 	/**
-	 * This method updates the page value, creates the params for the API call and clears the current list
+	 * This method updates the page value, creates the params for the API call and clears the current list.
+	 * When prefetching, the page is taken from those already requested instead.
 	 */
 	protected void getNextPage() {
 		    	    	
@@ -118,14 +229,27 @@ public class ResourceList<E> extends ArrayList<E> {
         params.put("size", size);
         
         clear();
+        pageLink = null;
         
-        getPage(params);
+        if (prefetched != null && !prefetched.isEmpty()) {
+        	try {
+        		setPage(prefetched.poll().join());
+        	}
+        	catch (final CompletionException e) {
+        		prefetched.clear();
+        		failure = e.getCause();
+        		LOG.error("Failed to read page " + page + " of " + resourceUri, failure);
+        	}
+        } else {
+        	getPage(params);
+        }
                 
 	}
 	
 	/**
 	 * This method makes the API call to get the list value for the specified resource. It loads the return
-	 * from the API into the arrayList, updates the index if necessary and sets the new link values
+	 * from the API into the arrayList, updates the index if necessary and sets the new link values.
+	 * With streaming enabled on the BandwidthClient, the elements are built as the page is read off the connection.
 	 * @param params the params
 	 */
 	protected void getPage(final JSONObject params) {
@@ -134,28 +258,327 @@ public class ResourceList<E> extends ArrayList<E> {
 			client = BandwidthClient.getInstance();
     	
         try {
-	        final RestResponse response = client.get(resourceUri, params);
-	        
-	        final JSONArray array = Utils.response2JSONArray(response);
-	        
-	        for (final Object obj : array) {	
-        		final E elem = clazz.getConstructor(BandwidthClient.class, JSONObject.class).newInstance(client, (JSONObject) obj);
-        		add(elem);
-	        }
-	        
-	        // if anything comes back, reset the index
-	        if (array.size() > 0)
-	        	this.index = 0;
-	        
-	        // set the next links
-	        this.setNextLink(response.getNextLink());	        
-	        this.setFirstLink(response.getFirstLink());
-	        this.setPreviousLink(response.getPreviousLink());
+        	setPage(fetchPage(resourceUri, params));
         }
         catch(final Exception e) {
-        	e.printStackTrace();
+        	failure = e;
+        	LOG.error("Failed to read page " + page + " of " + resourceUri, e);
         }
 	}
+
+	/**
+	 * Loads a page into the arrayList, then requests the following ones in the background if prefetching.
+	 * @param page the page
+	 */
+	private void setPage(final Page<E> page) {
+		failure = null;
+		addAll(page.elements);
+
+        // if anything comes back, reset the index
+        if (!page.elements.isEmpty())
+        	this.index = 0;
+        
+        // set the next links
+        this.setNextLink(page.nextLink);	        
+        this.setFirstLink(page.firstLink);
+        this.setPreviousLink(page.previousLink);
+        this.setLastLink(page.lastLink);
+
+        prefetch();
+	}
+
+	/**
+	 * Requests pages ahead of the current one until prefetchDepth are pending or the last one is reached. Each is
+	 * fetched from the next link of the page before it, so they are requested one after another, as fast as the API
+	 * answers, while the caller goes through the current page.
+	 */
+	private void prefetch() {
+		final int depth = getPrefetchDepth();
+		if (depth <= 0) {
+			return;
+		}
+		if (prefetched == null) {
+			prefetched = new ArrayDeque<CompletableFuture<Page<E>>>();
+		}
+		if (nextLink == null) {
+			prefetched.clear();
+			return;
+		}
+		while (prefetched.size() < depth) {
+			final CompletableFuture<Page<E>> previous = prefetched.peekLast();
+			if (previous == null) {
+				final String link = nextLink;
+				prefetched.add(CompletableFuture.supplyAsync(() -> fetchPageUnchecked(link), PREFETCHER));
+			} else {
+				// null past the last page
+				prefetched.add(previous.thenApplyAsync(before -> before == null || before.nextLink == null
+						? null : fetchPageUnchecked(before.nextLink), PREFETCHER));
+			}
+		}
+	}
+
+	/**
+	 * @return the pages requested ahead of the current one, in order, for iterators and spliterators to take rather
+	 * than request them again; empty if the list does not prefetch.
+	 */
+	List<CompletableFuture<Page<E>>> getPrefetched() {
+		return prefetched == null ? new ArrayList<CompletableFuture<Page<E>>>()
+				: new ArrayList<CompletableFuture<Page<E>>>(prefetched);
+	}
+
+	private Page<E> fetchPageUnchecked(final String link) {
+		try {
+			return fetchPage(link, null);
+		}
+		catch (final Exception e) {
+			throw new CompletionException(e);
+		}
+	}
+
+	/**
+	 * Reads a page from the API, without touching the list, so that it can be done on another thread.
+	 * @param uri the resource uri, or the link to the page
+	 * @param params the params, or null
+	 * @return the page
+	 * @throws Exception if the page could not be read
+	 */
+	protected Page<E> fetchPage(final String uri, final JSONObject params) throws Exception {
+		final Constructor<E> constructor = clazz.getConstructor(BandwidthClient.class, JSONObject.class);
+		final List<E> elements = new ArrayList<E>();
+		final RestResponse response;
+		if (client instanceof BandwidthClient && ((BandwidthClient) client).isStreamingEnabled()) {
+			response = ((BandwidthClient) client).getStreaming(uri, params);
+			try (JsonArrayReader reader = new JsonArrayReader(response)) {
+				for (JSONObject obj = reader.next(); obj != null; obj = reader.next()) {
+					elements.add(constructor.newInstance(client, obj));
+				}
+			}
+		} else {
+			response = client.get(uri, params);
+			final JSONArray array = Utils.response2JSONArray(response);
+			for (final Object obj : array) {
+				elements.add(constructor.newInstance(client, (JSONObject) obj));
+			}
+		}
+		return new Page<E>(elements, response.getNextLink(), response.getFirstLink(), response.getPreviousLink(),
+				response.getLastLink());
+	}
+
+	/**
+	 * One page of the list as read from the API, with its links.
+	 */
+	protected static final class Page<E> {
+		final List<E> elements;
+		final String nextLink;
+		final String firstLink;
+		final String previousLink;
+		final String lastLink;
+
+		Page(final List<E> elements, final String nextLink, final String firstLink, final String previousLink,
+				final String lastLink) {
+			this.elements = elements;
+			this.nextLink = nextLink;
+			this.firstLink = firstLink;
+			this.previousLink = previousLink;
+			this.lastLink = lastLink;
+		}
+	}
+
+	/**
+	 * Returns a sequential Stream over the rest of the list, from the current element to the end of the last page,
+	 * that holds a page at a time and reads the next one only when the stream gets to it. Short-circuiting operations
+	 * such as limit(), anyMatch() or takeWhile() read no page past the one they stop in. Unlike the iterator of the
+	 * list, a page that cannot be read is thrown, as a RuntimeException, rather than ending the stream. Closing the
+	 * stream drops the page requested ahead when prefetching.
+	 * <br>Example:<br>
+	 * <code>
+	 * try (Stream&lt;Message&gt; messages = Message.list(client, 0, 1000).asStream()) {<br>
+	 * &nbsp;&nbsp;&nbsp;&nbsp;messages.filter(m -&gt; "error".equals(m.getState())).forEach(...);<br>
+	 * }
+	 * </code>
+	 * @return the stream
+	 * @throws RuntimeException if the current page failed to load
+	 */
+	public Stream<E> asStream() {
+		final PageIterator<E> iterator = pageIterator();
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+	}
+
+	/**
+	 * Returns an Iterable over the rest of the list, that reads pages like asStream() does. Each call to its iterator()
+	 * starts again from the current element of the list.
+	 * @return the iterable
+	 */
+	public Iterable<E> asIterable() {
+		return this::pageIterator;
+	}
+
+	/**
+	 * Returns a Flow.Publisher over the rest of the list, for consumers slower than the API. Pages are read only when
+	 * the demand of a subscriber reaches past those already read, on the threads of the list prefetcher.
+	 * @return the publisher
+	 */
+	public ResourcePublisher<E> publisher() {
+		return publisher(PREFETCHER);
+	}
+
+	/**
+	 * Returns a Flow.Publisher over the rest of the list, that reads pages and signals subscribers on the executor.
+	 * Each subscriber goes through the list from its current element.
+	 * @param executor the executor, which may be called on to block while a page is read
+	 * @return the publisher
+	 */
+	public ResourcePublisher<E> publisher(final Executor executor) {
+		return new ResourcePublisher<E>(this, executor);
+	}
+
+	/**
+	 * @return a new PageIterator from the current element of the list.
+	 * @throws RuntimeException if the current page failed to load
+	 */
+	public PageIterator<E> pageIterator() {
+		if (failure != null) {
+			throw new RuntimeException("Failed to read page " + page + " of " + resourceUri, failure);
+		}
+		if (client == null) {
+			client = BandwidthClient.getInstance();
+		}
+		return new PageIterator<E>(this);
+	}
+
+	/**
+	 * Spliterator over the rest of the list, from the current element to the end of the last page. When the API gives
+	 * a last link the number of pages is known, so the pages left are split in ranges that parallel streams read
+	 * concurrently, each page with a request of its own, except those the list already requested ahead, which are
+	 * taken from it. Otherwise the pages are walked one by one with iterator().
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		if (nextLink == null) {
+			return Spliterators.spliterator(new ArrayList<E>(subList(Math.min(index, size()), size())),
+					Spliterator.ORDERED | Spliterator.NONNULL);
+		}
+		final int lastPage = getLastPage();
+		if (lastPage < 0) {
+			return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+		}
+		if (client == null) {
+			client = BandwidthClient.getInstance();
+		}
+		return new PageSpliterator(new ArrayList<E>(subList(Math.min(index, size()), size())).iterator(), page + 1,
+				lastPage, page + 1, getPrefetched());
+	}
+
+	/**
+	 * Goes through the rest of the list with at most parallelism pages read at once, on a pool of its own. The action
+	 * is called concurrently, in no particular order. Errors reading a page, like those of the action, are rethrown.
+	 * @param parallelism the number of pages read at once
+	 * @param action the action
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void forEachParallel(final int parallelism, final Consumer<? super E> action) throws InterruptedException {
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.submit(() -> parallelStream().forEach(action)).get();
+		}
+		catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof java.lang.Error) {
+				throw (java.lang.Error) e.getCause();
+			}
+			throw new CompletionException(e.getCause());
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * @return the number of the last page, from the last link, or -1 if not known.
+	 */
+	protected int getLastPage() {
+		if (lastLink == null) {
+			return -1;
+		}
+		final Matcher matcher = PAGE_PARAM.matcher(lastLink);
+		return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+	}
+
+	/**
+	 * Reads the pages of a range as it advances, after the elements left of the page it was split from.
+	 */
+	private final class PageSpliterator implements Spliterator<E> {
+		private Iterator<E> current;
+		private int from;
+		private final int to;
+		// the pages the list requested ahead, from page number firstAhead on
+		private final int firstAhead;
+		private final List<CompletableFuture<Page<E>>> ahead;
+
+		PageSpliterator(final Iterator<E> current, final int from, final int to, final int firstAhead,
+				final List<CompletableFuture<Page<E>>> ahead) {
+			this.current = current;
+			this.from = from;
+			this.to = to;
+			this.firstAhead = firstAhead;
+			this.ahead = ahead;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super E> action) {
+			while (current == null || !current.hasNext()) {
+				if (from > to) {
+					return false;
+				}
+				current = readPage(from++).iterator();
+			}
+			action.accept(current.next());
+			return true;
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			if (to - from < 1) {
+				return null;
+			}
+			final int middle = from + (to - from) / 2;
+			final Spliterator<E> prefix = new PageSpliterator(current, from, middle, firstAhead, ahead);
+			current = null;
+			from = middle + 1;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return (long) Math.max(0, to - from + 1) * size + (current != null && current.hasNext() ? 1 : 0);
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.NONNULL;
+		}
+
+		private List<E> readPage(final int number) {
+			final JSONObject params = new JSONObject();
+			params.put("page", number);
+			params.put("size", size);
+			try {
+				if (number - firstAhead < ahead.size()) {
+					return ahead.get(number - firstAhead).join().elements;
+				}
+				return fetchPage(resourceUri, params).elements;
+			}
+			catch (final CompletionException e) {
+				throw new RuntimeException("Failed to read page " + number + " of " + resourceUri, e.getCause());
+			}
+			catch (final Exception e) {
+				throw new RuntimeException("Failed to read page " + number + " of " + resourceUri, e);
+			}
+		}
+	}
 	
 
 	public ListIterator<E> listIterator() {
@@ -188,6 +611,14 @@ public class ResourceList<E> extends ArrayList<E> {
 		return firstLink;
 	}
 
+	public String getLastLink() {
+		return lastLink;
+	}
+
+	public void setLastLink(final String lastLink) {
+		this.lastLink = lastLink;
+	}
+
 	public void setFirstLink(final String firstLink) {
 		this.firstLink = firstLink;
 	}
@@ -207,6 +638,28 @@ public class ResourceList<E> extends ArrayList<E> {
 	public void setClient(final Client client) {
 		this.client = client;
 	}
+
+	/**
+	 * @return the number of pages requested ahead of the one being iterated, by default that of the BandwidthClient.
+	 */
+	public int getPrefetchDepth() {
+		if (prefetchDepth >= 0) {
+			return prefetchDepth;
+		}
+		return client instanceof BandwidthClient ? ((BandwidthClient) client).getListPrefetchDepth() : 0;
+	}
+
+	/**
+	 * Sets the number of pages requested ahead of the one being iterated, overriding that of the BandwidthClient.
+	 * Takes effect from the next page loaded.
+	 * @param prefetchDepth the depth, 0 to request each page when the one before it is used up.
+	 */
+	public void setPrefetchDepth(final int prefetchDepth) {
+		if (prefetchDepth < 0) {
+			throw new IllegalArgumentException("prefetchDepth must not be negative");
+		}
+		this.prefetchDepth = prefetchDepth;
+	}
 	
 	
 
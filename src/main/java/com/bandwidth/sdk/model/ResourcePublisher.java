@@ -0,0 +1,176 @@
+package com.bandwidth.sdk.model;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flow.Publisher over the rest of a ResourceList, built with ResourceList.publisher(). It follows the Reactive
+ * Streams rules, so it can be adapted to any Reactive Streams library with org.reactivestreams.FlowAdapters.
+ *
+ * Each subscriber goes through the list from its current element with a PageIterator of its own. A page is read only
+ * once the demand of the subscriber reaches past the elements already read, so a slow subscriber holds one page at a
+ * time and the API is not read ahead of it, unless the list prefetches. Pages are read, and the subscriber signalled,
+ * on the executor of the publisher, one task at a time per subscriber. A page that cannot be read ends the
+ * subscription with onError(); cancelling it drops the page requested ahead, if any.
+ * <br>Example:<br>
+ * <code>Call.list(client, 0, 1000).publisher(executor).subscribe(subscriber);</code>
+ *
+ * @param <E> the resource type.
+ */
+public class ResourcePublisher<E> implements Flow.Publisher<E> {
+
+    private final ResourceList<E> list;
+    private final Executor executor;
+
+    ResourcePublisher(final ResourceList<E> list, final Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        this.list = list;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super E> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber cannot be null");
+        }
+        final PageIterator<E> iterator;
+        try {
+            iterator = list.pageIterator();
+        } catch (final RuntimeException e) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(e);
+            return;
+        }
+        subscriber.onSubscribe(new PageSubscription(subscriber, iterator));
+    }
+
+    private final class PageSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super E> subscriber;
+        private final PageIterator<E> iterator;
+
+        private final AtomicLong demand = new AtomicLong();
+        // the number of calls to drain() pending, so that only one task runs at a time
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException invalidRequest;
+        private boolean done;
+
+        PageSubscription(final Flow.Subscriber<? super E> subscriber, final PageIterator<E> iterator) {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("request must be positive, was " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (final RejectedExecutionException e) {
+                    pending.set(0);
+                    if (!cancelled) {
+                        cancelled = true;
+                        iterator.close();
+                        subscriber.onError(e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (invalidRequest != null) {
+                finish();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            while (demand.get() > 0) {
+                if (cancelled) {
+                    finish();
+                    return;
+                }
+                final boolean more;
+                try {
+                    more = iterator.hasNext();
+                } catch (final RuntimeException e) {
+                    finish();
+                    subscriber.onError(e);
+                    return;
+                }
+                if (cancelled) {
+                    finish();
+                    return;
+                }
+                if (!more) {
+                    finish();
+                    subscriber.onComplete();
+                    return;
+                }
+                final E element = iterator.next();
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                try {
+                    subscriber.onNext(element);
+                } catch (final RuntimeException e) {
+                    // a subscriber that throws is treated as cancelled
+                    finish();
+                    return;
+                }
+            }
+            if (cancelled) {
+                finish();
+            } else if (iterator.isExhausted()) {
+                finish();
+                subscriber.onComplete();
+            }
+        }
+
+        private void finish() {
+            done = true;
+            iterator.close();
+        }
+    }
+}
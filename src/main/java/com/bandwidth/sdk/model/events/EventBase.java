@@ -1,9 +1,9 @@
 package com.bandwidth.sdk.model.events;
 
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 
 import com.bandwidth.sdk.AppPlatformException;
+import com.bandwidth.sdk.JsonCodecs;
 import com.bandwidth.sdk.model.ModelBase;
 
 import java.util.Map;
@@ -27,7 +27,7 @@ public class EventBase extends ModelBase implements Event {
 
         JSONObject jsonObj = null;
         try {
-            jsonObj = (JSONObject) new JSONParser().parse(in);
+            jsonObj = (JSONObject) JsonCodecs.getDefault().parse(in);
         } catch (final org.json.simple.parser.ParseException e) {
             throw new AppPlatformException(e);
         }
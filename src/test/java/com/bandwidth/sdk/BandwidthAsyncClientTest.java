@@ -0,0 +1,137 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.exception.MissingCredentialsException;
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.Message;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class BandwidthAsyncClientTest {
+
+    private StubServer server;
+    private BandwidthAsyncClient asyncClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        final MockClient client = new MockClient(TestsHelper.TEST_USER_ID, "token", "secret",
+                server.getEndpoint(), "v1", 200, 20);
+        asyncClient = new BandwidthAsyncClient(client, 2);
+    }
+
+    @After
+    public void tearDown() {
+        asyncClient.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldCreateCallAsync() throws Exception {
+        server.handle("/v1/users/userId/calls", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    StubServer.reply(exchange, 201, null,
+                            "Location", server.getEndpoint() + "/v1/users/userId/calls/c-1");
+                } else {
+                    StubServer.reply(exchange, 200, "{\"id\":\"c-1\",\"state\":\"started\"}");
+                }
+            }
+        });
+
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("to", "+11111111111");
+        params.put("from", "+22222222222");
+        final Call call = Call.createAsync(asyncClient, params).get(5, TimeUnit.SECONDS);
+
+        assertThat(call.getId(), equalTo("c-1"));
+        assertThat(call.getState(), equalTo("started"));
+        assertThat(server.requests.get(0), equalTo("POST /v1/users/userId/calls"));
+        assertThat(server.requests.get(1), equalTo("GET /v1/users/userId/calls/c-1"));
+    }
+
+    @Test
+    public void shouldRunManyRequestsConcurrently() throws Exception {
+        server.handle("/v1/users/userId/messages", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                StubServer.reply(exchange, 200, "{\"id\":\"m-1\",\"text\":\"hello\"}");
+            }
+        });
+
+        final List<CompletableFuture<Message>> futures = new ArrayList<CompletableFuture<Message>>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(Message.getAsync(asyncClient, "m-" + i));
+        }
+        for (final CompletableFuture<Message> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS).getText(), equalTo("hello"));
+        }
+        assertThat(server.requests.size(), equalTo(50));
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyOnErrorStatus() throws Exception {
+        server.handle("/v1/users/userId/calls", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                StubServer.reply(exchange, 503, "{\"message\":\"unavailable\"}");
+            }
+        });
+
+        try {
+            asyncClient.post("users/userId/calls", new HashMap<String, Object>()).get(5, TimeUnit.SECONDS);
+            fail("Expected an AppPlatformException");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(AppPlatformException.class));
+            assertThat(((AppPlatformException) e.getCause()).getStatus(), equalTo(503));
+        }
+    }
+
+    @Test
+    public void shouldFailAGetAnsweredWithAccessDenied() throws Exception {
+        server.handle("/v1/users/userId/calls/c-1", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                StubServer.reply(exchange, 200, "{\"code\":\"access-denied\"}");
+            }
+        });
+
+        try {
+            asyncClient.get("users/userId/calls/c-1", null).get(5, TimeUnit.SECONDS);
+            fail("Expected an IOException");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+            assertThat(e.getCause().getMessage(), equalTo("{\"code\":\"access-denied\"}"));
+        }
+    }
+
+    @Test
+    public void shouldFailWithoutCredentials() throws Exception {
+        final BandwidthAsyncClient noCredentials = new BandwidthAsyncClient(new MockClient(), 1);
+        try {
+            noCredentials.get("users/userId/calls/c-1", null).get(5, TimeUnit.SECONDS);
+            fail("Expected a MissingCredentialsException");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(MissingCredentialsException.class));
+        } finally {
+            noCredentials.close();
+        }
+    }
+}
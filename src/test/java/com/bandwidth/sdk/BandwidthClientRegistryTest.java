@@ -0,0 +1,128 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BandwidthClientRegistryTest {
+
+    private StubServer server;
+    private BandwidthClientRegistry registry;
+    private final List<String> authorizations = new CopyOnWriteArrayList<String>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.handle("/v1/users/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+                if (exchange.getRequestURI().getPath().startsWith("/v1/users/noisy/")) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                StubServer.reply(exchange, 200, "{\"id\":\"c-1\",\"state\":\"active\"}");
+            }
+        });
+        registry = new BandwidthClientRegistry(server.getEndpoint(), "v1", 4, 2);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        registry.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldShareTheTransportBetweenTenants() throws Exception {
+        final BandwidthClient first = registry.forTenant("u-1", "token1", "secret1");
+        final BandwidthClient second = registry.forTenant("u-2", "token2", "secret2");
+
+        assertThat(first.getTransport(), sameInstance(registry.getTransport()));
+        assertThat(second.getTransport(), sameInstance(registry.getTransport()));
+        assertThat(registry.forTenant("u-1", "token1", "secret1"), sameInstance(first));
+
+        Call.get(first, "c-1");
+        Call.get(second, "c-1");
+        assertThat(server.requests.get(0), equalTo("GET /v1/users/u-1/calls/c-1"));
+        assertThat(server.requests.get(1), equalTo("GET /v1/users/u-2/calls/c-1"));
+        assertThat(authorizations.get(0), not(equalTo(authorizations.get(1))));
+    }
+
+    @Test
+    public void shouldUpdateTheCredentialsOfAKnownTenant() throws Exception {
+        final BandwidthClient client = registry.forTenant("u-1", "token", "old");
+        assertThat(registry.forTenant("u-1", "token", "new"), sameInstance(client));
+        assertThat(client.getCredentials().getSecret(), equalTo("new"));
+    }
+
+    @Test
+    public void shouldKeepANoisyTenantFromStarvingTheOthers() throws Exception {
+        final BandwidthClient noisy = registry.forTenant("noisy", "token", "secret");
+        final BandwidthClient quiet = registry.forTenant("quiet", "token", "secret");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            for (int i = 0; i < 10; i++) {
+                // distinct calls, identical GETs would be coalesced into one
+                final String callId = "c-" + i;
+                executor.execute(() -> {
+                    try {
+                        Call.get(noisy, callId);
+                    } catch (final Exception ignore) {
+                    }
+                });
+            }
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (noisy.getConcurrencyLimiter().getInFlight() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(noisy.getConcurrencyLimiter().getInFlight(), equalTo(2));
+
+            // the pool has 4 connections, the noisy tenant may only hold 2 of them
+            final long start = System.currentTimeMillis();
+            assertThat(Call.get(quiet, "c-1").getState(), equalTo("active"));
+            assertTrue(System.currentTimeMillis() - start < 2000);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldLeaveThePoolOpenWhenATenantIsClosed() throws Exception {
+        final BandwidthClient first = registry.forTenant("u-1", "token", "secret");
+        final BandwidthClient second = registry.forTenant("u-2", "token", "secret");
+
+        first.close();
+        assertThat(registry.getTenant("u-1"), nullValue());
+        assertThat(Call.get(second, "c-1").getState(), equalTo("active"));
+
+        registry.setTenantMaxConcurrency("u-2", 3);
+        assertThat(second.getConcurrencyLimiter().getMaxLimit(), equalTo(3));
+    }
+}
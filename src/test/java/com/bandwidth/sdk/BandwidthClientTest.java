@@ -119,4 +119,16 @@ public class BandwidthClientTest {
         // uri is already a full uri, so it should be returned
         assertEquals(path, uri);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldSnapshotCredentials() throws Exception {
+        final MockClient withCredentials = new MockClient("u-1", "token", "secret", "", "", 200, 20);
+        final ApiCredentials credentials = withCredentials.getCredentials();
+
+        assertEquals("users/u-1", credentials.getUsersUri());
+        assertEquals("users/u-1", withCredentials.getUserUri());
+        assertEquals("Basic dG9rZW46c2VjcmV0", credentials.getAuthorization());
+        assertThat(credentials.isComplete(), CoreMatchers.equalTo(true));
+        assertThat(client.getCredentials().isComplete(), CoreMatchers.equalTo(false));
+    }
+}
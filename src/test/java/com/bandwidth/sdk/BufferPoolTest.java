@@ -0,0 +1,269 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.Message;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BufferPoolTest {
+
+    private static final String MESSAGE = "{\"id\":\"m-1\",\"from\":\"+19195551212\",\"to\":\"+13125556666\","
+            + "\"text\":\"héllo\",\"state\":\"sent\"}";
+
+    private StubServer server;
+    private BandwidthClient client;
+    private BufferPool pool;
+
+    private final List<String> bodies = new ArrayList<String>();
+    private final AtomicInteger unavailable = new AtomicInteger();
+    private volatile CountDownLatch slowCalls;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.handle("/v1/users/userId/messages", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    synchronized (bodies) {
+                        bodies.add(IOUtils.toString(exchange.getRequestBody(), "UTF-8"));
+                    }
+                    StubServer.reply(exchange, 201, "", "Location",
+                            server.getEndpoint() + "/v1/users/userId/messages/m-1");
+                } else if (unavailable.getAndDecrement() > 0) {
+                    StubServer.reply(exchange, 503, "{\"message\":\"try again\"}");
+                } else if (exchange.getRequestURI().getPath().endsWith("/missing")) {
+                    StubServer.reply(exchange, 404, "{\"message\":\"no such message\"}");
+                } else {
+                    StubServer.reply(exchange, 200, MESSAGE);
+                }
+            }
+        });
+        server.handle("/v1/users/userId/calls", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final CountDownLatch latch = slowCalls;
+                if (latch != null) {
+                    try {
+                        latch.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                StubServer.reply(exchange, 200, "{\"id\":\"c-1\",\"state\":\"active\"}");
+            }
+        });
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                null, null, null);
+        client.setRetryPolicy(RetryPolicy.builder().baseDelayMillis(1).maxDelayMillis(5).build());
+        pool = new BufferPool(64, 4096, 8);
+        pool.setLeakDetection(true);
+        client.setBufferPool(pool);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldReuseBuffersBySizeClass() throws Exception {
+        final BufferPool buffers = new BufferPool(100, 1000, 2);
+        final PooledBuffer first = buffers.acquire(10);
+        assertThat(first.capacity(), equalTo(128));
+        first.release();
+        assertThat(buffers.getFree(), equalTo(1));
+
+        final PooledBuffer second = buffers.acquire(128);
+        assertThat(buffers.getAllocated(), equalTo(1L));
+        final byte[] bytes = new byte[300];
+        second.write(bytes, 0, bytes.length);
+        // grew into a 512 byte array, giving the 128 byte one back
+        assertThat(second.capacity(), equalTo(512));
+        assertThat(second.length(), equalTo(300));
+        assertThat(buffers.getFree(), equalTo(1));
+        second.release();
+
+        // larger than the largest size class, allocated and dropped
+        final PooledBuffer large = buffers.acquire(5000);
+        large.release();
+        assertThat(buffers.getFree(), equalTo(2));
+        assertThat(buffers.getAllocated(), equalTo(3L));
+
+        try {
+            large.release();
+            fail("Expected an IllegalStateException");
+        } catch (final IllegalStateException e) {
+            // released twice
+        }
+    }
+
+    @Test
+    public void shouldReadStreamsAndReportLeaks() throws Exception {
+        final byte[] text = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        final PooledBuffer buffer = pool.read(new ByteArrayInputStream(text));
+        assertThat(buffer.toString(StandardCharsets.UTF_8), equalTo(MESSAGE));
+        assertTrue(buffer.contains("héllo".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(buffer.contains("access-denied".getBytes(StandardCharsets.US_ASCII)));
+
+        assertThat(pool.getLeaks().size(), equalTo(1));
+        try {
+            pool.checkLeaks();
+            fail("Expected an IllegalStateException");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("1 pooled buffers"));
+        }
+        buffer.release();
+        pool.checkLeaks();
+    }
+
+    @Test
+    public void shouldThrowWhenTheBodyCannotBeReadIntoThePool() throws Exception {
+        final BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        final BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+        response.setEntity(entity);
+
+        try {
+            RestResponse.createRestResponse(response, pool);
+            fail("Expected an IOException");
+        } catch (final IOException e) {
+            assertThat(e.getMessage(), equalTo("connection reset"));
+        }
+        pool.checkLeaks();
+    }
+
+    @Test
+    public void shouldReleaseEveryBodyOfTheClient() throws Exception {
+        sendMessages(client);
+    }
+
+    @Test
+    public void shouldReleaseEveryBodyOverHttp2() throws Exception {
+        final BandwidthClient http2 = server.newClient(new Http2Transport());
+        try {
+            http2.setRetryPolicy(RetryPolicy.builder().baseDelayMillis(1).maxDelayMillis(5).build());
+            http2.setBufferPool(pool);
+            sendMessages(http2);
+        } finally {
+            http2.close();
+        }
+    }
+
+    @Test
+    public void shouldReleaseTheResponseOfAnUpload() throws Exception {
+        server.handle("/v1/users/userId/media/file.txt", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                IOUtils.toString(exchange.getRequestBody(), "UTF-8");
+                StubServer.reply(exchange, 200, "{\"message\":\"uploaded\"}");
+            }
+        });
+        final File file = File.createTempFile("upload", ".txt");
+        try {
+            FileUtils.writeStringToFile(file, "media content", "UTF-8");
+            client.upload("users/userId/media/file.txt", file, "text/plain");
+        } finally {
+            file.delete();
+        }
+        pool.checkLeaks();
+        assertThat(pool.getReleased(), equalTo(pool.getAcquired()));
+    }
+
+    private void sendMessages(final BandwidthClient client) throws Exception {
+        for (int i = 0; i < 20; i++) {
+            final Map<String, Object> params = new HashMap<String, Object>();
+            params.put("from", "+19195551212");
+            params.put("to", "+13125556666");
+            params.put("text", "héllo " + i);
+            final Message message = Message.create(client, params);
+            assertThat(message.getText(), equalTo("héllo"));
+        }
+        assertThat(bodies.size(), equalTo(20));
+        final JSONObject sent = (JSONObject) new JSONParser().parse(bodies.get(19));
+        assertThat(sent.get("text"), equalTo((Object) "héllo 19"));
+
+        // error responses and the responses of retried attempts
+        unavailable.set(1);
+        assertThat(Message.get(client, "m-1").getState(), equalTo("sent"));
+        try {
+            Message.get(client, "missing");
+            fail("Expected an error");
+        } catch (final IOException | AppPlatformException e) {
+            assertTrue(e.getMessage().contains("no such message"));
+        }
+
+        pool.checkLeaks();
+        assertThat(pool.getReleased(), equalTo(pool.getAcquired()));
+        // the same few buffers served every request
+        assertTrue(pool.getAllocated() < 10);
+    }
+
+    @Test
+    public void shouldShareCoalescedResponsesWithoutTheirBuffer() throws Exception {
+        client.setCoalescingEnabled(true);
+        slowCalls = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> states = new ArrayList<Future<String>>();
+            for (int i = 0; i < 4; i++) {
+                states.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return Call.get(client, "c-1").getState();
+                    }
+                }));
+            }
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (client.getRequestCoalescer().getRequests() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            slowCalls.countDown();
+            for (final Future<String> state : states) {
+                assertThat(state.get(), equalTo("active"));
+            }
+            assertThat(client.getRequestCoalescer().getCoalesced(), equalTo(3L));
+        } finally {
+            executor.shutdownNow();
+        }
+        pool.checkLeaks();
+    }
+}
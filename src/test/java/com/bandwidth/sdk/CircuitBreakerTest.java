@@ -0,0 +1,242 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.exception.CircuitBreakerOpenException;
+import com.bandwidth.sdk.exception.RateLimitExceededException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private static final CircuitBreakerPolicy POLICY = CircuitBreakerPolicy.builder()
+            .minimumRequests(4).failureRateThreshold(0.5).window(1000, 10).openMillis(100).halfOpenProbes(2).build();
+
+    /**
+     * Breaker on a clock the test moves by hand.
+     */
+    private static class ManualClockBreaker extends CircuitBreaker {
+        long time = 1000000;
+
+        ManualClockBreaker(final List<CircuitBreakerListener> listeners) {
+            super("calls", POLICY, listeners);
+        }
+
+        @Override
+        long now() {
+            return time;
+        }
+    }
+
+    private static void failures(final CircuitBreaker breaker, final int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.tryAcquire().onResult(false);
+        }
+    }
+
+    private static void succeed(final CircuitBreaker breaker, final int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.tryAcquire().onResult(true);
+        }
+    }
+
+    @Test
+    public void shouldOpenHalfOpenAndClose() {
+        final List<String> events = new CopyOnWriteArrayList<String>();
+        final ManualClockBreaker breaker = new ManualClockBreaker(Collections.<CircuitBreakerListener>singletonList(
+                new CircuitBreakerListener() {
+                    @Override
+                    public void onStateChange(final String route, final CircuitBreaker.State from,
+                                              final CircuitBreaker.State to) {
+                        events.add(route + ":" + from + "->" + to);
+                    }
+                }));
+
+        succeed(breaker, 2);
+        failures(breaker, 1);
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+        failures(breaker, 1);
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(breaker.tryAcquire(), nullValue());
+
+        breaker.time += 100;
+        final CircuitBreaker.Permit first = breaker.tryAcquire();
+        final CircuitBreaker.Permit second = breaker.tryAcquire();
+        assertTrue(first.isProbe() && second.isProbe());
+        assertThat(breaker.tryAcquire(), nullValue());
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.HALF_OPEN));
+        first.onResult(true);
+        second.onResult(true);
+
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(events.toString(), equalTo("[calls:CLOSED->OPEN, calls:OPEN->HALF_OPEN, calls:HALF_OPEN->CLOSED]"));
+        assertThat(breaker.getRejectedCount(), equalTo(2L));
+        assertThat(breaker.getOpenedCount(), equalTo(1L));
+        assertThat(breaker.getSuccessCount(), equalTo(4L));
+        assertThat(breaker.getFailureCount(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldReopenWhenProbeFails() {
+        final ManualClockBreaker breaker = new ManualClockBreaker(new ArrayList<CircuitBreakerListener>());
+        failures(breaker, 4);
+        breaker.time += 100;
+
+        failures(breaker, 1);
+
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(breaker.tryAcquire(), nullValue());
+        assertThat(breaker.getOpenedCount(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldFreeTheProbeSlotOfARequestNotSent() {
+        final ManualClockBreaker breaker = new ManualClockBreaker(new ArrayList<CircuitBreakerListener>());
+        failures(breaker, 4);
+        breaker.time += 100;
+
+        breaker.tryAcquire().release();
+        breaker.tryAcquire().release();
+
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.HALF_OPEN));
+        succeed(breaker, 2);
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldIgnoreLateResultsOfRequestsSentWhileClosed() {
+        final ManualClockBreaker breaker = new ManualClockBreaker(new ArrayList<CircuitBreakerListener>());
+        final CircuitBreaker.Permit late = breaker.tryAcquire();
+        failures(breaker, 4);
+        breaker.time += 100;
+
+        final CircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertTrue(probe.isProbe());
+        // neither frees a probe slot nor counts as a probe
+        late.onResult(true);
+        breaker.tryAcquire();
+        assertThat(breaker.tryAcquire(), nullValue());
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.HALF_OPEN));
+
+        // only the first outcome of a permit counts
+        probe.onResult(true);
+        probe.onResult(false);
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.HALF_OPEN));
+    }
+
+    @Test
+    public void shouldForgetFailuresOutsideWindow() {
+        final ManualClockBreaker breaker = new ManualClockBreaker(new ArrayList<CircuitBreakerListener>());
+        failures(breaker, 3);
+        breaker.time += 1000;
+        succeed(breaker, 1);
+
+        failures(breaker, 1);
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+        failures(breaker, 2);
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void shouldFailFastPerRoute() throws Exception {
+        final StubServer server = new StubServer();
+        final BandwidthClient client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret",
+                server.getEndpoint(), "v1", null, null, null);
+        try {
+            server.handle("/v1/users/userId/calls", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    StubServer.reply(exchange, 500, "{}");
+                }
+            });
+            server.handle("/v1/users/userId/messages", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    StubServer.reply(exchange, 200, "{}");
+                }
+            });
+            client.setRetryPolicy(RetryPolicy.NONE);
+            client.setCircuitBreakerPolicy(CircuitBreakerPolicy.builder().minimumRequests(4).openMillis(60000)
+                    .build());
+
+            for (int i = 0; i < 4; i++) {
+                try {
+                    client.post("users/userId/calls", null);
+                } catch (final AppPlatformException expected) {
+                }
+            }
+            try {
+                client.post("users/userId/calls", null);
+                fail("Expected a CircuitBreakerOpenException");
+            } catch (final CircuitBreakerOpenException e) {
+                assertThat(e.getRoute(), equalTo("calls"));
+            }
+            client.get("users/userId/messages", null);
+
+            assertThat(server.requests.size(), equalTo(5));
+            assertThat(client.getCircuitBreaker("calls").getState(), equalTo(CircuitBreaker.State.OPEN));
+            assertThat(client.getCircuitBreaker("messages").getState(), equalTo(CircuitBreaker.State.CLOSED));
+        } finally {
+            client.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void shouldGiveTheProbeBackWhenTheRateLimitRefusesIt() throws Exception {
+        final StubServer server = new StubServer();
+        final BandwidthClient client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret",
+                server.getEndpoint(), "v1", null, null, null);
+        try {
+            final int[] status = {500};
+            server.handle("/v1/users/userId/calls", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    StubServer.reply(exchange, status[0], "{}");
+                }
+            });
+            client.setRetryPolicy(RetryPolicy.NONE);
+            client.setCircuitBreakerPolicy(CircuitBreakerPolicy.builder().minimumRequests(4).openMillis(50)
+                    .halfOpenProbes(1).build());
+            for (int i = 0; i < 4; i++) {
+                try {
+                    client.post("users/userId/calls", null);
+                } catch (final AppPlatformException expected) {
+                }
+            }
+            final CircuitBreaker breaker = client.getCircuitBreaker("calls");
+            assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+            Thread.sleep(60);
+
+            final RateLimiter limiter = client.setRateLimit(BandwidthConstants.CALLS_URI_PATH, 0.1, 1,
+                    RateLimiter.Mode.FAIL_FAST);
+            assertTrue(limiter.tryAcquire());
+            try {
+                client.post("users/userId/calls", null);
+                fail("Expected a RateLimitExceededException");
+            } catch (final RateLimitExceededException expected) {
+            }
+            assertThat(breaker.getState(), equalTo(CircuitBreaker.State.HALF_OPEN));
+
+            client.removeRateLimit(BandwidthConstants.CALLS_URI_PATH);
+            status[0] = 200;
+            client.post("users/userId/calls", null);
+            assertThat(breaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+            assertThat(breaker.getFailureCount(), equalTo(4L));
+        } finally {
+            client.close();
+            server.close();
+        }
+    }
+}
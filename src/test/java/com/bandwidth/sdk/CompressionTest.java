@@ -0,0 +1,170 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CompressionTest {
+
+    private static final String CALL = "{\"id\":\"c-1\",\"state\":\"active\"}";
+
+    private StubServer server;
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<String>();
+
+    /**
+     * Replies gzip compressed when the request accepts it, the way Catapult's front end does.
+     */
+    static void replyCompressible(final HttpExchange exchange, final String contentType, final String body)
+            throws IOException {
+        final String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (accept != null && accept.contains("gzip")) {
+            bytes = ContentDecoderTest.gzip(body);
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.handle("/v1/users/userId/calls/c-1", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                acceptEncodings.add(String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")));
+                replyCompressible(exchange, "application/json", CALL);
+            }
+        });
+        server.handle("/v1/users/userId/calls/c-2", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                // cut off before the gzip trailer
+                final byte[] gzip = ContentDecoderTest.gzip(CALL);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, gzip.length - 8);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(gzip, 0, gzip.length - 8);
+                }
+            }
+        });
+        server.handle("/v1/users/userId/media/file.txt", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                replyCompressible(exchange, "text/plain", "media content");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private BandwidthClient newClient(final Transport transport) {
+        return new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                null, null, transport);
+    }
+
+    private void assertDecoded(final BandwidthClient client) throws Exception {
+        try {
+            assertThat(Call.get(client, "c-1").getState(), equalTo("active"));
+            assertThat(acceptEncodings.get(0), equalTo("gzip, deflate"));
+
+            final File dest = File.createTempFile("download", ".txt");
+            try {
+                client.download("users/userId/media/file.txt", dest);
+                assertThat(FileUtils.readFileToString(dest), equalTo("media content"));
+            } finally {
+                dest.delete();
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void shouldDecodeWithApacheTransport() throws Exception {
+        assertDecoded(newClient(null));
+    }
+
+    @Test
+    public void shouldDecodeWithHttp2Transport() throws Exception {
+        assertDecoded(newClient(new Http2Transport()));
+    }
+
+    @Test
+    public void shouldDecodeWithAsyncClient() throws Exception {
+        final BandwidthClient client = newClient(null);
+        final BandwidthAsyncClient asyncClient = new BandwidthAsyncClient(client, 1);
+        try {
+            final RestResponse response = asyncClient.get("users/userId/calls/c-1", null).get(5, TimeUnit.SECONDS);
+            assertThat(response.getResponseText(), equalTo(CALL));
+        } finally {
+            asyncClient.close();
+            client.close();
+        }
+    }
+
+    @Test
+    public void shouldNotAskForCompressionWhenDisabled() throws Exception {
+        final BandwidthClient client = newClient(null);
+        try {
+            client.setCompressionEnabled(false);
+            assertThat(Call.get(client, "c-1").getState(), equalTo("active"));
+            assertThat(acceptEncodings.get(0), equalTo("null"));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void shouldFailATruncatedBodyWithApacheTransport() throws Exception {
+        final BandwidthClient client = newClient(null);
+        try {
+            client.get("users/userId/calls/c-2", null);
+            fail("Expected an IOException");
+        } catch (final IOException expected) {
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void shouldFailATruncatedBodyWithAsyncClient() throws Exception {
+        final BandwidthClient client = newClient(null);
+        final BandwidthAsyncClient asyncClient = new BandwidthAsyncClient(client, 1);
+        try {
+            asyncClient.get("users/userId/calls/c-2", null).get(5, TimeUnit.SECONDS);
+            fail("Expected an IOException");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        } finally {
+            asyncClient.close();
+            client.close();
+        }
+    }
+}
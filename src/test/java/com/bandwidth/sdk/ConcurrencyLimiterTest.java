@@ -0,0 +1,169 @@
+package com.bandwidth.sdk;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void shouldGrowWhileLatencyIsStable() throws Exception {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder().initialLimit(4).maxLimit(50)
+                .windowSize(10).backoffRatio(1).build();
+
+        for (int i = 0; i < 5; i++) {
+            final int limit = limiter.getLimit();
+            for (int j = 0; j < limit; j++) {
+                limiter.acquire();
+            }
+            for (int j = 0; j < 10; j++) {
+                limiter.release(false, 10 * MILLIS);
+                limiter.acquire();
+            }
+            for (int j = 0; j < limit; j++) {
+                limiter.release(true, 0);
+            }
+        }
+
+        assertTrue("limit " + limiter.getLimit(), limiter.getLimit() > 4);
+        assertThat(limiter.getInFlight(), equalTo(0));
+        assertThat(limiter.getBaselineMillis(), equalTo(10L));
+    }
+
+    @Test
+    public void shouldNotGrowWhenIdle() throws Exception {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder().initialLimit(10).windowSize(10).build();
+
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire();
+            limiter.release(false, 10 * MILLIS);
+        }
+
+        assertThat(limiter.getLimit(), equalTo(10));
+    }
+
+    @Test
+    public void shouldShrinkWhenP99Climbs() throws Exception {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder().initialLimit(40).windowSize(10).build();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(false, 10 * MILLIS);
+        }
+        final int before = limiter.getLimit();
+        for (int i = 0; i < 30; i++) {
+            limiter.acquire();
+            limiter.release(false, i % 10 == 9 ? 200 * MILLIS : 10 * MILLIS);
+        }
+
+        assertThat(limiter.getLastP99Millis(), equalTo(200L));
+        assertTrue("limit " + limiter.getLimit(), limiter.getLimit() < before);
+    }
+
+    @Test
+    public void shouldBackOffOnDrop() throws Exception {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder().initialLimit(20).minLimit(2).build();
+
+        limiter.acquire();
+        limiter.release(true, MILLIS);
+        assertThat(limiter.getLimit(), equalTo(18));
+        assertThat(limiter.getDrops(), equalTo(1L));
+
+        // each sent after the previous cut
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(true, 0);
+        }
+        assertThat(limiter.getLimit(), equalTo(2));
+    }
+
+    @Test
+    public void shouldBackOffOncePerBurstOfDrops() throws Exception {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder().initialLimit(30).minLimit(2).build();
+
+        final long[] starts = new long[30];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = limiter.acquire();
+        }
+        // every request in flight times out together
+        Thread.sleep(5);
+        for (final long start : starts) {
+            limiter.release(start, true);
+        }
+        assertThat(limiter.getDrops(), equalTo(30L));
+        assertThat(limiter.getLimit(), equalTo(27));
+
+        // a request sent after the cut that is dropped again cuts it again
+        limiter.release(limiter.acquire(), true);
+        assertThat(limiter.getLimit(), equalTo(24));
+    }
+
+    @Test
+    public void shouldBlockOverLimit() throws Exception {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder().initialLimit(1).maxLimit(1).build();
+        final long start = limiter.acquire();
+
+        final AtomicBoolean acquired = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    limiter.release(limiter.acquire(), false);
+                    acquired.set(true);
+                } catch (final IOException ignore) {
+                }
+                done.countDown();
+            }
+        });
+        waiter.start();
+
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        limiter.release(start, false);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+        assertThat(limiter.getWaits(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldReportDropsFromClient() throws Exception {
+        final StubServer server = new StubServer();
+        final BandwidthClient client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret",
+                server.getEndpoint(), "v1", null, null, null);
+        try {
+            server.handle("/v1/users/userId/calls", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    StubServer.reply(exchange, 503, "{}");
+                }
+            });
+            client.setRetryPolicy(RetryPolicy.NONE);
+            final ConcurrencyLimiter limiter = client.getConcurrencyLimiter();
+            assertThat(limiter.getLimit(), equalTo(BandwidthConstants.HTTP_MAX_DEFAULT_CONNECTIONS_PER_ROUTE));
+
+            try {
+                client.post("users/userId/calls", null);
+            } catch (final AppPlatformException expected) {
+            }
+
+            assertThat(limiter.getDrops(), equalTo(1L));
+            assertThat(limiter.getInFlight(), equalTo(0));
+            assertThat(limiter.getLimit(), equalTo(18));
+        } finally {
+            client.close();
+            server.close();
+        }
+    }
+}
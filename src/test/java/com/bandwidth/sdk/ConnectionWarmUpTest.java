@@ -0,0 +1,97 @@
+package com.bandwidth.sdk;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class ConnectionWarmUpTest {
+
+    private StubServer server;
+    private BandwidthClient client;
+    private ApacheTransport transport;
+    private HttpRoute route;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.handle("/v1/users/userId/calls", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                StubServer.reply(exchange, 200, "[]");
+            }
+        });
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                null, null, null);
+        transport = (ApacheTransport) client.getTransport();
+        final URI endpoint = URI.create(server.getEndpoint());
+        route = new HttpRoute(new HttpHost(endpoint.getHost(), endpoint.getPort(), "http"));
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    private int available() {
+        return transport.connectionManager.getStats(route).getAvailable();
+    }
+
+    @Test
+    public void shouldOpenConnectionsOnWarmUp() throws Exception {
+        assertThat(client.warmUp(5), equalTo(5));
+        assertThat(available(), equalTo(5));
+
+        assertThat(client.warmUp(5), equalTo(0));
+
+        // warmed connections must survive the stale check the pool runs on lease after inactivity
+        transport.connectionManager.setValidateAfterInactivity(1);
+        Thread.sleep(10);
+        client.get("users/userId/calls", null);
+        assertThat(available(), equalTo(5));
+    }
+
+    @Test
+    public void shouldCapWarmUpAtMaxPerRoute() throws Exception {
+        client.close();
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                10, 3, null);
+        transport = (ApacheTransport) client.getTransport();
+
+        assertThat(client.warmUp(5), equalTo(3));
+        assertThat(available(), equalTo(3));
+    }
+
+    @Test
+    public void shouldKeepWarmConnectionsThroughReaping() throws Exception {
+        client.setKeepWarm(3);
+        client.warmUp(3);
+        Thread.sleep(50);
+
+        transport.refreshWarmConnections();
+        transport.connectionManager.closeIdleConnections(40, TimeUnit.MILLISECONDS);
+        assertThat(available(), equalTo(3));
+
+        transport.connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        assertThat(available(), equalTo(0));
+        transport.refreshWarmConnections();
+        assertThat(available(), equalTo(3));
+    }
+
+    @Test
+    public void shouldDoNothingWithoutKeepWarm() throws Exception {
+        transport.refreshWarmConnections();
+        assertThat(available(), equalTo(0));
+    }
+}
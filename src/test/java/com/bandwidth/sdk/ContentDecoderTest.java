@@ -0,0 +1,77 @@
+package com.bandwidth.sdk;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ContentDecoderTest {
+
+    private static final String JSON = "[{\"id\":\"c-1\",\"from\":\"+19195551212\",\"text\":\"café\"}]";
+
+    static byte[] gzip(final String text) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(final String text, final boolean raw) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void shouldDecodeGzip() throws Exception {
+        assertThat(ContentDecoder.readText(new ByteArrayInputStream(gzip(JSON)), "gzip", "application/json"),
+                equalTo(JSON));
+    }
+
+    @Test
+    public void shouldDecodeZlibAndRawDeflate() throws Exception {
+        assertThat(ContentDecoder.readText(new ByteArrayInputStream(deflate(JSON, false)), "deflate", null),
+                equalTo(JSON));
+        assertThat(ContentDecoder.readText(new ByteArrayInputStream(deflate(JSON, true)), "deflate", null),
+                equalTo(JSON));
+    }
+
+    @Test
+    public void shouldPassIdentityThrough() throws Exception {
+        final byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+        assertThat(ContentDecoder.readText(new ByteArrayInputStream(bytes), null, null), equalTo(JSON));
+        assertThat(ContentDecoder.readText(new ByteArrayInputStream(bytes), "identity", null), equalTo(JSON));
+        assertThat(ContentDecoder.readText(null, null, null), equalTo(""));
+    }
+
+    @Test
+    public void shouldUseCharsetOfContentType() throws Exception {
+        final byte[] latin1 = JSON.getBytes(StandardCharsets.ISO_8859_1);
+        assertThat(ContentDecoder.readText(new ByteArrayInputStream(latin1), null,
+                "application/json; charset=\"ISO-8859-1\""), equalTo(JSON));
+        assertThat(ContentDecoder.charsetOf("application/json; charset=bogus"), equalTo(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldRejectUnsupportedEncoding() throws Exception {
+        try {
+            ContentDecoder.decode(new ByteArrayInputStream(new byte[0]), "br");
+            fail("Expected an IOException");
+        } catch (final IOException e) {
+            assertThat(e.getMessage(), equalTo("Unsupported Content-Encoding: br"));
+        }
+    }
+}
@@ -1,14 +1,31 @@
 package com.bandwidth.sdk;
 
+import com.bandwidth.sdk.exception.InvalidCredentialsException;
 import com.bandwidth.sdk.exception.MissingCredentialsException;
 import com.bandwidth.sdk.model.Account;
 import com.bandwidth.sdk.model.BaseModelTest;
 import com.bandwidth.sdk.model.Domain;
 import com.bandwidth.sdk.model.Endpoint;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
 import org.apache.http.HttpStatus;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 public class CredentialsTest extends BaseModelTest {
 
     @Before
@@ -39,4 +56,58 @@ public class CredentialsTest extends BaseModelTest {
     public void shouldFailDeleteEndpointWithoutCredentials() throws Exception {
         Endpoint.delete(mockClient, "DomainId", "EndpointId");
     }
+
+    @Test
+    public void shouldNotPublishASingletonWhoseCredentialsFailValidation() throws Exception {
+        final StubServer server = new StubServer();
+        final CountDownLatch validating = new CountDownLatch(1);
+        final CountDownLatch answer = new CountDownLatch(1);
+        server.handle("/v1/users/u-1/account", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                validating.countDown();
+                try {
+                    answer.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                StubServer.reply(exchange, 401, "{\"message\":\"bad credentials\"}");
+            }
+        });
+        System.setProperty(BandwidthConstants.BANDWIDTH_SYSPROP_USER_ID, "u-1");
+        System.setProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_TOKEN, "token");
+        System.setProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_SECRET, "wrong");
+        System.setProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_ENDPOINT, server.getEndpoint());
+        System.setProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_VERSION, "v1");
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<BandwidthClient> first = executor.submit(BandwidthClient::getInstance);
+            assertTrue(validating.await(5, TimeUnit.SECONDS));
+            final Future<BandwidthClient> second = executor.submit(BandwidthClient::getInstance);
+
+            // the client being validated is not handed out
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+            answer.countDown();
+
+            for (final Future<BandwidthClient> caller : Arrays.asList(first, second)) {
+                try {
+                    caller.get(5, TimeUnit.SECONDS);
+                    fail("Expected an InvalidCredentialsException");
+                } catch (final ExecutionException e) {
+                    assertTrue(e.getCause() instanceof InvalidCredentialsException);
+                }
+            }
+            assertNull(BandwidthClient.INSTANCE);
+        } finally {
+            answer.countDown();
+            executor.shutdownNow();
+            System.clearProperty(BandwidthConstants.BANDWIDTH_SYSPROP_USER_ID);
+            System.clearProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_TOKEN);
+            System.clearProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_SECRET);
+            System.clearProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_ENDPOINT);
+            System.clearProperty(BandwidthConstants.BANDWIDTH_SYSPROP_API_VERSION);
+            server.close();
+        }
+    }
 }
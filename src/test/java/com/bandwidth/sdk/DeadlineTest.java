@@ -0,0 +1,180 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.exception.DeadlineExceededException;
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.Message;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DeadlineTest {
+
+    private StubServer server;
+    private BandwidthClient client;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final HttpHandler hang = new HttpHandler() {
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.reply(exchange, 200, "{}");
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.handle("/v1/users/userId/calls/c-1", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                if ("GET".equals(exchange.getRequestMethod())) {
+                    StubServer.reply(exchange, 200, "{\"id\":\"c-1\",\"state\":\"active\"}");
+                    return;
+                }
+                try {
+                    Thread.sleep(100);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                StubServer.reply(exchange, 503, "{\"message\":\"unavailable\"}");
+            }
+        });
+        server.handle("/v1/users/userId/messages", hang);
+        server.handle("/v1/users/userId/media", hang);
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                1, 1, null);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldTimeOutAHungResponse() throws Exception {
+        client.setRetryPolicy(RetryPolicy.NONE);
+        client.setTimeoutPolicy(TimeoutPolicy.builder().socketTimeoutMillis(200).build());
+
+        final long start = System.currentTimeMillis();
+        try {
+            client.get("users/userId/media", null);
+            fail("Expected a SocketTimeoutException");
+        } catch (final SocketTimeoutException e) {
+            assertTrue(System.currentTimeMillis() - start < 2000);
+        }
+    }
+
+    @Test
+    public void shouldTimeOutThePoolLease() throws Exception {
+        client.setRetryPolicy(RetryPolicy.NONE);
+        client.setConcurrencyLimiter(null);
+        // the second identical GET must not wait for the first one
+        client.setCoalescingEnabled(false);
+        client.setTimeoutPolicy(TimeoutPolicy.builder().connectionRequestTimeoutMillis(200).build());
+
+        // holds the only pooled connection
+        final Thread hung = new Thread(() -> {
+            try {
+                client.get("users/userId/media", null);
+            } catch (final Exception ignore) {
+            }
+        });
+        hung.start();
+        while (server.requests.isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        final long start = System.currentTimeMillis();
+        try {
+            client.get("users/userId/media", null);
+            fail("Expected a ConnectionPoolTimeoutException");
+        } catch (final ConnectionPoolTimeoutException e) {
+            assertTrue(System.currentTimeMillis() - start < 2000);
+        } finally {
+            release.countDown();
+            hung.join();
+        }
+    }
+
+    @Test
+    public void shouldStopRetryingHangUpAtTheDeadline() throws Exception {
+        client.setRetryPolicy(RetryPolicy.builder().maxAttempts(20).baseDelayMillis(50).maxDelayMillis(50).build());
+        final Call call = Call.get(client, "c-1");
+        server.requests.clear();
+
+        final long start = System.currentTimeMillis();
+        try (Deadline deadline = Deadline.start(500, TimeUnit.MILLISECONDS)) {
+            call.hangUp();
+            fail("Expected the hang up to fail");
+        } catch (final AppPlatformException | DeadlineExceededException e) {
+            assertTrue(System.currentTimeMillis() - start < 1500);
+        }
+        // 100 ms per attempt, plus up to 50 ms between them
+        assertTrue(server.requests.size() < 6);
+        assertThat(Deadline.current(), nullValue());
+    }
+
+    @Test
+    public void shouldFailMessageCreateAtTheDeadline() throws Exception {
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("to", "+11111111111");
+        params.put("from", "+22222222222");
+        params.put("text", "hello");
+
+        final long start = System.currentTimeMillis();
+        try (Deadline deadline = Deadline.start(300, TimeUnit.MILLISECONDS)) {
+            Message.create(client, params);
+            fail("Expected a DeadlineExceededException");
+        } catch (final DeadlineExceededException e) {
+            assertThat(e.getCause(), instanceOf(SocketTimeoutException.class));
+            assertTrue(System.currentTimeMillis() - start < 1500);
+        }
+    }
+
+    @Test
+    public void shouldFailWithoutSendingOnceTheDeadlineHasPassed() throws Exception {
+        client.setTimeoutPolicy(TimeoutPolicy.builder().deadlineMillis(0).build());
+        try (Deadline deadline = Deadline.start(0, TimeUnit.MILLISECONDS)) {
+            Call.get(client, "c-1");
+            fail("Expected a DeadlineExceededException");
+        } catch (final DeadlineExceededException e) {
+            assertThat(server.requests.size(), equalTo(0));
+        }
+    }
+
+    @Test
+    public void shouldNotExtendAnOuterDeadline() throws Exception {
+        try (Deadline outer = Deadline.start(100, TimeUnit.MILLISECONDS)) {
+            try (Deadline inner = Deadline.start(10, TimeUnit.SECONDS)) {
+                assertTrue(inner.remainingMillis() <= 100);
+                assertThat(Deadline.current(), sameInstance(inner));
+            }
+            assertThat(Deadline.current(), sameInstance(outer));
+        }
+        assertThat(Deadline.current(), nullValue());
+    }
+}
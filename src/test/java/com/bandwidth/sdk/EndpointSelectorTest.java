@@ -0,0 +1,219 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class EndpointSelectorTest {
+
+    private static final String CALL = "{\"id\":\"c-1\",\"state\":\"active\"}";
+
+    private StubServer primary;
+    private StubServer secondary;
+    private BandwidthClient client;
+
+    private volatile long primaryDelayMillis;
+    private volatile int primaryStatus = 200;
+
+    @Before
+    public void setUp() throws Exception {
+        primary = new StubServer();
+        primary.handle("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(primaryDelayMillis);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                replyCall(exchange, primaryStatus);
+            }
+        });
+        secondary = new StubServer();
+        secondary.handle("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                replyCall(exchange, 200);
+            }
+        });
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", primary.getEndpoint(), "v1",
+                null, null, null);
+        client.setRetryPolicy(RetryPolicy.NONE);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        primary.close();
+        secondary.close();
+    }
+
+    @Test
+    public void shouldRouteToTheFastestHealthyEndpoint() throws Exception {
+        primaryDelayMillis = 150;
+        client.setEndpoints(Arrays.asList(primary.getEndpoint(), secondary.getEndpoint()),
+                FailoverPolicy.builder().probeIntervalMillis(50).build());
+        final EndpointSelector selector = client.getEndpointSelector();
+
+        awaitSelected(selector, secondary.getEndpoint());
+        assertTrue(selector.getEndpoints().get(0).getLatencyMillis() >= 150);
+
+        assertThat(Call.get(client, "c-1").getState(), equalTo("active"));
+        assertTrue(secondary.requests.contains("GET /v1/users/userId/calls/c-1"));
+        assertFalse(primary.requests.contains("GET /v1/users/userId/calls/c-1"));
+    }
+
+    @Test
+    public void shouldFailOverFromAnEndpointThatCannotBeReached() throws Exception {
+        final StubServer dead = new StubServer();
+        final String deadEndpoint = dead.getEndpoint();
+        dead.close();
+        client.setEndpoints(Arrays.asList(deadEndpoint, secondary.getEndpoint()),
+                FailoverPolicy.builder().probeIntervalMillis(60000).build());
+
+        // a POST is not retried, but it never reached the dead endpoint
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("from", "+11111111111");
+        params.put("to", "+22222222222");
+        final long start = System.currentTimeMillis();
+        client.post(client.getUserResourceUri(BandwidthConstants.CALLS_URI_PATH), params);
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        assertTrue(secondary.requests.contains("POST /v1/users/userId/calls"));
+        assertFalse(client.getEndpointSelector().getEndpoints().get(0).isHealthy());
+        assertThat(client.getEndpointSelector().getSelected().getUri(), equalTo(secondary.getEndpoint()));
+    }
+
+    @Test
+    public void shouldFailOverFromAnEndpointThatTimesOutOnHttp2Transport() throws Exception {
+        // a server that never accepts: once its backlog is full, connecting to it times out
+        final ServerSocket dead = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        final String deadEndpoint = "http://127.0.0.1:" + dead.getLocalPort();
+        final List<Socket> backlog = new ArrayList<Socket>();
+        final BandwidthClient http2Client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret",
+                deadEndpoint, "v1", null, null,
+                new Http2Transport(null, TimeoutPolicy.builder().connectTimeoutMillis(300).build()));
+        try {
+            for (int i = 0; i < 10; i++) {
+                final Socket socket = new Socket();
+                backlog.add(socket);
+                try {
+                    socket.connect(dead.getLocalSocketAddress(), 200);
+                } catch (final SocketTimeoutException full) {
+                    break;
+                }
+            }
+            http2Client.setRetryPolicy(RetryPolicy.NONE);
+            http2Client.setEndpoints(Arrays.asList(deadEndpoint, secondary.getEndpoint()),
+                    FailoverPolicy.builder().probeIntervalMillis(60000).build());
+
+            final Map<String, Object> params = new HashMap<String, Object>();
+            params.put("from", "+11111111111");
+            params.put("to", "+22222222222");
+            final long start = System.currentTimeMillis();
+            http2Client.post(http2Client.getUserResourceUri(BandwidthConstants.CALLS_URI_PATH), params);
+            assertTrue(System.currentTimeMillis() - start < 2000);
+
+            assertTrue(secondary.requests.contains("POST /v1/users/userId/calls"));
+            assertFalse(http2Client.getEndpointSelector().getEndpoints().get(0).isHealthy());
+        } finally {
+            http2Client.close();
+            for (final Socket socket : backlog) {
+                socket.close();
+            }
+            dead.close();
+        }
+    }
+
+    @Test
+    public void shouldReturnToThePrimaryOnceItRecovers() throws Exception {
+        primaryStatus = 503;
+        client.setEndpoints(Arrays.asList(primary.getEndpoint(), secondary.getEndpoint()),
+                FailoverPolicy.builder().probeIntervalMillis(50).latencyToleranceMillis(100).build());
+        final EndpointSelector selector = client.getEndpointSelector();
+        awaitSelected(selector, secondary.getEndpoint());
+        assertFalse(selector.getEndpoints().get(0).isHealthy());
+
+        primaryStatus = 200;
+        awaitSelected(selector, primary.getEndpoint());
+        assertTrue(selector.getEndpoints().get(0).isHealthy());
+        assertThat(Call.get(client, "c-1").getState(), equalTo("active"));
+        assertTrue(primary.requests.contains("GET /v1/users/userId/calls/c-1"));
+        assertThat(selector.getSwitches(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldNotTakeAnEndpointAnsweringWithoutTheApiForHealthy() throws Exception {
+        primaryStatus = 404;
+        client.setEndpoints(Arrays.asList(primary.getEndpoint(), secondary.getEndpoint()),
+                FailoverPolicy.builder().probeIntervalMillis(50).build());
+        final EndpointSelector selector = client.getEndpointSelector();
+        awaitSelected(selector, secondary.getEndpoint());
+        assertFalse(selector.getEndpoints().get(0).isHealthy());
+
+        client.setEndpoints(Arrays.asList(primary.getEndpoint(), secondary.getEndpoint()),
+                FailoverPolicy.builder().probeIntervalMillis(50).healthyStatuses(404).build());
+        final EndpointSelector tolerant = client.getEndpointSelector();
+        final long deadline = System.currentTimeMillis() + 1000;
+        while (tolerant.getEndpoints().get(0).getLatencyMillis() < 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(tolerant.getEndpoints().get(0).isHealthy());
+        assertThat(tolerant.getSelected().getUri(), equalTo(primary.getEndpoint()));
+    }
+
+    @Test
+    public void shouldLeaveOtherHostsAlone() throws Exception {
+        client.setEndpoints(Arrays.asList(primary.getEndpoint(), secondary.getEndpoint()));
+        final EndpointSelector selector = client.getEndpointSelector();
+
+        final URI media = URI.create("http://media.example.com/v1/users/userId/media/m-1");
+        final TransportRequest request = new TransportRequest("GET", media);
+        assertThat(selector.route(request), nullValue());
+        assertThat(request.getUri(), sameInstance(media));
+
+        client.setEndpoints(Collections.singletonList(secondary.getEndpoint()));
+        assertThat(client.getEndpointSelector(), nullValue());
+        assertThat(client.getPath("users/userId/calls/c-1"), equalTo(secondary.getEndpoint() + "/v1/users/userId/calls/c-1"));
+    }
+
+    private static void replyCall(final HttpExchange exchange, final int status) throws IOException {
+        if ("POST".equals(exchange.getRequestMethod())) {
+            StubServer.reply(exchange, 201, "", "Location", "/v1/users/userId/calls/c-1");
+        } else {
+            StubServer.reply(exchange, status, status == 200 ? CALL : "{\"message\":\"unavailable\"}");
+        }
+    }
+
+    private static void awaitSelected(final EndpointSelector selector, final String endpoint)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!selector.getSelected().getUri().equals(endpoint) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(selector.getSelected().getUri(), equalTo(endpoint));
+    }
+}
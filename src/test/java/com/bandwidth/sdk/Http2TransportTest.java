@@ -0,0 +1,131 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class Http2TransportTest {
+
+    private StubServer server;
+    private BandwidthClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(StubServer.testSslContext());
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                null, null, new Http2Transport(StubServer.testSslContext()));
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldGetOverTls() throws Exception {
+        server.handle("/v1/users/userId/calls/c-1", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                assertThat(exchange.getRequestHeaders().getFirst("Authorization"), equalTo("Basic dG9rZW46c2VjcmV0"));
+                StubServer.reply(exchange, 200, "{\"id\":\"c-1\",\"state\":\"active\"}");
+            }
+        });
+
+        final Call call = Call.get(client, "c-1");
+        assertThat(call.getState(), equalTo("active"));
+    }
+
+    @Test
+    public void shouldPostJsonAndReadLocation() throws Exception {
+        final StringBuilder body = new StringBuilder();
+        server.handle("/v1/users/userId/messages", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                body.append(IOUtils.toString(exchange.getRequestBody(), "UTF-8"));
+                StubServer.reply(exchange, 201, null, "Location", server.getEndpoint() + "/v1/users/userId/messages/m-1");
+            }
+        });
+
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("text", "hello");
+        final RestResponse response = client.post("users/userId/messages", params);
+
+        assertThat(body.toString(), equalTo("{\"text\":\"hello\"}"));
+        assertThat(response.getLocation(), equalTo(server.getEndpoint() + "/v1/users/userId/messages/m-1"));
+    }
+
+    @Test
+    public void shouldUploadAndDownload() throws Exception {
+        final Map<String, byte[]> stored = new HashMap<String, byte[]>();
+        server.handle("/v1/users/userId/media/file.txt", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                if ("PUT".equals(exchange.getRequestMethod())) {
+                    stored.put("file.txt", IOUtils.toByteArray(exchange.getRequestBody()));
+                    StubServer.reply(exchange, 200, null);
+                } else {
+                    exchange.sendResponseHeaders(200, stored.get("file.txt").length);
+                    exchange.getResponseBody().write(stored.get("file.txt"));
+                    exchange.close();
+                }
+            }
+        });
+
+        final File source = File.createTempFile("upload", ".txt");
+        final File dest = File.createTempFile("download", ".txt");
+        try {
+            FileUtils.writeStringToFile(source, "media content");
+            client.upload("users/userId/media/file.txt", source, "text/plain");
+            client.download("users/userId/media/file.txt", dest);
+            assertThat(FileUtils.readFileToString(dest), equalTo("media content"));
+        } finally {
+            source.delete();
+            dest.delete();
+        }
+    }
+
+    @Test
+    public void shouldRaiseAppPlatformExceptionOnError() throws Exception {
+        server.handle("/v1/users/userId/calls", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                StubServer.reply(exchange, 429, "{\"message\":\"too many requests\"}");
+            }
+        });
+
+        try {
+            client.post("users/userId/calls", new HashMap<String, Object>());
+            fail("Expected an AppPlatformException");
+        } catch (final AppPlatformException e) {
+            assertThat(e.getStatus(), equalTo(429));
+        }
+    }
+
+    @Test
+    public void shouldTakeTheConnectTimeoutFromTheTimeoutPolicy() throws Exception {
+        final Http2Transport transport = new Http2Transport(null,
+                TimeoutPolicy.builder().connectTimeoutMillis(1234).build());
+        assertThat(transport.httpClient.connectTimeout().get(), equalTo(Duration.ofMillis(1234)));
+
+        final Http2Transport unbounded = new Http2Transport(null,
+                TimeoutPolicy.builder().connectTimeoutMillis(0).build());
+        assertFalse(unbounded.httpClient.connectTimeout().isPresent());
+    }
+}
@@ -0,0 +1,87 @@
+package com.bandwidth.sdk;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class IdleConnectionReaperTest {
+
+    private static int reaperThreads() {
+        int count = 0;
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().equals("bandwidth-idle-reaper")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void shouldShareOneThreadBetweenClients() throws Exception {
+        final int registered = IdleConnectionReaper.getRegisteredCount();
+        final List<BandwidthClient> clients = new ArrayList<BandwidthClient>();
+        for (int i = 0; i < 50; i++) {
+            clients.add(new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", "http://localhost", "v1",
+                    null, null, null));
+        }
+        assertThat(IdleConnectionReaper.getRegisteredCount(), equalTo(registered + 50));
+        assertTrue(IdleConnectionReaper.isRunning());
+        assertTrue(reaperThreads() <= 1);
+
+        for (final BandwidthClient client : clients) {
+            client.close();
+        }
+        assertThat(IdleConnectionReaper.getRegisteredCount(), equalTo(registered));
+    }
+
+    @Test
+    public void shouldUnregisterOnceWhenClosedTwice() throws Exception {
+        final int registered = IdleConnectionReaper.getRegisteredCount();
+        final BandwidthClient client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret",
+                "http://localhost", "v1", null, null, null);
+        client.close();
+        client.close();
+        assertThat(IdleConnectionReaper.getRegisteredCount(), equalTo(registered));
+    }
+
+    @Test
+    public void shouldStopTheThreadWithTheLastPool() throws Exception {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        final IdleConnectionReaper.Registration registration = IdleConnectionReaper.register(connectionManager, null);
+        assertTrue(IdleConnectionReaper.isRunning());
+        registration.close();
+        if (IdleConnectionReaper.getRegisteredCount() == 0) {
+            assertThat(IdleConnectionReaper.isRunning(), equalTo(false));
+        }
+        connectionManager.shutdown();
+    }
+
+    @Test
+    public void shouldRunEveryKeepWarmHookEvenIfOneFails() throws Exception {
+        final PoolingHttpClientConnectionManager first = new PoolingHttpClientConnectionManager();
+        final PoolingHttpClientConnectionManager second = new PoolingHttpClientConnectionManager();
+        final AtomicInteger refreshed = new AtomicInteger();
+        final IdleConnectionReaper.Registration failing = IdleConnectionReaper.register(first, () -> {
+            throw new IllegalStateException("broken pool");
+        });
+        final IdleConnectionReaper.Registration working = IdleConnectionReaper.register(second,
+                refreshed::incrementAndGet);
+        try {
+            IdleConnectionReaper.reapAll();
+            IdleConnectionReaper.reapAll();
+            assertThat(refreshed.get(), equalTo(2));
+        } finally {
+            failing.close();
+            working.close();
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.events.Event;
+import com.bandwidth.sdk.model.events.EventBase;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JsonCodecTest {
+
+    private static final String DOCUMENT = "{\"id\":\"c-1\",\"count\":42,\"big\":-9007199254740993,\"ratio\":0.5,"
+            + "\"exp\":1e2,\"on\":true,\"off\":false,\"none\":null,\"tags\":[\"a\",1,{\"b\":[]}],"
+            + "\"nested\":{\"x\":\"\\u00e9\\n\\t\\\"\\\\\\/\\u2028\"}}";
+
+    private final JsonCodec jackson = new JacksonJsonCodec();
+    private final JsonCodec simple = new SimpleJsonCodec();
+
+    @Test
+    public void shouldParseTheSameValuesAsJsonSimple() throws Exception {
+        final Object expected = simple.parse(DOCUMENT);
+        final JSONObject parsed = (JSONObject) jackson.parse(DOCUMENT);
+        assertThat(parsed, equalTo(expected));
+        assertThat(parsed.get("count"), instanceOf(Long.class));
+        assertThat(parsed.get("big"), instanceOf(Long.class));
+        assertThat(parsed.get("exp"), equalTo((Object) 100.0));
+        assertThat(parsed.get("tags"), instanceOf(JSONArray.class));
+        assertThat(jackson.parse(new StringReader(DOCUMENT)), equalTo(expected));
+
+        assertThat(jackson.parse("[1,\"a\"]"), equalTo(simple.parse("[1,\"a\"]")));
+        assertThat(jackson.parse(" \"a\" "), equalTo((Object) "a"));
+    }
+
+    @Test
+    public void shouldRoundTripRequestBodies() throws Exception {
+        final Map<String, Object> params = new LinkedHashMap<String, Object>();
+        params.put("from", "+19195551212");
+        params.put("callbackUrl", "http://example.com/events?a=1&b=é");
+        params.put("text", "line\nquote\" tab\t");
+        params.put("count", 3);
+        params.put("ratio", 0.25);
+        params.put("recordingEnabled", true);
+        params.put("tag", null);
+        params.put("members", Arrays.asList("a", "b"));
+        params.put("nested", new LinkedHashMap<String, Object>(params));
+
+        final String json = jackson.serialize(params);
+        assertThat(simple.parse(json), equalTo(simple.parse(simple.serialize(params))));
+        assertThat(jackson.serialize(Double.NaN), equalTo("null"));
+    }
+
+    @Test
+    public void shouldWriteArraysAndOtherValuesAsValidJson() throws Exception {
+        final Map<String, Object> params = new LinkedHashMap<String, Object>();
+        params.put("numbers", new String[] {"+1", "+2"});
+        params.put("ids", new int[] {1, 2});
+        params.put("state", Thread.State.NEW);
+
+        assertThat(jackson.serialize(params), equalTo("{\"numbers\":[\"+1\",\"+2\"],\"ids\":[1,2],\"state\":\"NEW\"}"));
+    }
+
+    @Test
+    public void shouldFailLikeJsonSimpleOnInvalidJson() throws Exception {
+        for (final String invalid : new String[] {"", "  ", "{} x", "[1,2", "{\"a\":}", "{'a':1}"}) {
+            try {
+                simple.parse(invalid);
+                fail("Expected json-simple to fail on " + invalid);
+            } catch (final ParseException expected) {
+                // the same error from both
+            }
+            try {
+                jackson.parse(invalid);
+                fail("Expected a ParseException for " + invalid);
+            } catch (final ParseException e) {
+                assertThat(e.getErrorType(), equalTo(ParseException.ERROR_UNEXPECTED_TOKEN));
+            }
+        }
+        try {
+            jackson.parse("{} x");
+            fail("Expected a ParseException");
+        } catch (final ParseException e) {
+            assertThat(e.getPosition(), equalTo(3));
+        }
+    }
+
+    @Test
+    public void shouldSwitchTheDefaultCodec() throws Exception {
+        final JsonCodec previous = JsonCodecs.getDefault();
+        assertThat(previous, instanceOf(JacksonJsonCodec.class));
+        try {
+            JsonCodecs.setDefault(simple);
+            assertThat(JsonCodecs.getDefault(), sameInstance(simple));
+            final Event event = EventBase.createEventFromString("{\"eventType\":\"answer\",\"callId\":\"c-1\"}");
+            assertThat(event.getProperty("callId"), equalTo("c-1"));
+        } finally {
+            JsonCodecs.setDefault(previous);
+        }
+        try {
+            EventBase.createEventFromString("{\"eventType\":");
+            fail("Expected an AppPlatformException");
+        } catch (final AppPlatformException e) {
+            assertThat(e.getCause(), instanceOf(ParseException.class));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.ResourceList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.bandwidth.sdk.PagedCalls.ids;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ListPrefetchTest {
+
+    private static final int PAGES = 4;
+    private static final int SIZE = PagedCalls.SIZE;
+
+    private StubServer server;
+    private BandwidthClient client;
+    private PagedCalls pagedCalls;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        pagedCalls = PagedCalls.serve(server, PAGES);
+        client = server.newClient(null);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldRequestPagesAheadOfTheIterator() throws Exception {
+        client.setListPrefetchDepth(2);
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+
+        // pages 1 and 2 are requested before the first page is gone through, page 3 is not
+        pagedCalls.awaitRequests(3);
+        Thread.sleep(100);
+        assertThat(server.requests.size(), equalTo(3));
+        assertTrue(server.requests.get(2).contains("page=2"));
+
+        assertThat(ids(calls.iterator()), equalTo(pagedCalls.ids()));
+        assertThat(server.requests.size(), equalTo(PAGES));
+    }
+
+    @Test
+    public void shouldReadTheSameCallsWithPrefetchAndStreaming() throws Exception {
+        client.setStreamingEnabled(true);
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        // the list overrides the depth of the client from its next page
+        calls.setPrefetchDepth(PAGES);
+        assertThat(calls.getPrefetchDepth(), equalTo(PAGES));
+
+        assertThat(ids(calls.iterator()), equalTo(pagedCalls.ids()));
+        assertThat(server.requests.size(), equalTo(PAGES));
+        assertFalse(server.requests.contains("GET /v1/users/userId/calls?page=4&size=10"));
+    }
+
+    @Test
+    public void shouldKeepTheErrorOfAPrefetchedPage() throws Exception {
+        client.setListPrefetchDepth(1);
+        pagedCalls.failingPage = 1;
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+
+        assertThat(ids(calls.iterator()), equalTo(ids(0, SIZE)));
+        try {
+            calls.pageIterator();
+            fail("Expected a RuntimeException");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause() instanceof AppPlatformException);
+        }
+    }
+}
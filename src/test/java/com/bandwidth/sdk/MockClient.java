@@ -15,9 +15,6 @@ import java.util.List;
 import java.util.Map;
 
 public class MockClient extends BandwidthClient {
-    private String token;
-    private String secret;
-
     public MockClient() {
 		super(TestsHelper.TEST_USER_ID, "", "", "", "", 200, 20);
 	}
@@ -30,8 +27,6 @@ public class MockClient extends BandwidthClient {
                       final int maxConnections,
                       final int defaultMaxPerRoute){
         super(userId, token, secret, endpoint, version, maxConnections, defaultMaxPerRoute);
-        this.token = token;
-        this.secret = secret;
     }
 
     public final List<RestRequest> requests = new ArrayList<RestRequest>();
@@ -123,9 +118,7 @@ public class MockClient extends BandwidthClient {
 	public RestResponse getRestResponse() throws AppPlatformException, MissingCredentialsException {
         if (restResponse != null) {
             if (restResponse.getStatus() == 401) {
-                if (this.usersUri == null || this.usersUri.isEmpty()
-                        || this.token == null || this.token.isEmpty()
-                        || this.secret == null || this.secret.isEmpty()) {
+                if (!getCredentials().isComplete()) {
 
                     throw new MissingCredentialsException();
                 }
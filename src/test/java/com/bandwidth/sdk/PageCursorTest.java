@@ -0,0 +1,145 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.PageCursor;
+import com.bandwidth.sdk.model.PageIterator;
+import com.bandwidth.sdk.model.ResourceList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.stream.Collectors;
+
+import static com.bandwidth.sdk.PagedCalls.ids;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class PageCursorTest {
+
+    private static final int PAGES = 4;
+    private static final int SIZE = PagedCalls.SIZE;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StubServer server;
+    private BandwidthClient client;
+    private PagedCalls pagedCalls;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        pagedCalls = PagedCalls.serve(server, PAGES);
+        client = server.newClient(null);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldResumeFromTheLastCheckpoint() throws Exception {
+        final File file = new File(folder.getRoot(), "calls.cursor");
+        assertThat(PageCursor.readFrom(file), nullValue());
+
+        final PageIterator<Call> iterator = Call.list(client, 0, SIZE).pageIterator().checkpointEvery(7, file);
+        for (int i = 0; i < 23; i++) {
+            iterator.next();
+        }
+        // the export dies here
+        iterator.close();
+
+        final PageCursor cursor = PageCursor.readFrom(file);
+        assertThat(cursor.getConsumed(), equalTo(21L));
+        assertThat(cursor.getPage(), equalTo(2));
+        assertThat(cursor.getOffset(), equalTo(1));
+        assertThat(cursor.getPageLink(), equalTo(pagedCalls.link(2)));
+        assertFalse(cursor.isFinished());
+
+        server.requests.clear();
+        final PageIterator<Call> resumed = ResourceList.resume(client, cursor, Call.class).pageIterator();
+        assertThat(ids(resumed), equalTo(ids(21, PAGES * SIZE)));
+        assertThat(server.requests.get(0), equalTo("GET /v1/users/userId/calls?page=2&size=10"));
+        assertThat(resumed.getCursor().getConsumed(), equalTo((long) PAGES * SIZE));
+    }
+
+    @Test
+    public void shouldResumeFromTheEndOfAPage() throws Exception {
+        final PageIterator<Call> iterator = Call.list(client, 0, SIZE).pageIterator();
+        for (int i = 0; i < 2 * SIZE; i++) {
+            iterator.next();
+        }
+        final PageCursor cursor = iterator.getCursor();
+        assertThat(cursor.getPage(), equalTo(1));
+        assertThat(cursor.getOffset(), equalTo(SIZE));
+
+        server.requests.clear();
+        final ResourceList<Call> resumed = ResourceList.resume(client, cursor, Call.class);
+        assertThat(server.requests.get(1), equalTo("GET /v1/users/userId/calls?page=2&size=10"));
+        assertThat(resumed.pageIterator().getCursor().getConsumed(), equalTo(2L * SIZE));
+        // the list itself starts at the next element, not at the end of the page it was resumed in
+        assertThat(ids(resumed.iterator()), equalTo(ids(2 * SIZE, PAGES * SIZE)));
+        assertThat(ResourceList.resume(client, cursor, Call.class).stream().map(Call::getId)
+                .collect(Collectors.toList()), equalTo(ids(2 * SIZE, PAGES * SIZE)));
+    }
+
+    @Test
+    public void shouldResumeAPageReadByNumber() throws Exception {
+        final PageIterator<Call> iterator = Call.list(client, 1, SIZE).pageIterator();
+        for (int i = 0; i < 5; i++) {
+            iterator.next();
+        }
+        final PageCursor cursor = iterator.getCursor();
+        assertThat(cursor.getPageLink(), nullValue());
+
+        final ResourceList<Call> resumed = ResourceList.resume(client, cursor, Call.class);
+        assertThat(ids(resumed.pageIterator()), equalTo(ids(15, PAGES * SIZE)));
+    }
+
+    @Test
+    public void shouldWriteAFinishedCursorAtTheEnd() throws Exception {
+        final File file = new File(folder.getRoot(), "calls.cursor");
+        final PageIterator<Call> iterator = Call.list(client, 0, SIZE).pageIterator().checkpointEvery(1000, file);
+        assertThat(ids(iterator).size(), equalTo(PAGES * SIZE));
+
+        final PageCursor cursor = PageCursor.readFrom(file);
+        assertTrue(cursor.isFinished());
+        assertThat(cursor.getConsumed(), equalTo((long) PAGES * SIZE));
+
+        server.requests.clear();
+        final ResourceList<Call> resumed = ResourceList.resume(client, cursor, Call.class);
+        assertFalse(resumed.pageIterator().hasNext());
+        assertTrue(server.requests.isEmpty());
+    }
+
+    @Test
+    public void shouldSerializeTheCursor() throws Exception {
+        final PageCursor cursor = new PageCursor("users/userId/messages", 1000, 4000, pagedCalls.link(4000), 17,
+                4000017L, false);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cursor);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertThat(in.readObject(), equalTo((Object) cursor));
+        }
+        assertThat(PageCursor.fromJSONObject(cursor.toJSONObject()), equalTo(cursor));
+
+        final File file = new File(folder.getRoot(), "messages.cursor");
+        cursor.writeTo(file);
+        assertThat(PageCursor.readFrom(file), equalTo(cursor));
+    }
+}
@@ -0,0 +1,138 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * The calls of userId on a StubServer, in pages of SIZE calls with ids c-0, c-1, ..., for the tests of ResourceList
+ * paging. Each page but the last has a next link. Tests tweak it with failingPage and withLastLink, or wrap it in a
+ * handler of their own to look at each exchange.
+ */
+public class PagedCalls implements HttpHandler {
+
+    public static final String PATH = "/v1/users/userId/calls";
+    public static final int SIZE = 10;
+
+    private static final Pattern PAGE = Pattern.compile("page=(\\d+)");
+
+    private final StubServer server;
+    private final int pages;
+
+    /**
+     * The page answered with a 400, or -1.
+     */
+    public volatile int failingPage = -1;
+
+    /**
+     * Whether every page has a last link, from which the number of pages is known.
+     */
+    public volatile boolean withLastLink;
+
+    public PagedCalls(final StubServer server, final int pages) {
+        this.server = server;
+        this.pages = pages;
+    }
+
+    /**
+     * @param server the server.
+     * @param pages the number of pages.
+     * @return the calls, served at PATH.
+     */
+    public static PagedCalls serve(final StubServer server, final int pages) {
+        final PagedCalls calls = new PagedCalls(server, pages);
+        server.handle(PATH, calls);
+        return calls;
+    }
+
+    @Override
+    public void handle(final HttpExchange exchange) throws IOException {
+        final Matcher matcher = PAGE.matcher(exchange.getRequestURI().getQuery());
+        final int page = matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+        if (page == failingPage) {
+            StubServer.reply(exchange, 400, "{\"message\":\"bad page\"}");
+            return;
+        }
+        final StringBuilder body = new StringBuilder("[");
+        for (int i = page * SIZE; i < (page + 1) * SIZE; i++) {
+            body.append(i > page * SIZE ? "," : "").append("{\"id\":\"c-").append(i).append("\"}");
+        }
+        body.append(']');
+        final StringBuilder links = new StringBuilder();
+        if (page + 1 < pages) {
+            links.append('<').append(link(page + 1)).append(">; rel=\"next\"");
+        }
+        if (withLastLink) {
+            links.append(links.length() > 0 ? ", " : "").append('<').append(link(pages - 1)).append(">; rel=\"last\"");
+        }
+        if (links.length() > 0) {
+            StubServer.reply(exchange, 200, body.toString(), "Link", links.toString());
+        } else {
+            StubServer.reply(exchange, 200, body.toString());
+        }
+    }
+
+    /**
+     * @param page the page number.
+     * @return the absolute link to the page, as given in the Link header.
+     */
+    public String link(final int page) {
+        return server.getEndpoint() + PATH + "?page=" + page + "&size=" + SIZE;
+    }
+
+    /**
+     * @return the ids of every call, in order.
+     */
+    public List<String> ids() {
+        return ids(0, pages * SIZE);
+    }
+
+    /**
+     * Waits up to 5 seconds for the server to have received count requests, then checks it has no more.
+     *
+     * @param count the number of requests.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void awaitRequests(final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (server.requests.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(server.requests.size(), equalTo(count));
+    }
+
+    /**
+     * @param from the first id.
+     * @param to the id after the last.
+     * @return the ids c-from to c-(to - 1).
+     */
+    public static List<String> ids(final int from, final int to) {
+        final List<String> ids = new ArrayList<String>();
+        for (int i = from; i < to; i++) {
+            ids.add("c-" + i);
+        }
+        return ids;
+    }
+
+    /**
+     * @param calls the iterator, gone through to the end.
+     * @return the ids of the calls it returned.
+     */
+    public static List<String> ids(final Iterator<Call> calls) {
+        final List<String> ids = new ArrayList<String>();
+        while (calls.hasNext()) {
+            ids.add(calls.next().getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,126 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.ResourceList;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelPagesTest {
+
+    private static final int PAGES = 8;
+    private static final int SIZE = PagedCalls.SIZE;
+
+    private StubServer server;
+    private BandwidthClient client;
+    private PagedCalls pagedCalls;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        pagedCalls = new PagedCalls(server, PAGES);
+        pagedCalls.withLastLink = true;
+        server.handle(PagedCalls.PATH, new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final int current = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(current, Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                pagedCalls.handle(exchange);
+            }
+        });
+        client = server.newClient(null);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldStreamEveryPageInOrderInParallel() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        assertThat(calls.getLastLink(), equalTo(pagedCalls.link(PAGES - 1)));
+
+        final List<String> ids = calls.parallelStream().map(Call::getId).collect(Collectors.toList());
+        assertThat(ids, equalTo(pagedCalls.ids()));
+        // every page read once
+        assertThat(server.requests.size(), equalTo(PAGES));
+    }
+
+    @Test
+    public void shouldTakeThePagesTheListPrefetched() throws Exception {
+        client.setListPrefetchDepth(2);
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+
+        final List<String> ids = calls.parallelStream().map(Call::getId).collect(Collectors.toList());
+        assertThat(ids, equalTo(pagedCalls.ids()));
+        assertThat(server.requests.size(), equalTo(PAGES));
+    }
+
+    @Test
+    public void shouldReadAtMostParallelismPagesAtOnce() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        maxInFlight.set(0);
+
+        final List<String> ids = Collections.synchronizedList(new ArrayList<String>());
+        calls.forEachParallel(3, call -> ids.add(call.getId()));
+
+        Collections.sort(ids, (a, b) -> Integer.parseInt(a.substring(2)) - Integer.parseInt(b.substring(2)));
+        assertThat(ids, equalTo(pagedCalls.ids()));
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void shouldWalkThePagesWithoutALastLink() throws Exception {
+        pagedCalls.withLastLink = false;
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+
+        final List<String> ids = calls.parallelStream().map(Call::getId).collect(Collectors.toList());
+        assertThat(ids, equalTo(pagedCalls.ids()));
+        assertThat(maxInFlight.get(), equalTo(1));
+    }
+
+    @Test
+    public void shouldRethrowAPageThatCannotBeRead() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        pagedCalls.failingPage = 5;
+        try {
+            calls.forEachParallel(2, call -> { });
+            fail("Expected a RuntimeException");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getMessage().contains("page 5"));
+            // the fork join pool may wrap the exception of the worker in one of the same type
+            Throwable cause = e.getCause();
+            while (cause != null && !(cause instanceof AppPlatformException)) {
+                cause = cause.getCause();
+            }
+            assertTrue(cause instanceof AppPlatformException);
+        }
+        assertFalse(calls.isEmpty());
+    }
+}
@@ -0,0 +1,175 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.exception.DeadlineExceededException;
+import com.bandwidth.sdk.exception.RateLimitExceededException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimiterTest {
+
+    private StubServer server;
+    private BandwidthClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                null, null, null);
+        final HttpHandler ok = new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                StubServer.reply(exchange, 200, "{}");
+            }
+        };
+        server.handle("/v1/users/userId/messages", ok);
+        server.handle("/v1/users/userId/calls", ok);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldBlockUntilPermitIsAvailable() throws Exception {
+        final RateLimiter limiter = client.setRateLimit(BandwidthConstants.MESSAGES_URI_PATH, 10, 1,
+                RateLimiter.Mode.WAIT);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            client.get("users/userId/messages", null);
+        }
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("elapsed " + elapsed, elapsed >= 380);
+        assertThat(limiter.getPermitsGranted(), equalTo(5L));
+        assertTrue(limiter.getDelayedRequests() >= 1);
+        assertTrue(limiter.getMaxWaitMillis() > 0);
+    }
+
+    @Test
+    public void shouldFailFastWhenBucketIsEmpty() throws Exception {
+        final RateLimiter limiter = client.setRateLimit(BandwidthConstants.MESSAGES_URI_PATH, 0.1, 1,
+                RateLimiter.Mode.FAIL_FAST);
+
+        client.get("users/userId/messages", null);
+        try {
+            client.get("users/userId/messages", null);
+            fail("Expected a RateLimitExceededException");
+        } catch (final RateLimitExceededException e) {
+            assertThat(e.getResourcePath(), equalTo("messages"));
+        }
+        client.get("users/userId/calls", null);
+
+        assertThat(server.requests.size(), equalTo(2));
+        assertThat(limiter.getPermitsGranted(), equalTo(1L));
+        assertThat(limiter.getPermitsRejected(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldNotWaitPastTheDeadline() throws Exception {
+        final RateLimiter limiter = client.setRateLimit(BandwidthConstants.MESSAGES_URI_PATH, 0.5, 1,
+                RateLimiter.Mode.WAIT);
+
+        client.get("users/userId/messages", null);
+        final long start = System.nanoTime();
+        try (Deadline deadline = Deadline.start(200, TimeUnit.MILLISECONDS)) {
+            client.get("users/userId/messages", null);
+            fail("Expected a DeadlineExceededException");
+        } catch (final DeadlineExceededException e) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        }
+        assertThat(server.requests.size(), equalTo(1));
+        assertThat(limiter.getPermitsRejected(), equalTo(1L));
+        // the permit refused was not reserved
+        assertTrue(limiter.tryAcquire(2500));
+    }
+
+    @Test
+    public void shouldGiveThePermitBackWhenInterrupted() throws Exception {
+        final RateLimiter limiter = new RateLimiter(BandwidthConstants.MESSAGES_URI_PATH, 1, 1, RateLimiter.Mode.WAIT);
+        limiter.acquire();
+
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    limiter.acquire();
+                } catch (final InterruptedIOException e) {
+                    interrupted.set(true);
+                }
+            }
+        });
+        waiter.start();
+        Thread.sleep(100);
+        waiter.interrupt();
+        waiter.join(5000);
+        assertTrue(interrupted.get());
+        assertThat(limiter.getPermitsGranted(), equalTo(1L));
+
+        // the next permit comes a second after the first one, not two
+        assertTrue(limiter.tryAcquire(1500));
+    }
+
+    @Test
+    public void shouldWaitAsynchronously() throws Exception {
+        final RateLimiter limiter = client.setRateLimit(BandwidthConstants.MESSAGES_URI_PATH, 10, 1,
+                RateLimiter.Mode.WAIT);
+        final BandwidthAsyncClient asyncClient = new BandwidthAsyncClient(client, 1);
+        try {
+            final long start = System.nanoTime();
+            final List<CompletableFuture<RestResponse>> futures = new ArrayList<CompletableFuture<RestResponse>>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(asyncClient.get("users/userId/messages", null));
+            }
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 150);
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 180);
+            assertThat(limiter.getDelayedRequests(), equalTo(2L));
+        } finally {
+            asyncClient.close();
+        }
+    }
+
+    @Test
+    public void shouldMatchMostSpecificResourcePath() throws Exception {
+        final RateLimiter numbers = client.setRateLimit(BandwidthConstants.AVAILABLE_NUMBERS_URI_PATH, 1, 1,
+                RateLimiter.Mode.WAIT);
+        final RateLimiter local = client.setRateLimit(BandwidthConstants.AVAILABLE_NUMBERS_LOCAL_URI_PATH, 1, 1,
+                RateLimiter.Mode.WAIT);
+        final RateLimiter endpoints = client.setRateLimit(BandwidthConstants.ENDPOINTS_URI_PATH, 1, 1,
+                RateLimiter.Mode.WAIT);
+        final String base = server.getEndpoint() + "/v1/";
+
+        assertThat(client.rateLimiterFor(new URI(base + "availableNumbers/local?state=NC")), equalTo(local));
+        assertThat(client.rateLimiterFor(new URI(base + "availableNumbers/tollFree")), equalTo(numbers));
+        assertThat(client.rateLimiterFor(new URI(base + "users/userId/domains/rd-1/endpoints/re-1")),
+                equalTo(endpoints));
+        assertThat(client.rateLimiterFor(new URI(base + "users/userId/domains/rd-1")), nullValue());
+        assertThat(client.rateLimiterFor(new URI(base + "users/userId/calls")), nullValue());
+
+        client.removeRateLimit(BandwidthConstants.AVAILABLE_NUMBERS_LOCAL_URI_PATH);
+        assertThat(client.rateLimiterFor(new URI(base + "availableNumbers/local")), equalTo(numbers));
+    }
+}
@@ -0,0 +1,234 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private StubServer server;
+    private BandwidthClient client;
+    private ExecutorService executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile int status = 200;
+    private volatile String state = "active";
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.handle("/v1/users/userId/calls/c-1", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    state = "completed";
+                    StubServer.reply(exchange, 200, null);
+                    return;
+                }
+                // the state when the GET was received
+                final String current = state;
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (status == 200) {
+                    StubServer.reply(exchange, 200, "{\"id\":\"c-1\",\"state\":\"" + current + "\"}");
+                } else {
+                    StubServer.reply(exchange, status, "{\"message\":\"not found\"}");
+                }
+            }
+        });
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                CALLERS, CALLERS, null);
+        client.setRetryPolicy(RetryPolicy.NONE);
+        client.setCoalescingEnabled(true);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldSendOneRequestForConcurrentIdenticalGets() throws Exception {
+        final List<Future<Call>> calls = getConcurrently(CALLERS);
+        waitForWaiters(CALLERS);
+        release.countDown();
+
+        for (final Future<Call> call : calls) {
+            assertThat(call.get(5, TimeUnit.SECONDS).getState(), equalTo("active"));
+        }
+        assertThat(server.requests.size(), equalTo(1));
+        assertThat(client.getRequestCoalescer().getCoalesced(), equalTo((long) CALLERS - 1));
+        assertThat(client.getRequestCoalescer().getInFlight(), equalTo(0));
+
+        // nothing is cached once the request is answered
+        Call.get(client, "c-1");
+        assertThat(server.requests.size(), equalTo(2));
+    }
+
+    @Test
+    public void shouldShareAnErrorResponseWithEveryCaller() throws Exception {
+        status = 404;
+        final List<Future<Call>> calls = getConcurrently(CALLERS);
+        waitForWaiters(CALLERS);
+        release.countDown();
+
+        for (final Future<Call> call : calls) {
+            try {
+                call.get(5, TimeUnit.SECONDS);
+                fail("Expected an AppPlatformException");
+            } catch (final ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(AppPlatformException.class));
+                assertThat(((AppPlatformException) e.getCause()).getStatus(), equalTo(404));
+            }
+        }
+        assertThat(server.requests.size(), equalTo(1));
+    }
+
+    @Test
+    public void shouldResendWhenTheLeaderRunsOutOfTime() throws Exception {
+        final Future<Call> leader = executor.submit(new Callable<Call>() {
+            @Override
+            public Call call() throws Exception {
+                try (Deadline deadline = Deadline.start(200, TimeUnit.MILLISECONDS)) {
+                    return Call.get(client, "c-1");
+                }
+            }
+        });
+        waitForWaiters(1);
+        final List<Future<Call>> waiters = getConcurrently(2);
+        while (client.getRequestCoalescer().getRequests() < 3) {
+            Thread.sleep(10);
+        }
+
+        try {
+            leader.get(5, TimeUnit.SECONDS);
+            fail("Expected the leader to time out");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        }
+        release.countDown();
+        for (final Future<Call> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS).getState(), equalTo("active"));
+        }
+        // the waiters sent it once more, together
+        assertThat(server.requests.size(), equalTo(2));
+    }
+
+    @Test
+    public void shouldNotCoalesceOtherCredentialsOrWhenDisabled() throws Exception {
+        release.countDown();
+        final TransportRequest first = new TransportRequest("GET",
+                URI.create(server.getEndpoint() + "/v1/users/userId/calls/c-1"));
+        first.setHeader("Authorization", "Basic one");
+        final TransportRequest second = first.copy();
+        second.setHeader("Authorization", "Basic two");
+
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final RequestHedger.Attempt attempt = new RequestHedger.Attempt() {
+            @Override
+            public RestResponse execute(final TransportRequest request) throws IOException {
+                bothStarted.countDown();
+                try {
+                    assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+                } catch (final InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return new RestResponse();
+            }
+        };
+        final Future<RestResponse> one = executor.submit(() -> coalescer.execute(first, attempt));
+        final Future<RestResponse> two = executor.submit(() -> coalescer.execute(second, attempt));
+        one.get(5, TimeUnit.SECONDS);
+        two.get(5, TimeUnit.SECONDS);
+        assertThat(coalescer.getCoalesced(), equalTo(0L));
+
+        client.setCoalescingEnabled(false);
+        assertThat(client.getRequestCoalescer(), nullValue());
+        Call.get(client, "c-1");
+        Call.get(client, "c-1");
+        assertThat(server.requests.size(), equalTo(2));
+    }
+
+    @Test
+    public void shouldNotAnswerAReadAfterAWriteWithAnOlderRead() throws Exception {
+        final List<Future<Call>> before = getConcurrently(1);
+        waitForWaiters(1);
+
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("state", "completed");
+        client.post("users/userId/calls/c-1", params);
+        final Future<Call> after = getConcurrently(1).get(0);
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (server.requests.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertThat(before.get(0).get(5, TimeUnit.SECONDS).getState(), equalTo("active"));
+        assertThat(after.get(5, TimeUnit.SECONDS).getState(), equalTo("completed"));
+        assertThat(client.getRequestCoalescer().getCoalesced(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldNotCoalesceByDefault() throws Exception {
+        final BandwidthClient other = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret",
+                server.getEndpoint(), "v1", null, null, null);
+        try {
+            assertThat(other.getRequestCoalescer(), nullValue());
+        } finally {
+            other.close();
+        }
+    }
+
+    private List<Future<Call>> getConcurrently(final int callers) {
+        final List<Future<Call>> calls = new ArrayList<Future<Call>>();
+        for (int i = 0; i < callers; i++) {
+            calls.add(executor.submit(new Callable<Call>() {
+                @Override
+                public Call call() throws Exception {
+                    return Call.get(client, "c-1");
+                }
+            }));
+        }
+        return calls;
+    }
+
+    private void waitForWaiters(final int callers) throws InterruptedException {
+        while (client.getRequestCoalescer().getRequests() < callers || server.requests.isEmpty()) {
+            Thread.sleep(10);
+        }
+    }
+}
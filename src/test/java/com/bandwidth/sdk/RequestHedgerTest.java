@@ -0,0 +1,199 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestHedgerTest {
+
+    private StubServer server;
+    private BandwidthClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                null, null, null);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    /**
+     * Answers the first slowCount requests after delayMillis, the others at once.
+     */
+    private void handleCalls(final int slowCount, final long delayMillis) {
+        final AtomicInteger count = new AtomicInteger();
+        server.handle("/v1/users/userId/calls/c-1", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                if (count.getAndIncrement() < slowCount) {
+                    try {
+                        Thread.sleep(delayMillis);
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                }
+                StubServer.reply(exchange, 200, "{\"id\":\"c-1\",\"state\":\"active\"}");
+            }
+        });
+    }
+
+    @Test
+    public void shouldAnswerSlowGetWithHedge() throws Exception {
+        handleCalls(1, 3000);
+        client.setHedgePolicy(HedgePolicy.builder().initialDelayMillis(50).build());
+
+        final long start = System.nanoTime();
+        final Call call = Call.get(client, "c-1");
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(call.getState(), equalTo("active"));
+        assertTrue("elapsed " + elapsed, elapsed < 2000);
+        assertThat(server.requests.size(), equalTo(2));
+        assertThat(client.getRequestHedger().getHedgesSent(), equalTo(1L));
+        assertThat(client.getRequestHedger().getHedgesWon(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldNotHedgeFastGets() throws Exception {
+        handleCalls(0, 0);
+        client.setHedgePolicy(HedgePolicy.builder().initialDelayMillis(1000).minSamples(3).build());
+
+        for (int i = 0; i < 5; i++) {
+            Call.get(client, "c-1");
+        }
+
+        assertThat(server.requests.size(), equalTo(5));
+        assertThat(client.getRequestHedger().getRequests(), equalTo(5L));
+        assertThat(client.getRequestHedger().getHedgesSent(), equalTo(0L));
+        assertTrue(client.getRequestHedger().getDelayMillis() < 1000);
+    }
+
+    @Test
+    public void shouldStopHedgingWhenBudgetIsSpent() throws Exception {
+        handleCalls(10, 300);
+        client.setHedgePolicy(HedgePolicy.builder().initialDelayMillis(20).budget(0, 1).build());
+
+        Call.get(client, "c-1");
+        Call.get(client, "c-1");
+
+        assertThat(client.getRequestHedger().getHedgesSent(), equalTo(1L));
+        assertThat(client.getRequestHedger().getBudgetExhausted(), equalTo(1L));
+        assertThat(server.requests.size(), equalTo(3));
+    }
+
+    @Test
+    public void shouldNotHedgeByDefault() throws Exception {
+        handleCalls(1, 200);
+
+        Call.get(client, "c-1");
+
+        assertThat(client.getRequestHedger() == null, equalTo(true));
+        assertThat(server.requests.size(), equalTo(1));
+    }
+
+    @Test
+    public void shouldCloseTheHedgeResponseWhenThePrimaryThrows() throws Exception {
+        final CountDownLatch hedgeAnswered = new CountDownLatch(1);
+        final CountDownLatch hedgeClosed = new CountDownLatch(1);
+        final TransportRequest primary = new TransportRequest("GET", URI.create(server.getEndpoint() + "/v1/calls"));
+        try (RequestHedger hedger = new RequestHedger(HedgePolicy.builder().initialDelayMillis(10).build())) {
+            hedger.execute(primary, request -> {
+                if (request != primary) {
+                    hedgeAnswered.countDown();
+                    return new RestResponse("{}", 200) {
+                        @Override
+                        public void close() {
+                            hedgeClosed.countDown();
+                        }
+                    };
+                }
+                try {
+                    hedgeAnswered.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("primary failed");
+            });
+            fail("Expected an IllegalStateException");
+        } catch (final IllegalStateException expected) {
+        }
+        assertTrue(hedgeClosed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldRecordThePrimaryThatLostToItsHedge() throws Exception {
+        final HedgePolicy policy = HedgePolicy.builder().percentile(0.99).minSamples(1).initialDelayMillis(50)
+                .minDelayMillis(0).build();
+        try (RequestHedger hedger = new RequestHedger(policy)) {
+            final TransportRequest primary = new TransportRequest("GET", URI.create(server.getEndpoint() + "/v1/calls"));
+            final RestResponse response = hedger.execute(primary, request -> {
+                if (request != primary) {
+                    return new RestResponse("{}", 200);
+                }
+                try {
+                    request.awaitCancel(5000);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("cancelled");
+            });
+            assertThat(response.getStatus(), equalTo(200));
+            assertThat(hedger.getHedgesWon(), equalTo(1L));
+            // the hedge answered at once, the primary ran for about the 50ms before the hedge was sent
+            assertTrue(hedger.getDelayMillis() >= 40);
+        }
+    }
+
+    @Test
+    public void shouldNotWaitForAStuckHedgePastTheDeadline() throws Exception {
+        final TransportRequest primary = new TransportRequest("GET", URI.create(server.getEndpoint() + "/v1/calls"));
+        primary.setDeadline(Deadline.after(500, TimeUnit.MILLISECONDS));
+        final CountDownLatch hedgeSent = new CountDownLatch(1);
+        final CountDownLatch hedgeCancelled = new CountDownLatch(1);
+        final long start = System.currentTimeMillis();
+        try (RequestHedger hedger = new RequestHedger(HedgePolicy.builder().initialDelayMillis(10).build())) {
+            final RestResponse response = hedger.execute(primary, request -> {
+                try {
+                    if (request != primary) {
+                        hedgeSent.countDown();
+                        try {
+                            request.awaitCancel(10000);
+                        } finally {
+                            // closing the hedger may interrupt the wait as the cancel comes in
+                            if (request.isCancelled()) {
+                                hedgeCancelled.countDown();
+                            }
+                        }
+                        throw new IOException("cancelled");
+                    }
+                    hedgeSent.await(1, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new RestResponse("{}", 503);
+            });
+            assertThat(response.getStatus(), equalTo(503));
+        }
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(hedgeCancelled.await(5, TimeUnit.SECONDS));
+    }
+}
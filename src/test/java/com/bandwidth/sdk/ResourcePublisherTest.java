@@ -0,0 +1,169 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.ResourceList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static com.bandwidth.sdk.PagedCalls.ids;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ResourcePublisherTest {
+
+    private static final int PAGES = 4;
+    private static final int SIZE = PagedCalls.SIZE;
+
+    private StubServer server;
+    private BandwidthClient client;
+    private ExecutorService executor;
+    private PagedCalls pagedCalls;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        pagedCalls = PagedCalls.serve(server, PAGES);
+        client = server.newClient(null);
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-publisher"));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldPublishEveryCallOnTheExecutor() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(7);
+        calls.publisher(executor).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertThat(subscriber.ids, equalTo(pagedCalls.ids()));
+        assertThat(subscriber.error, nullValue());
+        assertTrue(subscriber.completed);
+        assertThat(subscriber.thread, equalTo("test-publisher"));
+        assertThat(server.requests.size(), equalTo(PAGES));
+    }
+
+    @Test
+    public void shouldReadPagesOnlyOnDemand() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        calls.publisher(executor).subscribe(subscriber);
+
+        subscriber.subscription.request(SIZE);
+        awaitReceived(subscriber, SIZE);
+        Thread.sleep(100);
+        assertThat(server.requests.size(), equalTo(1));
+
+        subscriber.subscription.request(1);
+        awaitReceived(subscriber, SIZE + 1);
+        assertThat(server.requests.size(), equalTo(2));
+
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(100);
+        Thread.sleep(100);
+        assertThat(subscriber.ids.size(), equalTo(SIZE + 1));
+        assertFalse(subscriber.completed);
+        assertThat(server.requests.size(), equalTo(2));
+    }
+
+    @Test
+    public void shouldSignalAPageThatCannotBeRead() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        pagedCalls.failingPage = 1;
+        final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        calls.publisher(executor).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertThat(subscriber.ids, equalTo(ids(0, SIZE)));
+        assertTrue(subscriber.error.getCause() instanceof AppPlatformException);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void shouldSignalAnInvalidRequest() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        calls.publisher(executor).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    private static void awaitReceived(final RecordingSubscriber subscriber, final int count)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.ids.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(subscriber.ids.size(), equalTo(count));
+    }
+
+    /**
+     * Requests batch elements at a time, or none unless told to with a batch of 0.
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<Call> {
+        final List<String> ids = new ArrayList<String>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final long batch;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+        volatile String thread;
+        private long left;
+
+        RecordingSubscriber(final long batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (batch > 0) {
+                left = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onNext(final Call item) {
+            thread = Thread.currentThread().getName();
+            synchronized (ids) {
+                ids.add(item.getId());
+            }
+            if (batch > 0 && batch != Long.MAX_VALUE && --left == 0) {
+                left = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.PageIterator;
+import com.bandwidth.sdk.model.ResourceList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.bandwidth.sdk.PagedCalls.ids;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResourceStreamTest {
+
+    private static final int PAGES = 4;
+    private static final int SIZE = PagedCalls.SIZE;
+
+    private StubServer server;
+    private BandwidthClient client;
+    private PagedCalls pagedCalls;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        pagedCalls = PagedCalls.serve(server, PAGES);
+        client = server.newClient(null);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldStreamEveryPageAndLeaveTheListAlone() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        try (Stream<Call> stream = calls.asStream()) {
+            assertThat(stream.map(Call::getId).collect(Collectors.toList()), equalTo(pagedCalls.ids()));
+        }
+        assertThat(calls.size(), equalTo(SIZE));
+        assertThat(calls.get(0).getId(), equalTo("c-0"));
+
+        // each iterator starts again from the current element of the list
+        int count = 0;
+        for (final Call call : calls.asIterable()) {
+            assertThat(call.getId(), equalTo("c-" + count++));
+        }
+        assertThat(count, equalTo(PAGES * SIZE));
+    }
+
+    @Test
+    public void shouldReadNoPagePastTheOneAShortCircuitStopsIn() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        assertThat(calls.asStream().limit(SIZE).count(), equalTo((long) SIZE));
+        assertThat(server.requests.size(), equalTo(1));
+
+        assertTrue(calls.asStream().anyMatch(call -> call.getId().equals("c-15")));
+        assertThat(server.requests.size(), equalTo(2));
+
+        server.requests.clear();
+        final List<String> taken = calls.asStream().map(Call::getId)
+                .takeWhile(id -> Integer.parseInt(id.substring(2)) < 25).collect(Collectors.toList());
+        assertThat(taken, equalTo(ids(0, 25)));
+        assertThat(server.requests.size(), equalTo(2));
+    }
+
+    @Test
+    public void shouldThrowAPageThatCannotBeRead() throws Exception {
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        pagedCalls.failingPage = 2;
+        final PageIterator<Call> iterator = calls.pageIterator();
+        final List<String> read = new ArrayList<String>();
+        try {
+            while (iterator.hasNext()) {
+                read.add(iterator.next().getId());
+            }
+            fail("Expected a RuntimeException");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getMessage().contains("page 2"));
+            assertTrue(e.getCause() instanceof AppPlatformException);
+        }
+        assertThat(read, equalTo(ids(0, 2 * SIZE)));
+
+        // the page is read again on the next call
+        pagedCalls.failingPage = -1;
+        assertTrue(iterator.hasNext());
+        assertThat(iterator.next().getId(), equalTo("c-20"));
+        iterator.close();
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void shouldThrowWhenTheFirstPageFailed() throws Exception {
+        pagedCalls.failingPage = 0;
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        assertTrue(calls.isEmpty());
+        try {
+            calls.asStream();
+            fail("Expected a RuntimeException");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause() instanceof AppPlatformException);
+        }
+    }
+
+    @Test
+    public void shouldTakeThePagesTheListPrefetched() throws Exception {
+        client.setListPrefetchDepth(3);
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        pagedCalls.awaitRequests(PAGES);
+        server.requests.clear();
+
+        try (Stream<Call> stream = calls.asStream()) {
+            assertThat(stream.map(Call::getId).collect(Collectors.toList()), equalTo(pagedCalls.ids()));
+        }
+        assertTrue(server.requests.isEmpty());
+    }
+
+    @Test
+    public void shouldPrefetchOnlyOnePageAheadPastThoseOfTheList() throws Exception {
+        client.setListPrefetchDepth(1);
+        final ResourceList<Call> calls = Call.list(client, 0, SIZE);
+        pagedCalls.awaitRequests(2);
+        server.requests.clear();
+
+        final PageIterator<Call> iterator = calls.pageIterator();
+        // page 1 is the list's, page 2 is requested as soon as it is loaded
+        for (int i = 0; i < SIZE + 1; i++) {
+            iterator.next();
+        }
+        pagedCalls.awaitRequests(1);
+        Thread.sleep(100);
+        assertThat(server.requests, equalTo(Collections.singletonList("GET /v1/users/userId/calls?page=2&size=10")));
+        iterator.close();
+    }
+}
@@ -0,0 +1,157 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.http.client.utils.DateUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryPolicyTest {
+
+    private StubServer server;
+    private BandwidthClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                null, null, null);
+        client.setRetryPolicy(RetryPolicy.builder().baseDelayMillis(1).maxDelayMillis(5).build());
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    private void failFirst(final String path, final int failures, final int status, final String... headers) {
+        final AtomicInteger count = new AtomicInteger();
+        server.handle(path, new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                if (count.getAndIncrement() < failures) {
+                    StubServer.reply(exchange, status, "{\"message\":\"unavailable\"}", headers);
+                } else {
+                    StubServer.reply(exchange, 200, "{\"id\":\"c-1\",\"state\":\"active\"}");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void shouldRetryGetOnServiceUnavailable() throws Exception {
+        failFirst("/v1/users/userId/calls/c-1", 2, 503);
+
+        final Call call = Call.get(client, "c-1");
+
+        assertThat(call.getState(), equalTo("active"));
+        assertThat(server.requests.size(), equalTo(3));
+        assertThat(client.getRetryMetrics().getRequests(), equalTo(1L));
+        assertThat(client.getRetryMetrics().getRetries(), equalTo(2L));
+        assertThat(client.getRetryMetrics().getRetriedAfterStatus(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldGiveUpAfterMaxAttempts() throws Exception {
+        failFirst("/v1/users/userId/calls/c-1", 10, 502);
+
+        try {
+            client.get("users/userId/calls/c-1", null);
+            fail("Expected an AppPlatformException");
+        } catch (final AppPlatformException e) {
+            assertThat(server.requests.size(), equalTo(3));
+            assertThat(client.getRetryMetrics().getAttemptsExhausted(), equalTo(1L));
+        }
+    }
+
+    @Test
+    public void shouldNotRetryPostOnInternalServerError() throws Exception {
+        failFirst("/v1/users/userId/calls", 1, 500);
+
+        try {
+            client.post("users/userId/calls", new HashMap<String, Object>());
+            fail("Expected an AppPlatformException");
+        } catch (final AppPlatformException e) {
+            assertThat(e.getStatus(), equalTo(500));
+            assertThat(server.requests.size(), equalTo(1));
+            assertThat(client.getRetryMetrics().getRetries(), equalTo(0L));
+        }
+    }
+
+    @Test
+    public void shouldRetryPostOnTooManyRequestsHonoringRetryAfter() throws Exception {
+        failFirst("/v1/users/userId/calls", 1, 429, "Retry-After", "1");
+        client.setRetryPolicy(RetryPolicy.builder().baseDelayMillis(1).maxRetryAfterMillis(200).build());
+
+        final long start = System.currentTimeMillis();
+        final RestResponse response = client.post("users/userId/calls", new HashMap<String, Object>());
+
+        assertThat(response.getStatus(), equalTo(200));
+        assertThat(server.requests.size(), equalTo(2));
+        assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+    @Test
+    public void shouldStopRetryingWhenBudgetIsSpent() throws Exception {
+        failFirst("/v1/users/userId/calls/c-1", 10, 503);
+        client.setRetryPolicy(RetryPolicy.builder().baseDelayMillis(1).maxAttempts(5).budget(0, 2).build());
+
+        try {
+            client.get("users/userId/calls/c-1", null);
+            fail("Expected an AppPlatformException");
+        } catch (final AppPlatformException e) {
+            assertThat(server.requests.size(), equalTo(3));
+            assertThat(client.getRetryMetrics().getBudgetExhausted(), equalTo(1L));
+        }
+    }
+
+    @Test
+    public void shouldNotRetryWithPolicyNone() throws Exception {
+        failFirst("/v1/users/userId/calls/c-1", 1, 503);
+        client.setRetryPolicy(RetryPolicy.NONE);
+
+        try {
+            client.get("users/userId/calls/c-1", null);
+            fail("Expected an AppPlatformException");
+        } catch (final AppPlatformException e) {
+            assertThat(server.requests.size(), equalTo(1));
+        }
+    }
+
+    @Test
+    public void shouldParseRetryAfter() {
+        assertThat(RetryPolicy.parseRetryAfter("3"), equalTo(3000L));
+        assertThat(RetryPolicy.parseRetryAfter(null), equalTo(-1L));
+        assertThat(RetryPolicy.parseRetryAfter("soon"), equalTo(-1L));
+        final long fromDate = RetryPolicy.parseRetryAfter(
+                DateUtils.formatDate(new Date(System.currentTimeMillis() + 10000)));
+        assertTrue(fromDate > 8000 && fromDate <= 10000);
+    }
+
+    @Test
+    public void shouldCapBackoff() {
+        final RetryPolicy policy = RetryPolicy.builder().baseDelayMillis(100).maxDelayMillis(250).build();
+        for (int retry = 1; retry < 40; retry++) {
+            final long delay = policy.delayMillis(retry, null);
+            assertTrue(delay >= 0 && delay <= 250);
+        }
+        assertThat(policy.delayMillis(1, "60"), equalTo(30000L));
+        assertTrue(policy.isRetryable("get", 504));
+        assertFalse(policy.isRetryable("POST", 502));
+        assertFalse(policy.isRetryableOnIOException("POST"));
+    }
+}
@@ -0,0 +1,199 @@
+package com.bandwidth.sdk;
+
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.ResourceList;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StreamingResponseTest {
+
+    private StubServer server;
+    private BandwidthClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.handle("/v1/users/userId/calls", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String query = exchange.getRequestURI().getQuery();
+                final int page = query != null && query.contains("page=1") ? 1 : 0;
+                byte[] body = callsPage(page * 50, 50).getBytes(StandardCharsets.UTF_8);
+                final String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                if (accept != null && accept.contains("gzip")) {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                        gzip.write(body);
+                    }
+                    body = out.toByteArray();
+                    exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                }
+                if (page == 0) {
+                    exchange.getResponseHeaders().add("Link",
+                            "<" + server.getEndpoint() + "/v1/users/userId/calls?page=1&size=50>; rel=\"next\"");
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.getRequestBody().close();
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.handle("/v1/users/userId/calls/missing", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                StubServer.reply(exchange, 404, "{\"message\":\"no such call\"}");
+            }
+        });
+        server.handle("/v1/users/userId/calls/count", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                StubServer.reply(exchange, 200, "42");
+            }
+        });
+        // a single connection, so a response that is not released would block the next request
+        client = new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", server.getEndpoint(), "v1",
+                1, 1, null);
+        client.setTimeoutPolicy(TimeoutPolicy.builder().connectionRequestTimeoutMillis(1000).build());
+        client.setStreamingEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldStreamListPagesIntoTheSameCalls() throws Exception {
+        final ResourceList<Call> streamed = Call.list(client, 0, 50);
+        client.setStreamingEnabled(false);
+        final ResourceList<Call> buffered = Call.list(client, 0, 50);
+
+        assertThat(streamed.size(), equalTo(50));
+        assertThat(streamed.getNextLink(), equalTo(buffered.getNextLink()));
+        for (int i = 0; i < streamed.size(); i++) {
+            assertThat(streamed.get(i).getId(), equalTo(buffered.get(i).getId()));
+            assertThat(streamed.get(i).getState(), equalTo(buffered.get(i).getState()));
+            assertThat(streamed.get(i).getChargeableDuration(), equalTo(buffered.get(i).getChargeableDuration()));
+        }
+    }
+
+    @Test
+    public void shouldReleaseTheConnectionOfEveryPage() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            // gzipped and plain pages
+            client.setCompressionEnabled(i % 2 == 0);
+            int count = 0;
+            for (final Call call : Call.list(client, 0, 50)) {
+                assertThat(call.getId(), equalTo("c-" + count));
+                count++;
+            }
+            // the second page is fetched by the iterator
+            assertThat(count, equalTo(100));
+        }
+    }
+
+    @Test
+    public void shouldReadErrorsAsText() throws Exception {
+        try {
+            client.getStreaming("users/userId/calls/missing", null);
+            fail("Expected an AppPlatformException");
+        } catch (final AppPlatformException e) {
+            assertThat(e.getStatus(), equalTo(404));
+            assertTrue(e.getMessage().contains("no such call"));
+        }
+
+        // a response abandoned half read is released when closed
+        final RestResponse response = client.getStreaming("users/userId/calls", null);
+        assertTrue(response.isStreamed());
+        assertThat(response.getContent().read(), equalTo((int) '['));
+        response.close();
+        assertFalse(response.isStreamed());
+        assertThat(Call.list(client, 0, 50).size(), equalTo(50));
+    }
+
+    @Test
+    public void shouldReadTheSameMapsAsJsonSimple() throws Exception {
+        final String text = "[{\"id\":\"c-1\",\"count\":42,\"ratio\":0.5,\"on\":true,\"off\":false,\"none\":null,"
+                + "\"tags\":[\"a\",1,{\"b\":[]}],\"nested\":{\"x\":\"\\u00e9\\n\"}},{}]";
+        final JSONArray expected = (JSONArray) new JSONParser().parse(text);
+
+        try (JsonArrayReader reader = new JsonArrayReader(new RestResponse(text, 200))) {
+            final JSONObject first = reader.next();
+            assertThat(first, equalTo(expected.get(0)));
+            assertThat(first.get("count").getClass().getName(), equalTo(Long.class.getName()));
+            assertThat(reader.next(), equalTo(expected.get(1)));
+            assertThat(reader.next(), nullValue());
+            assertThat(reader.getCount(), equalTo(2));
+        }
+        try (JsonArrayReader reader = new JsonArrayReader(new RestResponse("{\"id\":\"c-1\"}", 200))) {
+            assertThat(reader.next().get("id"), equalTo((Object) "c-1"));
+            assertThat(reader.next(), nullValue());
+        }
+    }
+
+    @Test
+    public void shouldReleaseTheResponseWhenTheBodyIsNotAnArray() throws Exception {
+        final RestResponse response = client.getStreaming("users/userId/calls/count", null);
+        assertTrue(response.isStreamed());
+        try {
+            new JsonArrayReader(response);
+            fail("the body is a number");
+        } catch (final IOException expected) {
+        }
+        assertFalse(response.isStreamed());
+        // the only connection is free again
+        assertThat(Call.list(client, 0, 50).size(), equalTo(50));
+    }
+
+    @Test
+    public void shouldMarkTheResponseAsAnErrorWhenTheRestCannotBeRead() throws Exception {
+        final RestResponse response = RestResponse.createStreamingResponse(200, new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        }, new HashMap<String, List<String>>());
+        assertFalse(response.isError());
+
+        assertThat(response.getResponseText(), equalTo("{}"));
+        assertTrue(response.isError());
+    }
+
+    private static String callsPage(final int first, final int size) {
+        final StringBuilder page = new StringBuilder("[");
+        for (int i = first; i < first + size; i++) {
+            if (i > first) {
+                page.append(',');
+            }
+            page.append("{\"id\":\"c-").append(i).append("\",\"direction\":\"out\",\"from\":\"+19195551212\",")
+                    .append("\"to\":\"+13125556666\",\"state\":\"completed\",\"chargeableDuration\":").append(i)
+                    .append(",\"startTime\":\"2013-02-08T13:15:47.587Z\"}");
+        }
+        return page.append(']').toString();
+    }
+}
@@ -0,0 +1,119 @@
+package com.bandwidth.sdk;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for the Catapult API, used by the tests that need a real HTTP exchange. The TLS flavour uses the
+ * self-signed localhost certificate in stub-server.p12; clients trust it through testSslContext().
+ */
+public class StubServer implements Closeable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    public final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+    public StubServer() throws IOException {
+        this(null);
+    }
+
+    public StubServer(final SSLContext sslContext) throws IOException {
+        if (sslContext == null) {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } else {
+            final HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress("localhost", 0), 0);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+            server = httpsServer;
+        }
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getEndpoint() {
+        return (server instanceof HttpsServer ? "https" : "http") + "://localhost:" + server.getAddress().getPort();
+    }
+
+    public static SSLContext testSslContext() throws Exception {
+        final char[] password = "changeit".toCharArray();
+        final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        final InputStream in = StubServer.class.getResourceAsStream("/stub-server.p12");
+        try {
+            keyStore.load(in, password);
+        } finally {
+            in.close();
+        }
+        final KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        kmf.init(keyStore, password);
+        final TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(keyStore);
+
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    /**
+     * @param transport the transport, null for the default ApacheTransport.
+     * @return a client for userId with credentials, pointing at this server. Benchmarks outside the package use it
+     * to reach the transport constructor.
+     */
+    public BandwidthClient newClient(final Transport transport) {
+        return new BandwidthClient(TestsHelper.TEST_USER_ID, "token", "secret", getEndpoint(), "v1", null, null,
+                transport);
+    }
+
+    public void handle(final String path, final HttpHandler handler) {
+        server.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+                handler.handle(exchange);
+            }
+        });
+    }
+
+    public static void reply(final HttpExchange exchange, final int status, final String body, final String... headers)
+            throws IOException {
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            exchange.getResponseHeaders().add(headers[i], headers[i + 1]);
+        }
+        final byte[] bytes = body == null ? new byte[0] : body.getBytes("UTF-8");
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        // consume the request first, the server resets a connection closed with unread bytes, losing the reply
+        exchange.getRequestBody().close();
+        if (bytes.length == 0) {
+            // the exchange ends with the headers, closing the body as well would end it twice
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        final OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
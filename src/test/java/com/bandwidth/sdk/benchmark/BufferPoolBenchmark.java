@@ -0,0 +1,117 @@
+package com.bandwidth.sdk.benchmark;
+
+import com.bandwidth.sdk.AppPlatformException;
+import com.bandwidth.sdk.BandwidthClient;
+import com.bandwidth.sdk.BandwidthConstants;
+import com.bandwidth.sdk.BufferPool;
+import com.bandwidth.sdk.StubServer;
+import com.bandwidth.sdk.model.Message;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends messages and fetches one from a local stand-in server, with request and response bodies held in Strings or
+ * in pooled buffers. Run with the gc profiler, gc.alloc.rate.norm is the bytes allocated per operation, the stand-in
+ * server's included:
+ *
+ * mvn -Pbenchmark test -DskipTests -Dbenchmark.args="BufferPoolBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BufferPoolBenchmark {
+
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    private StubServer server;
+    private BandwidthClient client;
+    private Map<String, Object> params;
+    private byte[] message;
+    private final byte[] drain = new byte[8192];
+
+    @Setup
+    public void setUp() throws IOException {
+        final StringBuilder text = new StringBuilder();
+        while (text.length() < 1500) {
+            text.append("Your order 12345 has shipped and will arrive on Tuesday. ");
+        }
+        params = new HashMap<String, Object>();
+        params.put("from", "+19195551212");
+        params.put("to", "+13125556666");
+        params.put("text", text.toString());
+        params.put("callbackUrl", "https://example.com/callbacks/messages");
+        message = ("{\"id\":\"m-1\",\"messageId\":\"m-1\",\"from\":\"+19195551212\",\"to\":\"+13125556666\","
+                + "\"text\":\"" + text + "\",\"time\":\"2014-04-09T19:37:20Z\",\"direction\":\"out\","
+                + "\"state\":\"sent\",\"callbackUrl\":\"https://example.com/callbacks/messages\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = new StubServer();
+        server.handle("/v1/users/userId/messages", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try (InputStream body = exchange.getRequestBody()) {
+                    while (body.read(drain) != -1) {
+                        // the body is not needed
+                    }
+                }
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().add("Location",
+                            server.getEndpoint() + "/v1/users/userId/messages/m-1");
+                    exchange.sendResponseHeaders(201, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, message.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(message);
+                }
+            }
+        });
+        client = server.newClient(null);
+        client.setCompressionEnabled(false);
+        client.setBufferPool(pooled ? new BufferPool() : null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String sendMessage() throws IOException, AppPlatformException {
+        server.requests.clear();
+        return client.post(client.getUserResourceUri(BandwidthConstants.MESSAGES_URI_PATH), params).getLocation();
+    }
+
+    @Benchmark
+    public Message getMessage() throws Exception {
+        server.requests.clear();
+        return Message.get(client, "m-1");
+    }
+}
@@ -0,0 +1,138 @@
+package com.bandwidth.sdk.benchmark;
+
+import com.bandwidth.sdk.BandwidthClient;
+import com.bandwidth.sdk.StubServer;
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.ResourceList;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fetches and parses a page of calls from a local stand-in server, with and without response compression. The
+ * server gzips the page when the request accepts it, as Catapult's front end does; wireBytes / pages in the output
+ * is the size of one page on the wire.
+ *
+ * mvn -Pbenchmark test -DskipTests -Dbenchmark.args="CompressionBenchmark -t 4"
+ *
+ * On loopback the win shows up in bytes rather than latency; over a real link to the API the saved transfer time
+ * dominates the cost of inflating the page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    @Param({"true", "false"})
+    public boolean compression;
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private StubServer server;
+    private BandwidthClient client;
+    private byte[] plainPage;
+    private byte[] gzippedPage;
+    private volatile int lastBodyLength;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Transfer {
+        public long wireBytes;
+        public long pages;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        plainPage = callsPage(pageSize).getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(plainPage);
+        }
+        gzippedPage = out.toByteArray();
+
+        // without it the stub server's separate header and body writes wait out the delayed ack on every page
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = new StubServer();
+        server.handle("/v1/users/userId/calls", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                final byte[] body;
+                if (accept != null && accept.contains("gzip")) {
+                    body = gzippedPage;
+                    exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                } else {
+                    body = plainPage;
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+                lastBodyLength = body.length;
+            }
+        });
+        client = server.newClient(null);
+        client.setCompressionEnabled(compression);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearRequests() {
+        server.requests.clear();
+    }
+
+    @Benchmark
+    public ResourceList<Call> listCalls(final Transfer transfer) throws IOException {
+        final ResourceList<Call> calls = Call.list(client, 0, pageSize);
+        transfer.wireBytes += lastBodyLength;
+        transfer.pages++;
+        return calls;
+    }
+
+    private static String callsPage(final int size) {
+        final StringBuilder page = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                page.append(',');
+            }
+            page.append("{\"id\":\"c-").append(i).append("\",")
+                    .append("\"direction\":\"out\",\"from\":\"+19195551212\",\"to\":\"+13125556666\",")
+                    .append("\"state\":\"completed\",\"startTime\":\"2013-02-08T13:15:47.587Z\",")
+                    .append("\"activeTime\":\"2013-02-08T13:15:52.347Z\",\"endTime\":\"2013-02-08T13:15:55.887Z\",")
+                    .append("\"chargeableDuration\":60,\"callbackUrl\":\"http://example.com/callbacks/calls\",")
+                    .append("\"events\":\"https://api.catapult.inetwork.com/v1/users/u-1/calls/c-").append(i)
+                    .append("/events\"}");
+        }
+        return page.append(']').toString();
+    }
+}
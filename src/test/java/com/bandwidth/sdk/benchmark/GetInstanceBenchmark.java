@@ -0,0 +1,64 @@
+package com.bandwidth.sdk.benchmark;
+
+import com.bandwidth.sdk.BandwidthClient;
+import com.bandwidth.sdk.BandwidthConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for BandwidthClient.getInstance(), the first step of every static factory such as
+ * Call.get(String). lockedGetInstance reproduces the former synchronized accessor as a baseline.
+ *
+ * Compare throughput as the thread count grows, e.g.
+ * mvn -Pbenchmark test -DskipTests -Dbenchmark.args="GetInstanceBenchmark -t 1"
+ * then -t 2, -t 4, ... up to -t max (one thread per core).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetInstanceBenchmark {
+
+    @Setup
+    public void setUp() {
+        BandwidthClient.getInstance();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BandwidthClient.shutdown();
+    }
+
+    @Benchmark
+    public BandwidthClient getInstance() {
+        return BandwidthClient.getInstance();
+    }
+
+    @Benchmark
+    public BandwidthClient lockedGetInstance() {
+        synchronized (BandwidthClient.class) {
+            return BandwidthClient.getInstance();
+        }
+    }
+
+    /**
+     * What Call.get(String) does before it goes to the network: fetch the client and build the resource uri.
+     */
+    @Benchmark
+    public String factory() {
+        return BandwidthClient.getInstance().getUserResourceInstanceUri(BandwidthConstants.CALLS_URI_PATH, "c-1");
+    }
+}
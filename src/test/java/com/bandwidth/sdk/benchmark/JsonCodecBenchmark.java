@@ -0,0 +1,87 @@
+package com.bandwidth.sdk.benchmark;
+
+import com.bandwidth.sdk.JacksonJsonCodec;
+import com.bandwidth.sdk.JsonCodec;
+import com.bandwidth.sdk.SimpleJsonCodec;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse and serialize throughput of the json codecs, on a page of 100 calls, a single call, and the params of a call
+ * create:
+ *
+ * mvn -Pbenchmark test -DskipTests -Dbenchmark.args="JsonCodecBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonCodecBenchmark {
+
+    @Param({"simple", "jackson"})
+    public String codecName;
+
+    private JsonCodec codec;
+    private String page;
+    private String call;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        codec = "simple".equals(codecName) ? new SimpleJsonCodec() : new JacksonJsonCodec();
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(call(i));
+        }
+        page = builder.append(']').toString();
+        call = call(0);
+
+        params = new HashMap<String, Object>();
+        params.put("from", "+19195551212");
+        params.put("to", "+13125556666");
+        params.put("callbackUrl", "https://example.com/callbacks/calls?tenant=t-1");
+        params.put("callTimeout", 30);
+        params.put("recordingEnabled", true);
+        params.put("tag", "order 12345");
+    }
+
+    @Benchmark
+    public Object parsePage() throws ParseException {
+        return codec.parse(page);
+    }
+
+    @Benchmark
+    public Object parseObject() throws ParseException {
+        return codec.parse(call);
+    }
+
+    @Benchmark
+    public String serializeParams() {
+        return codec.serialize(params);
+    }
+
+    private static String call(final int i) {
+        return "{\"id\":\"c-" + i + "\",\"direction\":\"out\",\"from\":\"+19195551212\",\"to\":\"+13125556666\","
+                + "\"state\":\"completed\",\"chargeableDuration\":" + i + ",\"startTime\":\"2013-02-08T13:15:47.587Z\","
+                + "\"callbackUrl\":\"https:\\/\\/example.com\\/callbacks\\/calls\",\"recordingEnabled\":false}";
+    }
+}
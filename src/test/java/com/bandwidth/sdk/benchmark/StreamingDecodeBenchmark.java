@@ -0,0 +1,102 @@
+package com.bandwidth.sdk.benchmark;
+
+import com.bandwidth.sdk.BandwidthClient;
+import com.bandwidth.sdk.StubServer;
+import com.bandwidth.sdk.model.Call;
+import com.bandwidth.sdk.model.ResourceList;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches and decodes a page of calls from a local stand-in server, read as text and parsed into maps, or streamed
+ * and decoded element by element. Run with the gc profiler for the allocation side; gc.alloc.rate.norm is the
+ * bytes allocated per page:
+ *
+ * mvn -Pbenchmark test -DskipTests -Dbenchmark.args="StreamingDecodeBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamingDecodeBenchmark {
+
+    @Param({"false", "true"})
+    public boolean streaming;
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private StubServer server;
+    private BandwidthClient client;
+    private byte[] page;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = callsPage(pageSize).getBytes(StandardCharsets.UTF_8);
+
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = new StubServer();
+        server.handle("/v1/users/userId/calls", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, page.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(page);
+                }
+            }
+        });
+        client = server.newClient(null);
+        // the page is decoded, not inflated, in both modes
+        client.setCompressionEnabled(false);
+        client.setStreamingEnabled(streaming);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public ResourceList<Call> listCalls() throws IOException {
+        server.requests.clear();
+        return Call.list(client, 0, pageSize);
+    }
+
+    private static String callsPage(final int size) {
+        final StringBuilder page = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                page.append(',');
+            }
+            page.append("{\"id\":\"c-").append(i).append("\",")
+                    .append("\"direction\":\"out\",\"from\":\"+19195551212\",\"to\":\"+13125556666\",")
+                    .append("\"state\":\"completed\",\"startTime\":\"2013-02-08T13:15:47.587Z\",")
+                    .append("\"activeTime\":\"2013-02-08T13:15:52.347Z\",\"endTime\":\"2013-02-08T13:15:55.887Z\",")
+                    .append("\"chargeableDuration\":60,\"callbackUrl\":\"http://example.com/callbacks/calls\",")
+                    .append("\"events\":\"https://api.catapult.inetwork.com/v1/users/u-1/calls/c-").append(i)
+                    .append("/events\"}");
+        }
+        return page.append(']').toString();
+    }
+}
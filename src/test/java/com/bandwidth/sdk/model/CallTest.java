@@ -58,6 +58,7 @@ public class CallTest {
 
         final Call call = new Call(mockClient, jsonObject);
 
+        mockClient.setStrictRefreshEnabled(true);
         call.hangUp();
         assertThat(mockClient.requests.get(0).name, equalTo("post"));
         assertThat(mockClient.requests.get(0).uri, equalTo("users/" + TestsHelper.TEST_USER_ID + "/calls/c-11111111111111111111111"));
@@ -66,6 +67,26 @@ public class CallTest {
         assertThat(mockClient.requests.get(1).uri, equalTo("users/" + TestsHelper.TEST_USER_ID + "/calls/c-11111111111111111111111"));
     }
 
+    @Test
+    public void shouldLeaveTheRefreshAfterACommandUntilAPropertyIsRead() throws Exception {
+        final JSONObject jsonObject = (JSONObject) new JSONParser().parse("{\"id\":\"c-1\",\"state\":\"active\"}");
+        final RestResponse response = new RestResponse();
+        response.setResponseText("{\"id\":\"c-1\",\"state\":\"completed\",\"endTime\":\"2014-08-12T10:22:54Z\"}");
+        mockClient.setRestResponse(response);
+
+        final Call call = new Call(mockClient, jsonObject);
+        call.hangUp();
+        assertThat(mockClient.requests.size(), equalTo(1));
+        assertThat(mockClient.requests.get(0).name, equalTo("post"));
+        assertThat(call.isLoaded(), equalTo(false));
+
+        assertThat(call.getState(), equalTo("completed"));
+        assertThat(call.getEndTime(), notNullValue());
+        assertThat(mockClient.requests.size(), equalTo(2));
+        assertThat(mockClient.requests.get(1).name, equalTo("get"));
+        assertThat(mockClient.requests.get(1).uri, equalTo("users/" + TestsHelper.TEST_USER_ID + "/calls/c-1"));
+    }
+
     @Test
     public void shouldAnswerOnIncoming() throws ParseException, IOException, Exception {
         final JSONObject jsonObject = (JSONObject) new JSONParser().parse("{\"to\":\"+11111111111\",\"recordings\":\"https://api.catapult.inetwork.com/v1/users/recordings\",\"transcriptionEnabled\":false,\"direction\":\"in\",\"events\":\"https://api.catapult.inetwork.com/v1/users/calls/events\",\"chargeableDuration\":300,\"state\":\"completed\",\"from\":\"+22222222222\",\"endTime\":\"2014-08-12T10:22:54Z\",\"id\":\"c-11111111111111111111111\",\"recordingEnabled\":true,\"startTime\":\"2014-08-12T10:17:54Z\",\"activeTime\":\"2014-08-12T10:17:54Z\",\"transcriptions\":\"https://api.catapult.inetwork.com/v1/users/transcriptions\"}");
@@ -76,6 +97,7 @@ public class CallTest {
 
         final Call call = new Call(mockClient, jsonObject);
 
+        mockClient.setStrictRefreshEnabled(true);
         call.answerOnIncoming();
         assertThat(mockClient.requests.get(0).name, equalTo("post"));
         assertThat(mockClient.requests.get(0).uri, equalTo("users/" + TestsHelper.TEST_USER_ID + "/calls/c-11111111111111111111111"));
@@ -94,6 +116,7 @@ public class CallTest {
 
         final Call call = new Call(mockClient, jsonObject);
 
+        mockClient.setStrictRefreshEnabled(true);
         call.rejectIncoming();
         assertThat(mockClient.requests.get(0).name, equalTo("post"));
         assertThat(mockClient.requests.get(0).uri, equalTo("users/" + TestsHelper.TEST_USER_ID + "/calls/c-11111111111111111111111"));
@@ -112,6 +135,7 @@ public class CallTest {
 
         final Call call = new Call(mockClient, jsonObject);
 
+        mockClient.setStrictRefreshEnabled(true);
         call.recordingOn();
         assertThat(mockClient.requests.get(0).name, equalTo("post"));
         assertThat(mockClient.requests.get(0).uri, equalTo("users/" + TestsHelper.TEST_USER_ID + "/calls/c-11111111111111111111111"));
@@ -138,6 +162,7 @@ public class CallTest {
 
         final Call call = new Call(mockClient, jsonObject);
 
+        mockClient.setStrictRefreshEnabled(true);
         call.callTransferBuilder("8917727272").callbackUrl("url").create();
         assertThat(mockClient.requests.get(0).name, equalTo("post"));
         assertThat(mockClient.requests.get(0).uri, equalTo("users/" + TestsHelper.TEST_USER_ID + "/calls/c-11111111111111111111111"));
@@ -413,6 +438,35 @@ public class CallTest {
         assertThat(mockClient.requests.get(0).uri, equalTo("users/" + TestsHelper.TEST_USER_ID + "/calls"));
     }
 
+    @Test
+    public void shouldCreateNewCallLazily() throws Exception {
+        final RestResponse restResponse = new RestResponse();
+        restResponse.setResponseText("{\"id\":\"id1\",\"state\":\"started\",\"from\":\"+11111111112\",\"to\":\"+11111111111\"}");
+        restResponse.setContentType("application/json");
+        final String mockUri = mockClient.getUserResourceUri(BandwidthConstants.CALLS_URI_PATH) + "/id1";
+        restResponse.setLocation(mockUri);
+        restResponse.setStatus(201);
+        mockClient.setRestResponse(restResponse);
+        mockClient.setLazyCreateEnabled(true);
+
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("to", "+11111111111");
+        params.put("from", "+11111111112");
+
+        final Call call = Call.create(mockClient, params);
+        assertThat(call.getId(), equalTo("id1"));
+        assertThat(call.isLoaded(), equalTo(false));
+        assertThat(mockClient.requests.size(), equalTo(1));
+
+        // read on first access, once
+        assertThat(call.getState(), equalTo("started"));
+        assertThat(call.getFrom(), equalTo("+11111111112"));
+        assertThat(call.isLoaded(), equalTo(true));
+        assertThat(mockClient.requests.size(), equalTo(2));
+        assertThat(mockClient.requests.get(1).name, equalTo("get"));
+        assertThat(mockClient.requests.get(1).uri, equalTo(mockUri));
+    }
+
     @Test(expected = AppPlatformException.class)
     public void shouldFailGetCallById() throws Exception {
 
@@ -17,6 +17,8 @@ import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class DomainTest {
 
@@ -72,6 +74,30 @@ public class DomainTest {
         assertThat(bridge.getDescription(), equalTo("description of the domain"));
     }
     
+    @Test
+    public void shouldThrowFromTheGetterWhenALazyDomainCannotBeRead() throws Exception {
+        final RestResponse restResponse = new RestResponse();
+        restResponse.setLocation(mockClient.getUserResourceUri(BandwidthConstants.DOMAINS_URI_PATH) + "/id1");
+        restResponse.setStatus(201);
+        mockClient.setRestResponse(restResponse);
+        mockClient.setLazyCreateEnabled(true);
+
+        final Domain domain = Domain.create(mockClient, "domainName", null);
+        assertThat(domain.getId(), equalTo("id1"));
+
+        final RestResponse notFound = new RestResponse();
+        notFound.setResponseText("{\"message\":\"not found\"}");
+        notFound.setStatus(HttpStatus.SC_NOT_FOUND);
+        mockClient.setRestResponse(notFound);
+        try {
+            domain.getName();
+            fail("Expected a RuntimeException");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause() instanceof AppPlatformException);
+        }
+        assertThat(domain.isLoaded(), equalTo(false));
+    }
+
     @Test
     public void shouldGetDomainList() throws Exception {
         final RestResponse restResponse = new RestResponse();